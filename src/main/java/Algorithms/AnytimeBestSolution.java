@@ -0,0 +1,99 @@
+package Algorithms;
+
+import ProblemRepresentation.Solution;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ *
+ * @author renansantos - The AnytimeBestSolution Class keeps a copy of the best
+ * solution of a run, with the moment it was found, so it can be read by other
+ * threads at any time, for instance to save it before a time-boxed job is
+ * killed. The copy is made by the thread of the run and published whole, so a
+ * reader never sees a solution that is still changing. Several threads may
+ * update it at once, and the best of their solutions is kept without locks.
+ */
+public class AnytimeBestSolution {
+
+    private final AtomicReference<Record> best = new AtomicReference<>();
+    private volatile long startTime = System.nanoTime();
+
+    public void start() {
+        this.best.set(null);
+        this.startTime = System.nanoTime();
+    }
+
+    /**
+     * Keeps a copy of the solution if it is better than the best one. Returns
+     * true if it was kept.
+     */
+    public boolean update(Solution solution) {
+        long evaluationFunction = solution.getEvaluationFunction();
+        if (solution.getNumberOfRoutes() == 0 || !improves(best.get(), evaluationFunction)) {
+            return false;
+        }
+        Solution copy = (Solution) solution.clone();
+        copy.buildIntegerRepresentation();
+        Record record = new Record(copy, Instant.now(), Duration.ofNanos(System.nanoTime() - startTime));
+        Record current = best.get();
+        while (improves(current, evaluationFunction)) {
+            if (best.compareAndSet(current, record)) {
+                return true;
+            }
+            current = best.get();
+        }
+        return false;
+    }
+
+    private static boolean improves(Record current, long evaluationFunction) {
+        return current == null || evaluationFunction < current.evaluationFunction;
+    }
+
+    public boolean hasSolution() {
+        return best.get() != null;
+    }
+
+    /**
+     * Returns the best solution, or null if no solution was found yet. It must
+     * not be changed, since it is shared by every reader.
+     */
+    public Solution getSolution() {
+        Record current = best.get();
+        return current == null ? null : current.solution;
+    }
+
+    public long getEvaluationFunction() {
+        Record current = best.get();
+        return current == null ? Long.MAX_VALUE : current.evaluationFunction;
+    }
+
+    public Instant getTimeFound() {
+        Record current = best.get();
+        return current == null ? null : current.timeFound;
+    }
+
+    /**
+     * Returns the time from the start of the run until the best solution was
+     * found.
+     */
+    public Duration getTimeToFind() {
+        Record current = best.get();
+        return current == null ? null : current.timeToFind;
+    }
+
+    private static final class Record {
+
+        private final Solution solution;
+        private final long evaluationFunction;
+        private final Instant timeFound;
+        private final Duration timeToFind;
+
+        private Record(Solution solution, Instant timeFound, Duration timeToFind) {
+            this.solution = solution;
+            this.evaluationFunction = solution.getEvaluationFunction();
+            this.timeFound = timeFound;
+            this.timeToFind = timeToFind;
+        }
+    }
+}
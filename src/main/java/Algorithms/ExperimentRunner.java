@@ -0,0 +1,87 @@
+package Algorithms;
+
+import InstanceReader.DataOutput;
+import ProblemRepresentation.Solution;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *
+ * @author renansantos - The ExperimentRunner Class runs the executions of an
+ * experiment on a bounded number of threads. Each execution has its own solver
+ * on the instance and its own seed, drawn from the seed of the experiment, and
+ * writes its own files. The best solution of every execution is saved in the
+ * file of the best solutions in the order of the executions, so the files are
+ * the same with any number of threads.
+ */
+public class ExperimentRunner {
+
+    private int numberOfThreads = 1;
+    private long seed = new Random().nextLong();
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    public ExperimentRunner setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+        return this;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed of the experiment. Without it the seed is random, and the
+     * experiment can be run again with the seed returned by getSeed.
+     */
+    public ExperimentRunner setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Runs the executions and returns their best solutions, in the order of
+     * the executions.
+     */
+    public List<Solution> run(String algorithmName, String instanceName, int numberOfExecutions, Execution execution) {
+        long[] seeds = new Random(seed).longs(numberOfExecutions).toArray();
+        DataOutput outputForBestSolutions = new DataOutput(algorithmName, instanceName);
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            List<Future<Solution>> results = new ArrayList<>();
+            for (int i = 0; i < numberOfExecutions; i++) {
+                int currentExecution = i;
+                results.add(executor.submit(() -> execution.run(currentExecution, seeds[currentExecution])));
+            }
+            List<Solution> bestSolutions = new ArrayList<>();
+            for (Future<Solution> result : results) {
+                Solution bestSolution = result.get();
+                outputForBestSolutions.saveBestSolutionFoundInTxtFile(bestSolution);
+                bestSolutions.add(bestSolution);
+            }
+            return bestSolutions;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * An execution of an experiment, which returns the best solution it found.
+     */
+    public interface Execution {
+
+        public Solution run(int execution, long seed);
+    }
+}
@@ -5,6 +5,9 @@ import InstanceReader.Instance;
 import ProblemRepresentation.*;
 import VRPDRTSD.VRPDRTSD;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntSupplier;
 import java.util.stream.Collectors;
 
 /**
@@ -25,7 +28,13 @@ public class GeneticAlgorithm implements EvolutionaryAlgorithm {
     private int numberOfExecutions = 1;
     private EvolutionarySolution bestIndividual = new EvolutionarySolution();
     private DataOutput output;
-    DataOutput outputForBestSolutions;
+    private StoppingCriteria stoppingCriteria = new StoppingCriteria();
+    private final AnytimeBestSolution anytimeBestSolution = new AnytimeBestSolution();
+    private Random random = new Random();
+    private ExperimentRunner experimentRunner = new ExperimentRunner();
+    private ForkJoinPool offspringPool;
+    private List<OffspringWorker> workers = new ArrayList<>();
+    private boolean verbose = true;
 
     public GeneticAlgorithm(Instance instance) {
         this.population = new ArrayList<>();
@@ -41,6 +50,35 @@ public class GeneticAlgorithm implements EvolutionaryAlgorithm {
         tryToInitializeProblem(instance, path);
     }
 
+    /**
+     * Creates an algorithm on a problem that was already read, such as one
+     * built from the data of an instance.
+     */
+    public GeneticAlgorithm(VRPDRTSD problem) {
+        this.population = new ArrayList<>();
+        this.parents = new ArrayList<>();
+        this.problem = problem;
+    }
+
+    /**
+     * Creates an algorithm for one execution of an experiment, or one island,
+     * with its own solver and the parameters of the given one.
+     */
+    GeneticAlgorithm(GeneticAlgorithm algorithm, long seed) {
+        this.population = new ArrayList<>();
+        this.parents = new ArrayList<>();
+        this.instance = algorithm.instance;
+        this.problem = algorithm.problem.newSolver(seed);
+        this.mutationProbabilty = algorithm.mutationProbabilty;
+        this.crossOverProbability = algorithm.crossOverProbability;
+        this.populationSize = algorithm.populationSize;
+        this.numberOfGenerations = algorithm.numberOfGenerations;
+        this.stoppingCriteria = algorithm.stoppingCriteria.copy();
+        this.offspringPool = algorithm.offspringPool;
+        this.verbose = algorithm.verbose;
+        setSeed(seed);
+    }
+
     private void tryToInitializeProblem(Instance instance) {
         this.problem = new VRPDRTSD(instance);
     }
@@ -73,6 +111,14 @@ public class GeneticAlgorithm implements EvolutionaryAlgorithm {
         return numberOfGenerations;
     }
 
+    public int getNumberOfExecutions() {
+        return numberOfExecutions;
+    }
+
+    public int getCurrentGeneration() {
+        return currentGeneration;
+    }
+
     public Instance getInstance() {
         return instance;
     }
@@ -110,6 +156,80 @@ public class GeneticAlgorithm implements EvolutionaryAlgorithm {
         return this;
     }
 
+    /**
+     * Sets the seed of the random numbers of the operators and of the solver,
+     * so a run can be repeated.
+     */
+    public GeneticAlgorithm setSeed(long seed) {
+        this.random = new Random(seed);
+        this.problem.setSeed(random.nextLong());
+        return this;
+    }
+
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    /**
+     * Sets whether each generation is printed on the console, which it is by
+     * default. The islands of an island model run at the same time, so they
+     * are not.
+     */
+    public GeneticAlgorithm setVerbose(boolean verbose) {
+        this.verbose = verbose;
+        return this;
+    }
+
+    /**
+     * Sets the runner of the executions of runExperiment, which may run them
+     * at the same time, each one with its own algorithm and solver.
+     */
+    public GeneticAlgorithm setExperimentRunner(ExperimentRunner experimentRunner) {
+        this.experimentRunner = experimentRunner;
+        return this;
+    }
+
+    public ExperimentRunner getExperimentRunner() {
+        return experimentRunner;
+    }
+
+    /**
+     * Sets the pool where the children of the crossover and the mutants are
+     * made, each thread with its own solver. Every child has its own seed,
+     * drawn in order from the seed of the algorithm, so the run is the same
+     * with any number of threads or without a pool.
+     */
+    public GeneticAlgorithm setOffspringPool(ForkJoinPool offspringPool) {
+        this.offspringPool = offspringPool;
+        return this;
+    }
+
+    public ForkJoinPool getOffspringPool() {
+        return offspringPool;
+    }
+
+    /**
+     * Sets the time budget, target and stagnation limit that stop a run before
+     * its generations end. In runExperiment they apply to each execution, and
+     * the stagnation is counted in generations.
+     */
+    public GeneticAlgorithm setStoppingCriteria(StoppingCriteria stoppingCriteria) {
+        this.stoppingCriteria = stoppingCriteria;
+        return this;
+    }
+
+    public StoppingCriteria getStoppingCriteria() {
+        return stoppingCriteria;
+    }
+
+    /**
+     * Returns the best individual of the current run, which can be read by
+     * other threads while the run goes on.
+     */
+    public AnytimeBestSolution getAnytimeBestSolution() {
+        return anytimeBestSolution;
+    }
+
     @Override
     public void run() {
         initializeFilesToSaveData();
@@ -149,37 +269,80 @@ public class GeneticAlgorithm implements EvolutionaryAlgorithm {
     }
 
     public void runExperiment() {
-        initializeFileToSaveBestSolutions();
-        for (int execution = 0; execution < numberOfExecutions; execution++) {
-            printExecutionInformations(execution);
-            initializeFilesToSaveData(execution);
-            initializePopulation();
-            while (stopCriterionIsNotSatisfied()) {
-                printInformations();
-                calculateFitness();
-                storeBestIndividual();
-                selection();
-                crossOverAddRoute();
-                mutation();
-                insertBestIndividual();
-                incrementsCurrentIteration();
-                saveData();
-                removeEmptySolutions();
-            }
-            finalizeExecution();
-        }
+        String instanceName = problem.getData().getInstanceName();
+        experimentRunner.run("GeneticAlgorithm", instanceName, numberOfExecutions,
+                (execution, seed) -> new GeneticAlgorithm(this, seed).runExecution(execution));
     }
 
-    private void finalizeExecution() {
-        currentGeneration = 0;
-        //this.population.clear();
-        this.parents.clear();
-        //this.printPopulation();
-
-        saveExecutionData();
+    private EvolutionarySolution runExecution(int execution) {
+        printExecutionInformations(execution);
+        initializeFilesToSaveData(execution);
+        initializePopulation();
+        while (stopCriterionIsNotSatisfied()) {
+            evolveGeneration();
+            saveData();
+        }
         this.bestIndividual.printAllInformations();
-        this.bestIndividual = new EvolutionarySolution();
-        this.population.clear();
+        return this.bestIndividual;
+    }
+
+    void evolveGeneration() {
+        printInformations();
+        calculateFitness();
+        storeBestIndividual();
+        selection();
+        crossOverAddRoute();
+        mutation();
+        insertBestIndividual();
+        incrementsCurrentIteration();
+        removeEmptySolutions();
+    }
+
+    /**
+     * Returns the best individuals of the population as the id sequences of
+     * their routes, which can be sent to another island.
+     */
+    List<List<List<Integer>>> emigrate(int numberOfEmigrants) {
+        return population.stream()
+                .sorted(Comparator.comparing(EvolutionarySolution::getEvaluationFunction))
+                .limit(numberOfEmigrants)
+                .map(GeneticAlgorithm::getIdSequences)
+                .collect(Collectors.toList());
+    }
+
+    private static List<List<Integer>> getIdSequences(Solution solution) {
+        List<List<Integer>> idSequences = new ArrayList<>();
+        for (Route route : solution.getRoutes()) {
+            List<Integer> idSequence = new ArrayList<>();
+            idSequence.add(0);
+            route.getIntegerSequenceOfAttendedRequests().stream().filter(id -> id > 0).forEach(idSequence::add);
+            idSequence.add(0);
+            idSequences.add(idSequence);
+        }
+        return idSequences;
+    }
+
+    /**
+     * Puts an individual sent by another island in place of the worst one of
+     * the population. Its routes are built again on the problem data of this
+     * island, since the islands do not share their requests. The empty routes
+     * of the individual are left out, since a route without requests cannot
+     * be scheduled.
+     */
+    void immigrate(List<List<Integer>> idSequences) {
+        EvolutionarySolution immigrant = new EvolutionarySolution();
+        for (List<Integer> idSequence : idSequences) {
+            if (idSequence.stream().noneMatch(id -> id > 0)) {
+                continue;
+            }
+            Route route = new Route();
+            route.rebuild(idSequence, problem.getData());
+            immigrant.addRoute(route);
+        }
+        immigrant.calculateEvaluationFunction(problem.getData());
+        EvolutionarySolution worst = Collections.max(population,
+                Comparator.comparing(EvolutionarySolution::getEvaluationFunction));
+        population.set(population.indexOf(worst), immigrant);
     }
 
     private void initializeFilesToSaveData() {
@@ -195,21 +358,14 @@ public class GeneticAlgorithm implements EvolutionaryAlgorithm {
 
     }
 
-    private void initializeFileToSaveBestSolutions() {
-        String algorithmName = "GeneticAlgorithm";
-        String instanceName = problem.getData().getInstanceName();
-        outputForBestSolutions = new DataOutput(algorithmName, instanceName);
-    }
-
     private void saveData() {
         output.saveBestSolutionFoundInTxtFile(bestIndividual, currentGeneration);
     }
 
-    private void saveExecutionData() {
-        outputForBestSolutions.saveBestSolutionFoundInTxtFile(bestIndividual);
-    }
-
     private void printInformations() {
+        if (!verbose) {
+            return;
+        }
         System.out.println("Current Generation = " + currentGeneration + "\t" + this.bestIndividual);
     }
 
@@ -237,19 +393,37 @@ public class GeneticAlgorithm implements EvolutionaryAlgorithm {
                 EvolutionarySolution solution = new EvolutionarySolution(this.problem.getSolution());
                 this.population.add(solution);
             }
-            System.out.println("number of solutions empty = " + numberOfSolutions);
+            if (verbose) {
+                System.out.println("number of solutions empty = " + numberOfSolutions);
+            }
         }
 
     }
 
-    private boolean stopCriterionIsNotSatisfied() {
-        return currentGeneration < numberOfGenerations;
+    boolean stopCriterionIsNotSatisfied() {
+        return currentGeneration < numberOfGenerations && !stoppingCriteria.isSatisfied();
     }
 
     @Override
     public void initializePopulation() {
+        initializePopulation(() -> 12345);
+    }
+
+    /**
+     * Builds the initial population as initializePopulation does, but each
+     * individual is built with a seed drawn from the random numbers of this
+     * algorithm. The islands start this way, so each one has its own
+     * individuals.
+     */
+    void initializeDiversePopulation() {
+        initializePopulation(random::nextInt);
+    }
+
+    private void initializePopulation(IntSupplier seeds) {
+        stoppingCriteria.start();
+        anytimeBestSolution.start();
         for (int i = 0; i < this.populationSize; i++) {
-            this.problem.buildRandomSolutionWithSeed(12345);
+            this.problem.buildRandomSolutionWithSeed(seeds.getAsInt());
             this.population.add(new EvolutionarySolution(this.problem.getSolution()));
         }
         calculateFitness();
@@ -272,7 +446,7 @@ public class GeneticAlgorithm implements EvolutionaryAlgorithm {
 
     @Override
     public void selection() {
-        Random rnd = new Random();
+        Random rnd = random;
         double cursor;
         double currentSum;
         this.parents.clear();
@@ -301,100 +475,108 @@ public class GeneticAlgorithm implements EvolutionaryAlgorithm {
 
     @Override
     public void crossOver() {
-        List<EvolutionarySolution> offspring = new ArrayList<>();
-        EvolutionarySolution firstParent = new EvolutionarySolution();
-        EvolutionarySolution secondParent = new EvolutionarySolution();
-        EvolutionarySolution firstChild = new EvolutionarySolution();
-        EvolutionarySolution secondChild = new EvolutionarySolution();
-        List<Integer> firstIdSequence = new ArrayList<>();
-        List<Integer> secondIdSequence = new ArrayList<>();
-
-        for (int i = 0; i < 2 * this.population.size(); i = i + 2) {
-            firstParent.setSolution(this.population.get(parents.get(i)));
-            secondParent.setSolution(this.population.get(parents.get(i + 1)));
+        int numberOfChildren = this.population.size();
+        EvolutionarySolution[] offspring = new EvolutionarySolution[numberOfChildren];
+        long[] seeds = random.longs(numberOfChildren).toArray();
+        forEachIndex(numberOfChildren, (i, worker) -> {
+            Random rnd = new Random(seeds[i]);
+            EvolutionarySolution firstParent = this.population.get(parents.get(2 * i));
+            EvolutionarySolution secondParent = this.population.get(parents.get(2 * i + 1));
 //            System.out.println("P1 = " + firstParent.getIdsIntegerRepresentation() +
 //                    "\nP2 = " + secondParent.getIdsIntegerRepresentation());
+            offspring[i] = insertRoute(firstParent, secondParent, rnd, worker);
+        });
+        this.population.clear();
+        this.population.addAll(Arrays.asList(offspring));
+    }
 
-            firstChild.setSolution(firstParent);
-            secondChild.setSolution(secondParent);
+    private EvolutionarySolution insertRoute(EvolutionarySolution firstParent, EvolutionarySolution secondParent,
+            Random rnd, OffspringWorker worker) {
+        ProblemData data = worker.problem.getData();
+        List<Integer> firstIdSequence = worker.firstIdSequence;
+        List<Integer> secondIdSequence = worker.secondIdSequence;
+        EvolutionarySolution firstChild = (EvolutionarySolution) firstParent.clone();
 
-            int firstRouteIndex = firstChild.getRandomRoutePosition();
-            int secondRouteIndex = secondChild.getRandomRoutePosition();
+        int firstRouteIndex = firstChild.getRandomRoutePosition(rnd);
+        int secondRouteIndex = secondParent.getRandomRoutePosition(rnd);
 
-            //testing
-            if (firstChild.getRoutes().size() >= secondChild.getRoutes().size()) {
-                firstRouteIndex = secondRouteIndex;
-            }
+        //testing
+        if (firstChild.getRoutes().size() >= secondParent.getRoutes().size()) {
+            firstRouteIndex = secondRouteIndex;
+        }
 
-            secondIdSequence.addAll(secondChild.getRoute(secondRouteIndex).getUsedIds());
-            firstChild.removeSequenceFromAllSolution(secondIdSequence, firstRouteIndex, problem.getData());
-            firstIdSequence.addAll(firstChild.getRoute(firstRouteIndex).getIntegerSequenceOfAttendedRequests());
+        secondIdSequence.addAll(secondParent.getRoute(secondRouteIndex).getUsedIds());
+        firstChild.removeSequenceFromAllSolution(secondIdSequence, firstRouteIndex, data);
+        firstIdSequence.addAll(firstChild.getRoute(firstRouteIndex).getIntegerSequenceOfAttendedRequests());
 
-            for (Integer id : secondIdSequence) {
-                List<Integer> indexesToInsert = generateTwoDiffentRequestsToOneRoute(firstIdSequence);
-                insertIdInNewSequence(firstIdSequence, indexesToInsert.get(0), id, indexesToInsert.get(1));
-            }
+        for (Integer id : secondIdSequence) {
+            List<Integer> indexesToInsert = generateTwoDiffentRequestsToOneRoute(firstIdSequence, rnd);
+            insertIdInNewSequence(firstIdSequence, indexesToInsert.get(0), id, indexesToInsert.get(1));
+        }
 
-            firstChild.getRoute(firstRouteIndex).rebuild(firstIdSequence, problem.getData());
+        firstChild.getRouteForUpdate(firstRouteIndex).rebuild(firstIdSequence, data);
 
-            firstIdSequence.clear();
-            secondIdSequence.clear();
-            firstChild.removeEmptyRoutes();
-            firstChild.calculateEvaluationFunction(problem.getData());
-            offspring.add((EvolutionarySolution) firstChild.clone());
-        }
-        this.population.clear();
-        this.population.addAll(offspring);
+        firstIdSequence.clear();
+        secondIdSequence.clear();
+        firstChild.removeEmptyRoutes();
+        firstChild.calculateEvaluationFunction(data);
+        return firstChild;
     }
 
     public void crossOverAddRoute() {
-        List<EvolutionarySolution> offspring = new ArrayList<>();
-        EvolutionarySolution firstParent = new EvolutionarySolution();
-        EvolutionarySolution secondParent = new EvolutionarySolution();
-        EvolutionarySolution firstChild = new EvolutionarySolution();
-        EvolutionarySolution secondChild = new EvolutionarySolution();
-        List<Integer> firstIdSequence = new ArrayList<>();
-        List<Integer> secondIdSequence = new ArrayList<>();
-
-        for (int i = 0; i < 2 * this.populationSize; i = i + 2) {
-            Random rnd = new Random();
+        int numberOfChildren = (int) this.populationSize;
+        EvolutionarySolution[] offspring = new EvolutionarySolution[numberOfChildren];
+        long[] seeds = random.longs(numberOfChildren).toArray();
+        forEachIndex(numberOfChildren, (i, worker) -> {
+            Random rnd = new Random(seeds[i]);
+            EvolutionarySolution firstParent = this.population.get(parents.get(2 * i));
             if (rnd.nextDouble() < this.crossOverProbability) {
-                firstParent.setSolution(this.population.get(parents.get(i)));
-                secondParent.setSolution(this.population.get(parents.get(i + 1)));
-                firstChild.setSolution(firstParent);
-                secondChild.setSolution(secondParent);
-
-                int firstRouteIndex = firstChild.getRandomRoutePosition();
-                int secondRouteIndex = secondChild.getRandomRoutePosition();
-
-                if (firstChild.getRoutes().size() >= secondChild.getRoutes().size()) {
-                    firstRouteIndex = secondRouteIndex;
-                }
-
-                secondIdSequence.addAll(secondChild.getRoute(secondRouteIndex).getUsedIds());
-                firstChild.removeSequenceFromAllSolution(secondIdSequence, firstRouteIndex, problem.getData());
-                firstIdSequence.add(0);
-                firstIdSequence.addAll(firstChild.getRoute(firstRouteIndex).getIntegerSequenceOfAttendedRequests()
-                        .stream().filter(u -> u.intValue() > 0)
-                        .collect(Collectors.toCollection(ArrayList::new)));
-                firstIdSequence.addAll(secondChild.getRoute(secondRouteIndex).getIntegerSequenceOfAttendedRequests()
-                        .stream().filter(u -> u.intValue() > 0)
-                        .collect(Collectors.toCollection(ArrayList::new)));
-                firstIdSequence.add(0);
-
-                firstChild.getRoute(firstRouteIndex).rebuild(firstIdSequence, problem.getData());
-
-                firstIdSequence.clear();
-                secondIdSequence.clear();
-                firstChild.removeEmptyRoutes();
-                firstChild.calculateEvaluationFunction(problem.getData());
-                offspring.add((EvolutionarySolution) firstChild.clone());
+                EvolutionarySolution secondParent = this.population.get(parents.get(2 * i + 1));
+                offspring[i] = addRoute(firstParent, secondParent, rnd, worker);
             } else {
-                offspring.add(this.population.get(parents.get(i)));
+                offspring[i] = firstParent;
             }
-        }
+        });
         this.population.clear();
-        this.population.addAll(offspring);
+        this.population.addAll(Arrays.asList(offspring));
+    }
+
+    /**
+     * Makes a child from a clone of the first parent, since the parents are
+     * read by the other threads at the same time.
+     */
+    private EvolutionarySolution addRoute(EvolutionarySolution firstParent, EvolutionarySolution secondParent,
+            Random rnd, OffspringWorker worker) {
+        ProblemData data = worker.problem.getData();
+        List<Integer> firstIdSequence = worker.firstIdSequence;
+        List<Integer> secondIdSequence = worker.secondIdSequence;
+        EvolutionarySolution firstChild = (EvolutionarySolution) firstParent.clone();
+
+        int firstRouteIndex = firstChild.getRandomRoutePosition(rnd);
+        int secondRouteIndex = secondParent.getRandomRoutePosition(rnd);
+
+        if (firstChild.getRoutes().size() >= secondParent.getRoutes().size()) {
+            firstRouteIndex = secondRouteIndex;
+        }
+
+        secondIdSequence.addAll(secondParent.getRoute(secondRouteIndex).getUsedIds());
+        firstChild.removeSequenceFromAllSolution(secondIdSequence, firstRouteIndex, data);
+        firstIdSequence.add(0);
+        firstIdSequence.addAll(firstChild.getRoute(firstRouteIndex).getIntegerSequenceOfAttendedRequests()
+                .stream().filter(u -> u.intValue() > 0)
+                .collect(Collectors.toCollection(ArrayList::new)));
+        firstIdSequence.addAll(secondParent.getRoute(secondRouteIndex).getIntegerSequenceOfAttendedRequests()
+                .stream().filter(u -> u.intValue() > 0)
+                .collect(Collectors.toCollection(ArrayList::new)));
+        firstIdSequence.add(0);
+
+        firstChild.getRouteForUpdate(firstRouteIndex).rebuild(firstIdSequence, data);
+
+        firstIdSequence.clear();
+        secondIdSequence.clear();
+        firstChild.removeEmptyRoutes();
+        firstChild.calculateEvaluationFunction(data);
+        return firstChild;
     }
 
     public void printPopulation() {
@@ -420,8 +602,7 @@ public class GeneticAlgorithm implements EvolutionaryAlgorithm {
         idSequenceToInsertRequest.addAll(newIdSequence);
     }
 
-    private List<Integer> generateTwoDiffentRequestsToOneRoute(List<Integer> idSequence) {
-        Random rnd = new Random();
+    private List<Integer> generateTwoDiffentRequestsToOneRoute(List<Integer> idSequence, Random rnd) {
         List<Integer> indexes = new ArrayList<>();
         int routeSize = idSequence.size();
         int firstRequest, secondRequest;
@@ -448,26 +629,98 @@ public class GeneticAlgorithm implements EvolutionaryAlgorithm {
 
     @Override
     public void mutation() {
-        Random rnd = new Random();
-        for (int i = 0; i < this.populationSize; i++) {
+        int numberOfIndividuals = (int) Math.min(this.populationSize, this.population.size());
+        EvolutionarySolution[] mutants = new EvolutionarySolution[numberOfIndividuals];
+        long[] seeds = random.longs(numberOfIndividuals).toArray();
+        forEachIndex(numberOfIndividuals, (i, worker) -> {
+            Random rnd = new Random(seeds[i]);
             double probability = rnd.nextDouble();
             if (probability < this.mutationProbabilty) {
-                problem.setSolution(this.population.get(i));
-                double localSearchProbability = rnd.nextDouble();
-                if (localSearchProbability < 0.95) {
-                    problem.perturbation(5, 1);
-                } else {
-                    //System.out.println("Local Search");
-                    //problem.localSearch(2);
-                    //problem.localSearch(6);
-                    //System.out.println(problem.getSolution());
-                    //problem.setLocalSearchType(1);
-                    problem.vns();
-                    //problem.vndForLocalSearchInIls(6);
-                    //problem.ils();
-                }
-                this.population.get(i).setSolution(problem.getSolution());
+                mutants[i] = mutate(this.population.get(i), rnd, worker);
             }
+        });
+        for (int i = 0; i < numberOfIndividuals; i++) {
+            if (mutants[i] != null) {
+                this.population.set(i, mutants[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns a mutant of the individual, which is left as it is, since the
+     * same individual may be in more than one place of the population.
+     */
+    private EvolutionarySolution mutate(EvolutionarySolution individual, Random rnd, OffspringWorker worker) {
+        VRPDRTSD solver = worker.problem;
+        solver.setSeed(rnd.nextLong());
+        double localSearchProbability = rnd.nextDouble();
+        if (localSearchProbability < 0.95) {
+            solver.setSolution((Solution) individual.clone());
+            solver.perturbation(5, 1);
+        } else {
+            //System.out.println("Local Search");
+            //problem.localSearch(2);
+            //problem.localSearch(6);
+            //System.out.println(problem.getSolution());
+            //problem.setLocalSearchType(1);
+            solver = problem.newSolver(rnd.nextLong());
+            solver.setSolution((Solution) individual.clone());
+            solver.vns();
+            //problem.vndForLocalSearchInIls(6);
+            //problem.ils();
+        }
+        EvolutionarySolution mutant = new EvolutionarySolution();
+        mutant.setSolution(solver.getSolution());
+        return mutant;
+    }
+
+    /**
+     * Runs the task for every index, split in one block of indexes for each
+     * worker, and waits for all of them.
+     */
+    private void forEachIndex(int size, IndexTask task) {
+        int numberOfWorkers = offspringPool == null ? 1 : offspringPool.getParallelism();
+        while (workers.size() < numberOfWorkers) {
+            workers.add(new OffspringWorker(problem.newSolver(0)));
+        }
+        int numberOfBlocks = Math.max(1, Math.min(numberOfWorkers, size));
+        if (numberOfBlocks == 1) {
+            runBlock(0, size, task, workers.get(0));
+            return;
+        }
+        List<ForkJoinTask<?>> blocks = new ArrayList<>();
+        for (int block = 0; block < numberOfBlocks; block++) {
+            int from = block * size / numberOfBlocks;
+            int to = (block + 1) * size / numberOfBlocks;
+            OffspringWorker worker = workers.get(block);
+            blocks.add(offspringPool.submit(() -> runBlock(from, to, task, worker)));
+        }
+        blocks.forEach(ForkJoinTask::join);
+    }
+
+    private static void runBlock(int from, int to, IndexTask task, OffspringWorker worker) {
+        for (int i = from; i < to; i++) {
+            task.run(i, worker);
+        }
+    }
+
+    private interface IndexTask {
+
+        public void run(int index, OffspringWorker worker);
+    }
+
+    /**
+     * The state of the operators in a thread: a solver with its own search
+     * context and the buffers of the id sequences.
+     */
+    private static final class OffspringWorker {
+
+        private final VRPDRTSD problem;
+        private final List<Integer> firstIdSequence = new ArrayList<>();
+        private final List<Integer> secondIdSequence = new ArrayList<>();
+
+        private OffspringWorker(VRPDRTSD problem) {
+            this.problem = problem;
         }
     }
 
@@ -476,6 +729,8 @@ public class GeneticAlgorithm implements EvolutionaryAlgorithm {
         if (bestIndividual.getEvaluationFunction() > this.population.get(0).getEvaluationFunction()) {
             this.bestIndividual.setSolution(population.get(0));
         }
+        anytimeBestSolution.update(bestIndividual);
+        stoppingCriteria.countIteration(anytimeBestSolution.getEvaluationFunction());
     }
 
     @Override
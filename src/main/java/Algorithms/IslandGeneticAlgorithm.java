@@ -0,0 +1,353 @@
+package Algorithms;
+
+import InstanceReader.DataOutput;
+import ProblemRepresentation.EvolutionarySolution;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *
+ * @author renansantos - The IslandGeneticAlgorithm Class evolves several
+ * populations of a genetic algorithm, the islands, each one on its own thread
+ * and with its own solver. Every few generations each island sends its best
+ * individuals to its neighbors, in a ring or to every other island, through
+ * bounded lock-free queues, and takes the individuals sent to it in place of
+ * its worst ones. The population size of the genetic algorithm is split among
+ * the islands. Each island builds its first individuals with seeds of its own
+ * and prints nothing, since the islands run at the same time.
+ */
+public class IslandGeneticAlgorithm implements EvolutionaryAlgorithm {
+
+    public enum Topology {
+        RING, FULLY_CONNECTED
+    }
+
+    private static final String ALGORITHM_NAME = "IslandGeneticAlgorithm";
+    private final GeneticAlgorithm algorithm;
+    private int numberOfIslands = 4;
+    private int migrationInterval = 10;
+    private int numberOfMigrants = 1;
+    private int migrationQueueCapacity = 4;
+    private Topology topology = Topology.RING;
+    private long seed = new Random().nextLong();
+    private ExperimentRunner experimentRunner = new ExperimentRunner();
+    private List<GeneticAlgorithm> islands = new ArrayList<>();
+    private List<MigrationQueue<List<List<Integer>>>> migrationQueues = new ArrayList<>();
+    private EvolutionarySolution bestIndividual = new EvolutionarySolution();
+    private final AnytimeBestSolution anytimeBestSolution = new AnytimeBestSolution();
+
+    /**
+     * Creates the islands of a genetic algorithm, whose parameters, solver and
+     * stopping criteria they copy.
+     */
+    public IslandGeneticAlgorithm(GeneticAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    private IslandGeneticAlgorithm(IslandGeneticAlgorithm islandAlgorithm, long seed) {
+        this.algorithm = islandAlgorithm.algorithm;
+        this.numberOfIslands = islandAlgorithm.numberOfIslands;
+        this.migrationInterval = islandAlgorithm.migrationInterval;
+        this.numberOfMigrants = islandAlgorithm.numberOfMigrants;
+        this.migrationQueueCapacity = islandAlgorithm.migrationQueueCapacity;
+        this.topology = islandAlgorithm.topology;
+        this.seed = seed;
+    }
+
+    public int getNumberOfIslands() {
+        return numberOfIslands;
+    }
+
+    public IslandGeneticAlgorithm setNumberOfIslands(int numberOfIslands) {
+        this.numberOfIslands = numberOfIslands;
+        return this;
+    }
+
+    public int getMigrationInterval() {
+        return migrationInterval;
+    }
+
+    /**
+     * Sets the number of generations between two migrations of an island,
+     * which must be at least one.
+     */
+    public IslandGeneticAlgorithm setMigrationInterval(int migrationInterval) {
+        if (migrationInterval < 1) {
+            throw new IllegalArgumentException("The migration interval must be at least one generation: "
+                    + migrationInterval);
+        }
+        this.migrationInterval = migrationInterval;
+        return this;
+    }
+
+    public int getNumberOfMigrants() {
+        return numberOfMigrants;
+    }
+
+    /**
+     * Sets how many of its best individuals an island sends to each neighbor
+     * in a migration.
+     */
+    public IslandGeneticAlgorithm setNumberOfMigrants(int numberOfMigrants) {
+        this.numberOfMigrants = numberOfMigrants;
+        return this;
+    }
+
+    public int getMigrationQueueCapacity() {
+        return migrationQueueCapacity;
+    }
+
+    /**
+     * Sets how many migrants can wait for an island. The ones sent when its
+     * queue is full are dropped.
+     */
+    public IslandGeneticAlgorithm setMigrationQueueCapacity(int migrationQueueCapacity) {
+        this.migrationQueueCapacity = migrationQueueCapacity;
+        return this;
+    }
+
+    public Topology getTopology() {
+        return topology;
+    }
+
+    public IslandGeneticAlgorithm setTopology(Topology topology) {
+        this.topology = topology;
+        return this;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed from which the seeds of the islands are drawn. The order
+     * of the migrations depends on the threads, so a run is not repeated
+     * exactly.
+     */
+    public IslandGeneticAlgorithm setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public IslandGeneticAlgorithm setExperimentRunner(ExperimentRunner experimentRunner) {
+        this.experimentRunner = experimentRunner;
+        return this;
+    }
+
+    public ExperimentRunner getExperimentRunner() {
+        return experimentRunner;
+    }
+
+    public List<GeneticAlgorithm> getIslands() {
+        return islands;
+    }
+
+    public EvolutionarySolution getBestIndividual() {
+        return bestIndividual;
+    }
+
+    /**
+     * Returns the best individual of all the islands in the current run, which
+     * can be read by other threads while the run goes on.
+     */
+    public AnytimeBestSolution getAnytimeBestSolution() {
+        return anytimeBestSolution;
+    }
+
+    MigrationQueue<List<List<Integer>>> getMigrationQueue(int island) {
+        return migrationQueues.get(island);
+    }
+
+    public long getDroppedMigrants() {
+        return migrationQueues.stream().mapToLong(MigrationQueue::getDroppedMigrants).sum();
+    }
+
+    @Override
+    public void run() {
+        String instanceName = algorithm.getProblem().getData().getInstanceName();
+        evolveIslands(new DataOutput(ALGORITHM_NAME, instanceName));
+    }
+
+    /**
+     * Runs the executions of the experiment of the genetic algorithm, each one
+     * with its own islands, and saves them as the genetic algorithm does.
+     */
+    public void runExperiment() {
+        String instanceName = algorithm.getProblem().getData().getInstanceName();
+        experimentRunner.run(ALGORITHM_NAME, instanceName, algorithm.getNumberOfExecutions(),
+                (execution, seed) -> new IslandGeneticAlgorithm(this, seed).runExecution(instanceName, execution));
+    }
+
+    private EvolutionarySolution runExecution(String instanceName, int execution) {
+        evolveIslands(new DataOutput(ALGORITHM_NAME, instanceName, execution));
+        return bestIndividual;
+    }
+
+    /**
+     * Evolves the islands until their stopping criteria are satisfied and
+     * saves the best individual of all of them in each generation.
+     */
+    private void evolveIslands(DataOutput output) {
+        createIslands();
+        anytimeBestSolution.start();
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfIslands);
+        try {
+            List<Future<List<EvolutionarySolution>>> results = new ArrayList<>();
+            for (int i = 0; i < numberOfIslands; i++) {
+                int island = i;
+                results.add(executor.submit(() -> evolveIsland(island)));
+            }
+            List<List<EvolutionarySolution>> histories = new ArrayList<>();
+            for (Future<List<EvolutionarySolution>> result : results) {
+                histories.add(result.get());
+            }
+            saveHistories(histories, output);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    void createIslands() {
+        long[] seeds = new Random(seed).longs(numberOfIslands).toArray();
+        long populationSize = Math.max(2, algorithm.getPopulationSize() / numberOfIslands);
+        islands = new ArrayList<>();
+        migrationQueues = new ArrayList<>();
+        for (int i = 0; i < numberOfIslands; i++) {
+            GeneticAlgorithm island = new GeneticAlgorithm(algorithm, seeds[i]);
+            island.setPopulationSize(populationSize).setVerbose(false);
+            islands.add(island);
+            migrationQueues.add(new MigrationQueue<>(migrationQueueCapacity));
+        }
+        bestIndividual = new EvolutionarySolution();
+    }
+
+    /**
+     * Evolves an island and returns its best individual in each generation.
+     */
+    private List<EvolutionarySolution> evolveIsland(int index) {
+        GeneticAlgorithm island = islands.get(index);
+        List<EvolutionarySolution> history = new ArrayList<>();
+        EvolutionarySolution best = null;
+        island.initializeDiversePopulation();
+        while (island.stopCriterionIsNotSatisfied() && !targetIsReached()) {
+            island.evolveGeneration();
+            if (island.getCurrentGeneration() % migrationInterval == 0) {
+                migrate(index, island);
+            }
+            EvolutionarySolution current = island.getBestIndividual();
+            if (best == null || current.getEvaluationFunction() < best.getEvaluationFunction()) {
+                best = (EvolutionarySolution) current.clone();
+                anytimeBestSolution.update(best);
+            }
+            history.add(best);
+        }
+        return history;
+    }
+
+    /**
+     * Tells if an island reached the target of the stopping criteria, which
+     * stops the others too.
+     */
+    private boolean targetIsReached() {
+        Long target = algorithm.getStoppingCriteria().getTargetEvaluationFunction();
+        return target != null && anytimeBestSolution.getEvaluationFunction() <= target;
+    }
+
+    void migrate(int index, GeneticAlgorithm island) {
+        List<List<List<Integer>>> emigrants = island.emigrate(numberOfMigrants);
+        for (int neighbor : getNeighbors(index)) {
+            for (List<List<Integer>> emigrant : emigrants) {
+                migrationQueues.get(neighbor).offer(emigrant);
+            }
+        }
+        MigrationQueue<List<List<Integer>>> queue = migrationQueues.get(index);
+        List<List<Integer>> immigrant;
+        while ((immigrant = queue.poll()) != null) {
+            island.immigrate(immigrant);
+        }
+    }
+
+    List<Integer> getNeighbors(int index) {
+        List<Integer> neighbors = new ArrayList<>();
+        if (topology == Topology.RING) {
+            if (numberOfIslands > 1) {
+                neighbors.add((index + 1) % numberOfIslands);
+            }
+        } else {
+            for (int i = 0; i < numberOfIslands; i++) {
+                if (i != index) {
+                    neighbors.add(i);
+                }
+            }
+        }
+        return neighbors;
+    }
+
+    /**
+     * Saves the best individual of all the islands at each generation. The
+     * islands that stopped earlier take part with their last best individual.
+     */
+    private void saveHistories(List<List<EvolutionarySolution>> histories, DataOutput output) {
+        int numberOfGenerations = histories.stream().mapToInt(List::size).max().orElse(0);
+        for (int generation = 0; generation < numberOfGenerations; generation++) {
+            for (List<EvolutionarySolution> history : histories) {
+                if (!history.isEmpty()) {
+                    EvolutionarySolution best = history.get(Math.min(generation, history.size() - 1));
+                    if (bestIndividual.getNumberOfRoutes() == 0
+                            || best.getEvaluationFunction() < bestIndividual.getEvaluationFunction()) {
+                        bestIndividual = best;
+                    }
+                }
+            }
+            output.saveBestSolutionFoundInTxtFile(bestIndividual, generation + 1);
+        }
+    }
+
+    @Override
+    public void initializePopulation() {
+        createIslands();
+        anytimeBestSolution.start();
+        islands.forEach(GeneticAlgorithm::initializeDiversePopulation);
+    }
+
+    @Override
+    public void storeBestIndividual() {
+        for (GeneticAlgorithm island : islands) {
+            island.storeBestIndividual();
+            EvolutionarySolution best = island.getBestIndividual();
+            if (bestIndividual.getNumberOfRoutes() == 0
+                    || best.getEvaluationFunction() < bestIndividual.getEvaluationFunction()) {
+                bestIndividual = (EvolutionarySolution) best.clone();
+                anytimeBestSolution.update(bestIndividual);
+            }
+        }
+    }
+
+    @Override
+    public void selection() {
+        islands.forEach(GeneticAlgorithm::selection);
+    }
+
+    @Override
+    public void crossOver() {
+        islands.forEach(GeneticAlgorithm::crossOver);
+    }
+
+    @Override
+    public void mutation() {
+        islands.forEach(GeneticAlgorithm::mutation);
+    }
+
+    @Override
+    public void insertBestIndividual() {
+        islands.forEach(GeneticAlgorithm::insertBestIndividual);
+    }
+}
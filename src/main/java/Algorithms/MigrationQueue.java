@@ -0,0 +1,64 @@
+package Algorithms;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * @author renansantos - The MigrationQueue Class takes the migrants sent to an
+ * island by the other islands. It is bounded and lock-free: a migrant that
+ * finds the queue full is dropped, so an island that falls behind never makes
+ * the others wait, nor keeps a long list of old migrants.
+ */
+public class MigrationQueue<T> {
+
+    private final ConcurrentLinkedQueue<T> migrants = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder droppedMigrants = new LongAdder();
+    private final int capacity;
+
+    public MigrationQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds the migrant to the queue, or drops it if the queue is full. Returns
+     * true if it was added.
+     */
+    public boolean offer(T migrant) {
+        int currentSize;
+        do {
+            currentSize = size.get();
+            if (currentSize >= capacity) {
+                droppedMigrants.increment();
+                return false;
+            }
+        } while (!size.compareAndSet(currentSize, currentSize + 1));
+        migrants.offer(migrant);
+        return true;
+    }
+
+    /**
+     * Returns the oldest migrant of the queue, or null if it is empty.
+     */
+    public T poll() {
+        T migrant = migrants.poll();
+        if (migrant != null) {
+            size.decrementAndGet();
+        }
+        return migrant;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getDroppedMigrants() {
+        return droppedMigrants.sum();
+    }
+}
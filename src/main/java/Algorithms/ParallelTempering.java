@@ -0,0 +1,424 @@
+package Algorithms;
+
+import InstanceReader.DataOutput;
+import ProblemRepresentation.Solution;
+import VRPDRTSD.VRPDRTSD;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *
+ * @author renansantos - The ParallelTempering Class runs several replicas of
+ * the simulated annealing at the same time, each one with its own solver and
+ * at a fixed temperature of a geometric ladder. After a number of steps the
+ * replicas of neighboring temperatures try to swap their solutions by the
+ * Metropolis rule, so the solutions found at the high temperatures go down to
+ * be improved at the low ones. A step is the perturbation and the local search
+ * of the simulated annealing. Every replica has its own seed, drawn from the
+ * seed of the run, and the swaps are made between the rounds of steps, so a
+ * run is the same with any number of threads unless a time budget stops it.
+ */
+public class ParallelTempering {
+
+    private static final String ALGORITHM_NAME = "ParallelTempering";
+    private final VRPDRTSD problem;
+    private int numberOfReplicas = 4;
+    private double minimumTemperature = 100;
+    private double maximumTemperature = 50000;
+    private int numberOfExchanges = 100;
+    private int stepsBetweenExchanges = 10;
+    private int typeOfPerturbation = 5;
+    private int intensityOfPerturbation = 1;
+    private int localSearchType = 2;
+    private int numberOfThreads = 1;
+    private int numberOfExecutions = 1;
+    private long seed = new Random().nextLong();
+    private StoppingCriteria stoppingCriteria = new StoppingCriteria();
+    private ExperimentRunner experimentRunner = new ExperimentRunner();
+    private final AnytimeBestSolution anytimeBestSolution = new AnytimeBestSolution();
+    private Random random = new Random();
+    private List<Replica> replicas = new ArrayList<>();
+    private long[] swapAttempts = new long[0];
+    private long[] acceptedSwaps = new long[0];
+    private Solution bestSolution = new Solution();
+
+    /**
+     * Creates the replicas of the parallel tempering on solvers copied from
+     * the problem, whose instance must have been read.
+     */
+    public ParallelTempering(VRPDRTSD problem) {
+        this.problem = problem;
+    }
+
+    private ParallelTempering(ParallelTempering parallelTempering, long seed) {
+        this.problem = parallelTempering.problem;
+        this.numberOfReplicas = parallelTempering.numberOfReplicas;
+        this.minimumTemperature = parallelTempering.minimumTemperature;
+        this.maximumTemperature = parallelTempering.maximumTemperature;
+        this.numberOfExchanges = parallelTempering.numberOfExchanges;
+        this.stepsBetweenExchanges = parallelTempering.stepsBetweenExchanges;
+        this.typeOfPerturbation = parallelTempering.typeOfPerturbation;
+        this.intensityOfPerturbation = parallelTempering.intensityOfPerturbation;
+        this.localSearchType = parallelTempering.localSearchType;
+        this.numberOfThreads = parallelTempering.numberOfThreads;
+        this.stoppingCriteria = parallelTempering.stoppingCriteria.copy();
+        this.seed = seed;
+    }
+
+    public int getNumberOfReplicas() {
+        return numberOfReplicas;
+    }
+
+    public ParallelTempering setNumberOfReplicas(int numberOfReplicas) {
+        this.numberOfReplicas = numberOfReplicas;
+        return this;
+    }
+
+    public double getMinimumTemperature() {
+        return minimumTemperature;
+    }
+
+    public ParallelTempering setMinimumTemperature(double minimumTemperature) {
+        this.minimumTemperature = minimumTemperature;
+        return this;
+    }
+
+    public double getMaximumTemperature() {
+        return maximumTemperature;
+    }
+
+    public ParallelTempering setMaximumTemperature(double maximumTemperature) {
+        this.maximumTemperature = maximumTemperature;
+        return this;
+    }
+
+    public int getNumberOfExchanges() {
+        return numberOfExchanges;
+    }
+
+    /**
+     * Sets how many rounds of steps the run has, each one followed by the
+     * swaps between neighboring replicas.
+     */
+    public ParallelTempering setNumberOfExchanges(int numberOfExchanges) {
+        this.numberOfExchanges = numberOfExchanges;
+        return this;
+    }
+
+    public int getStepsBetweenExchanges() {
+        return stepsBetweenExchanges;
+    }
+
+    public ParallelTempering setStepsBetweenExchanges(int stepsBetweenExchanges) {
+        this.stepsBetweenExchanges = stepsBetweenExchanges;
+        return this;
+    }
+
+    public ParallelTempering setPerturbation(int typeOfPerturbation, int intensityOfPerturbation) {
+        this.typeOfPerturbation = typeOfPerturbation;
+        this.intensityOfPerturbation = intensityOfPerturbation;
+        return this;
+    }
+
+    public int getTypeOfPerturbation() {
+        return typeOfPerturbation;
+    }
+
+    public int getIntensityOfPerturbation() {
+        return intensityOfPerturbation;
+    }
+
+    public int getLocalSearchType() {
+        return localSearchType;
+    }
+
+    public ParallelTempering setLocalSearchType(int localSearchType) {
+        this.localSearchType = localSearchType;
+        return this;
+    }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets how many threads run the steps of the replicas. One, the default,
+     * runs the replicas in turn, as the experiment runner does with its
+     * executions.
+     */
+    public ParallelTempering setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+        return this;
+    }
+
+    public int getNumberOfExecutions() {
+        return numberOfExecutions;
+    }
+
+    public ParallelTempering setNumberOfExecutions(int numberOfExecutions) {
+        this.numberOfExecutions = numberOfExecutions;
+        return this;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public ParallelTempering setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Sets the time budget, target and stagnation limit that stop a run before
+     * its rounds end. The stagnation is counted in rounds.
+     */
+    public ParallelTempering setStoppingCriteria(StoppingCriteria stoppingCriteria) {
+        this.stoppingCriteria = stoppingCriteria;
+        return this;
+    }
+
+    public StoppingCriteria getStoppingCriteria() {
+        return stoppingCriteria;
+    }
+
+    public ParallelTempering setExperimentRunner(ExperimentRunner experimentRunner) {
+        this.experimentRunner = experimentRunner;
+        return this;
+    }
+
+    public ExperimentRunner getExperimentRunner() {
+        return experimentRunner;
+    }
+
+    /**
+     * Returns the best solution of all the replicas in the current run, which
+     * can be read by other threads while the run goes on.
+     */
+    public AnytimeBestSolution getAnytimeBestSolution() {
+        return anytimeBestSolution;
+    }
+
+    public Solution getBestSolution() {
+        return bestSolution;
+    }
+
+    /**
+     * Returns the temperatures of the replicas, from the lowest to the
+     * highest, each one the same multiple of the one before.
+     */
+    public double[] getTemperatures() {
+        double[] temperatures = new double[numberOfReplicas];
+        for (int i = 0; i < numberOfReplicas; i++) {
+            double position = numberOfReplicas == 1 ? 0 : (double) i / (numberOfReplicas - 1);
+            temperatures[i] = minimumTemperature * Math.pow(maximumTemperature / minimumTemperature, position);
+        }
+        return temperatures;
+    }
+
+    /**
+     * Returns, for each pair of neighboring temperatures, the fraction of the
+     * swaps tried in the last run that were accepted.
+     */
+    public double[] getSwapAcceptanceRates() {
+        double[] rates = new double[swapAttempts.length];
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] = swapAttempts[i] == 0 ? 0 : (double) acceptedSwaps[i] / swapAttempts[i];
+        }
+        return rates;
+    }
+
+    public Solution run() {
+        String instanceName = problem.getData().getInstanceName();
+        return runReplicas(new DataOutput(ALGORITHM_NAME, instanceName));
+    }
+
+    /**
+     * Runs the executions of the experiment, each one with its own replicas,
+     * and saves them as the simulated annealing does.
+     */
+    public List<Solution> runExperiment() {
+        String instanceName = problem.getData().getInstanceName();
+        return experimentRunner.run(ALGORITHM_NAME, instanceName, numberOfExecutions,
+                (execution, seed) -> new ParallelTempering(this, seed).runExecution(instanceName, execution));
+    }
+
+    private Solution runExecution(String instanceName, int execution) {
+        return runReplicas(new DataOutput(ALGORITHM_NAME, instanceName, execution));
+    }
+
+    /**
+     * Runs the rounds of steps of the replicas on the threads, and the swaps
+     * between them, until the rounds end or the stopping criteria are
+     * satisfied. The best solution of all the replicas is saved after each
+     * round.
+     */
+    private Solution runReplicas(DataOutput output) {
+        createReplicas();
+        stoppingCriteria.start();
+        anytimeBestSolution.start();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(numberOfThreads, numberOfReplicas)));
+        try {
+            runOnReplicas(executor, Replica::start);
+            int round = 0;
+            while (round < numberOfExchanges && !stoppingCriteria.isSatisfied()) {
+                runOnReplicas(executor, Replica::runSteps);
+                storeBestSolution();
+                output.saveBestSolutionInTxtFile(bestSolution, round);
+                exchangeSolutions(round);
+                stoppingCriteria.countIteration(bestSolution.getEvaluationFunction());
+                round++;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        printSwapAcceptanceRates();
+        return bestSolution;
+    }
+
+    private void createReplicas() {
+        random = new Random(seed);
+        double[] temperatures = getTemperatures();
+        replicas = new ArrayList<>();
+        for (int i = 0; i < numberOfReplicas; i++) {
+            replicas.add(new Replica(problem.newSolver(random.nextLong()), temperatures[i], random.nextLong()));
+        }
+        swapAttempts = new long[Math.max(0, numberOfReplicas - 1)];
+        acceptedSwaps = new long[Math.max(0, numberOfReplicas - 1)];
+        bestSolution = new Solution();
+    }
+
+    private void runOnReplicas(ExecutorService executor, ReplicaTask task) {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Replica replica : replicas) {
+            tasks.add(() -> {
+                task.run(replica);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private void storeBestSolution() {
+        for (Replica replica : replicas) {
+            if (bestSolution.getNumberOfRoutes() == 0
+                    || replica.bestSolution.getEvaluationFunction() < bestSolution.getEvaluationFunction()) {
+                bestSolution = replica.bestSolution;
+            }
+        }
+    }
+
+    /**
+     * Tries to swap the solutions of the pairs of neighboring replicas, the
+     * pairs starting at the even temperatures in one round and at the odd ones
+     * in the next.
+     */
+    private void exchangeSolutions(int round) {
+        for (int i = round % 2; i + 1 < replicas.size(); i += 2) {
+            Replica colder = replicas.get(i);
+            Replica hotter = replicas.get(i + 1);
+            swapAttempts[i]++;
+            if (acceptsSwap(colder.temperature, hotter.temperature, colder.getEvaluationFunction(),
+                    hotter.getEvaluationFunction(), random)) {
+                Solution colderSolution = (Solution) colder.solver.getSolution().clone();
+                colder.solver.setSolution((Solution) hotter.solver.getSolution().clone());
+                hotter.solver.setSolution(colderSolution);
+                acceptedSwaps[i]++;
+            }
+        }
+    }
+
+    /**
+     * Tells if the replicas at the two temperatures swap their solutions, by
+     * the Metropolis rule of the parallel tempering. A swap that lowers the
+     * evaluation function at the lower temperature is always accepted, without
+     * drawing a random number.
+     */
+    static boolean acceptsSwap(double colderTemperature, double hotterTemperature, long colderEvaluationFunction,
+            long hotterEvaluationFunction, Random random) {
+        long difference = colderEvaluationFunction - hotterEvaluationFunction;
+        double exponent = (1 / colderTemperature - 1 / hotterTemperature) * difference;
+        return exponent >= 0 || random.nextDouble() < Math.exp(exponent);
+    }
+
+    /**
+     * Prints the swap acceptance rates of the run in a single call, so the
+     * reports of executions that run at the same time do not mix their lines.
+     */
+    private void printSwapAcceptanceRates() {
+        double[] temperatures = getTemperatures();
+        double[] rates = getSwapAcceptanceRates();
+        StringBuilder report = new StringBuilder();
+        for (int i = 0; i < rates.length; i++) {
+            report.append("Swap acceptance rate between ").append(temperatures[i]).append(" and ")
+                    .append(temperatures[i + 1]).append(" = ").append(rates[i]).append(System.lineSeparator());
+        }
+        System.out.print(report);
+    }
+
+    private interface ReplicaTask {
+
+        public void run(Replica replica);
+    }
+
+    /**
+     * A chain of the simulated annealing at a fixed temperature. Only the
+     * thread that runs its steps uses its solver and random numbers, and the
+     * solutions it gives away are copies.
+     */
+    private final class Replica {
+
+        private final VRPDRTSD solver;
+        private final double temperature;
+        private final Random random;
+        private Solution bestSolution;
+
+        private Replica(VRPDRTSD solver, double temperature, long seed) {
+            this.solver = solver;
+            this.temperature = temperature;
+            this.random = new Random(seed);
+        }
+
+        private long getEvaluationFunction() {
+            return solver.getSolution().getEvaluationFunction();
+        }
+
+        private void start() {
+            solver.buildGreedySolution();
+            bestSolution = (Solution) solver.getSolution().clone();
+            anytimeBestSolution.update(bestSolution);
+        }
+
+        private void runSteps() {
+            int step = 0;
+            while (step < stepsBetweenExchanges && !stoppingCriteria.isSatisfied()) {
+                Solution solutionBefore = solver.getSolution().copy();
+                solver.perturbation(typeOfPerturbation, intensityOfPerturbation);
+                solver.localSearch(localSearchType);
+                long delta = getEvaluationFunction() - solutionBefore.getEvaluationFunction();
+                if (delta > 0 && random.nextDouble() >= Math.exp(-delta / temperature)) {
+                    solver.setSolution(solutionBefore);
+                } else if (getEvaluationFunction() < bestSolution.getEvaluationFunction()) {
+                    bestSolution = (Solution) solver.getSolution().clone();
+                    anytimeBestSolution.update(bestSolution);
+                }
+                step++;
+            }
+        }
+    }
+}
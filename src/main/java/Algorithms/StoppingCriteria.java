@@ -0,0 +1,103 @@
+package Algorithms;
+
+import java.time.Duration;
+
+/**
+ *
+ * @author renansantos - The StoppingCriteria Class stops a run of a
+ * metaheuristic, besides its own count of iterations or generations, when a
+ * time budget is spent, when the best solution reaches a target evaluation or
+ * when a number of iterations passes without improving the best solution.
+ * Every criterion is off until it is set, and they are counted again each time
+ * a run starts. The threads of a parallel run may count their iterations on
+ * the same criteria.
+ */
+public class StoppingCriteria {
+
+    private Duration timeBudget;
+    private Long targetEvaluationFunction;
+    private int stagnationLimit;
+    private long startTime;
+    private long bestEvaluationFunction;
+    private int iterationsWithoutImprovement;
+
+    public Duration getTimeBudget() {
+        return timeBudget;
+    }
+
+    public StoppingCriteria setTimeBudget(Duration timeBudget) {
+        this.timeBudget = timeBudget;
+        return this;
+    }
+
+    public Long getTargetEvaluationFunction() {
+        return targetEvaluationFunction;
+    }
+
+    public StoppingCriteria setTargetEvaluationFunction(long targetEvaluationFunction) {
+        this.targetEvaluationFunction = targetEvaluationFunction;
+        return this;
+    }
+
+    public int getStagnationLimit() {
+        return stagnationLimit;
+    }
+
+    /**
+     * Sets how many iterations in a row may pass without improving the best
+     * solution. Zero turns the criterion off.
+     */
+    public StoppingCriteria setStagnationLimit(int stagnationLimit) {
+        this.stagnationLimit = stagnationLimit;
+        return this;
+    }
+
+    /**
+     * Returns new criteria with the same settings, to stop a run that goes on
+     * at the same time as the runs of these ones.
+     */
+    public StoppingCriteria copy() {
+        StoppingCriteria copy = new StoppingCriteria();
+        copy.timeBudget = timeBudget;
+        copy.targetEvaluationFunction = targetEvaluationFunction;
+        copy.stagnationLimit = stagnationLimit;
+        return copy;
+    }
+
+    public synchronized void start() {
+        this.startTime = System.nanoTime();
+        this.bestEvaluationFunction = Long.MAX_VALUE;
+        this.iterationsWithoutImprovement = 0;
+    }
+
+    public Duration getElapsedTime() {
+        return Duration.ofNanos(System.nanoTime() - startTime);
+    }
+
+    public synchronized int getIterationsWithoutImprovement() {
+        return iterationsWithoutImprovement;
+    }
+
+    /**
+     * Counts an iteration that ended with the best solution of the run having
+     * the evaluation function.
+     */
+    public synchronized void countIteration(long bestEvaluationFunction) {
+        if (bestEvaluationFunction < this.bestEvaluationFunction) {
+            this.bestEvaluationFunction = bestEvaluationFunction;
+            this.iterationsWithoutImprovement = 0;
+        } else {
+            this.iterationsWithoutImprovement++;
+        }
+    }
+
+    public synchronized boolean isSatisfied() {
+        if (timeBudget != null && getElapsedTime().compareTo(timeBudget) >= 0) {
+            return true;
+        }
+        if (targetEvaluationFunction != null && bestEvaluationFunction <= targetEvaluationFunction) {
+            return true;
+        }
+        return stagnationLimit > 0 && iterationsWithoutImprovement >= stagnationLimit;
+    }
+}
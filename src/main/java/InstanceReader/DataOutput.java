@@ -27,10 +27,11 @@ public class DataOutput {
     private PrintStream streamForBestSolutionsObjectiveFunctions;
     private PrintStream streamForConvergence;
     private PrintStream streamForCsv;
+    private static volatile String resultsDirectory = "AlgorithmsResults";
 
     public DataOutput(String algorithmName, String instanceName, int execution) {
         this.algorithmName = algorithmName;
-        this.path = "AlgorithmsResults//" + algorithmName + "//" + instanceName + "//";
+        this.path = resultsDirectory + "//" + algorithmName + "//" + instanceName + "//";
         this.fileName = this.algorithmName + "_execution_" + execution;
         initalizePathAndFiles();
         initalizeStreams();
@@ -38,12 +39,24 @@ public class DataOutput {
 
     public DataOutput(String algorithmName, String instanceName) {
         this.algorithmName = algorithmName;
-        this.path = "AlgorithmsResults//" + algorithmName + "//" + instanceName + "//";
+        this.path = resultsDirectory + "//" + algorithmName + "//" + instanceName + "//";
         this.fileName = this.algorithmName;
         initalizePathAndFiles();
         initalizeStreams();
     }
 
+    public static String getResultsDirectory() {
+        return resultsDirectory;
+    }
+
+    /**
+     * Sets the directory where the files of the algorithms are written, which
+     * is AlgorithmsResults by default. The outputs created afterwards use it.
+     */
+    public static void setResultsDirectory(String resultsDirectory) {
+        DataOutput.resultsDirectory = resultsDirectory;
+    }
+
     private void initalizePathAndFiles() {
         boolean success = (new File(this.path)).mkdirs();
         if (!success) {
@@ -0,0 +1,194 @@
+package Neighborhoods;
+
+import ProblemRepresentation.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ *
+ * @author renansantos - The DontLookBitsNeighborhood Class wraps a
+ * neighborhood and remembers the routes, or pairs of routes, whose moves were
+ * all visited without any of them improving the solution. Their moves are not
+ * evaluated again while the routes keep their versions, so after a few moves
+ * only the routes that changed are searched. The evaluation of a solution is
+ * not a sum of route terms, so a change elsewhere may make such a pair
+ * improvable again; the bits give up those few moves for much shorter scans.
+ */
+public class DontLookBitsNeighborhood implements Neighborhood {
+
+    private final Neighborhood neighborhood;
+    private final Set<RoutePair> cleanPairs;
+    private final LongAdder skippedMoves;
+    private final WatchedMove watchedMove = new WatchedMove();
+    private RoutePair currentPair;
+    private int currentSecondRoute;
+    private boolean currentPairIsClean;
+    private boolean currentPairImproved;
+
+    public DontLookBitsNeighborhood(Neighborhood neighborhood) {
+        this(neighborhood, ConcurrentHashMap.newKeySet(), new LongAdder());
+    }
+
+    private DontLookBitsNeighborhood(Neighborhood neighborhood, Set<RoutePair> cleanPairs, LongAdder skippedMoves) {
+        this.neighborhood = neighborhood;
+        this.cleanPairs = cleanPairs;
+        this.skippedMoves = skippedMoves;
+    }
+
+    @Override
+    public void visitMoves(Solution solution, Predicate<Move> visitor) {
+        retainRoutesOf(solution);
+        Neighborhood.super.visitMoves(solution, visitor);
+    }
+
+    @Override
+    public boolean visitMoves(Solution solution, int firstRoute, Predicate<Move> visitor) {
+        long evaluationFunction = solution.getEvaluationFunction();
+        long firstRouteVersion = solution.getRoute(firstRoute).getVersion();
+        currentPair = null;
+        boolean completed = neighborhood.visitMoves(solution, firstRoute, move -> {
+            if (currentPair == null || move.getSecondRoute() != currentSecondRoute) {
+                finishCurrentPair();
+                currentSecondRoute = move.getSecondRoute();
+                currentPair = new RoutePair(firstRouteVersion, solution.getRoute(currentSecondRoute).getVersion());
+                currentPairIsClean = cleanPairs.contains(currentPair);
+                currentPairImproved = false;
+            }
+            if (currentPairIsClean) {
+                skippedMoves.increment();
+                return true;
+            }
+            watchedMove.set(move, evaluationFunction);
+            return visitor.test(watchedMove);
+        });
+        if (completed) {
+            finishCurrentPair();
+        }
+        currentPair = null;
+        return completed;
+    }
+
+    /**
+     * Marks the pair whose moves were all visited as clean when none of them
+     * improved the solution.
+     */
+    private void finishCurrentPair() {
+        if (currentPair != null && !currentPairIsClean && !currentPairImproved) {
+            cleanPairs.add(currentPair);
+        }
+    }
+
+    /**
+     * Forgets the pairs of routes that are no longer in the solution, so the
+     * bits do not grow with the versions left behind by the search.
+     */
+    public void retainRoutesOf(Solution solution) {
+        Set<Long> versions = new HashSet<>();
+        for (Route route : solution.getRoutes()) {
+            versions.add(route.getVersion());
+        }
+        cleanPairs.removeIf(pair -> !versions.contains(pair.firstVersion) || !versions.contains(pair.secondVersion));
+    }
+
+    public void clear() {
+        cleanPairs.clear();
+    }
+
+    public int getNumberOfCleanPairs() {
+        return cleanPairs.size();
+    }
+
+    public long getSkippedMoves() {
+        return skippedMoves.sum();
+    }
+
+    /**
+     * Returns a neighborhood that shares the bits of this one, so the threads
+     * of a parallel search skip and mark the same pairs.
+     */
+    @Override
+    public Neighborhood newInstance() {
+        return new DontLookBitsNeighborhood(neighborhood.newInstance(), cleanPairs, skippedMoves);
+    }
+
+    private static final class RoutePair {
+
+        private final long firstVersion;
+        private final long secondVersion;
+
+        private RoutePair(long firstVersion, long secondVersion) {
+            this.firstVersion = firstVersion;
+            this.secondVersion = secondVersion;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof RoutePair)) {
+                return false;
+            }
+            RoutePair pair = (RoutePair) object;
+            return firstVersion == pair.firstVersion && secondVersion == pair.secondVersion;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(31 * firstVersion + secondVersion);
+        }
+    }
+
+    /**
+     * Passes the moves of the wrapped neighborhood to the visitor, noting
+     * when the evaluation of one of them improves the solution.
+     */
+    private class WatchedMove implements Move {
+
+        private Move move;
+        private long evaluationFunction;
+
+        private void set(Move move, long evaluationFunction) {
+            this.move = move;
+            this.evaluationFunction = evaluationFunction;
+        }
+
+        /**
+         * The move is priced at least up to the evaluation of the solution,
+         * so an improving move is always noticed, even when the search asks
+         * for a lower bound.
+         */
+        @Override
+        public long evaluate(Solution solution, long upperBound) {
+            long newEvaluationFunction = move.evaluate(solution, Math.max(upperBound, evaluationFunction));
+            if (newEvaluationFunction < evaluationFunction) {
+                currentPairImproved = true;
+            }
+            return newEvaluationFunction;
+        }
+
+        @Override
+        public void apply(Solution solution) {
+            move.apply(solution);
+        }
+
+        @Override
+        public void undo(Solution solution) {
+            move.undo(solution);
+        }
+
+        @Override
+        public int getFirstRoute() {
+            return move.getFirstRoute();
+        }
+
+        @Override
+        public int getSecondRoute() {
+            return move.getSecondRoute();
+        }
+
+        @Override
+        public Move copy() {
+            return move.copy();
+        }
+    }
+}
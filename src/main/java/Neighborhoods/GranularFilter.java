@@ -0,0 +1,118 @@
+package Neighborhoods;
+
+import ProblemRepresentation.*;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * @author renansantos - The GranularFilter Class keeps, for each request, the
+ * requests that are most compatible with it: the ones whose delivery windows
+ * are closest and whose origins and destinations are nearest in travel time.
+ * The inter-route neighborhoods only move a request to a route that has one
+ * of its candidates, since the other routes seldom improve the solution. The
+ * filter can be shared by the neighborhoods of many threads.
+ */
+public class GranularFilter {
+
+    private final int numberOfCandidates;
+    private final int[][] candidates;
+    private final BitSet[] candidateSets;
+    private final LongAdder checkedPairs = new LongAdder();
+    private final LongAdder prunedPairs = new LongAdder();
+
+    public GranularFilter(ProblemData data, int numberOfCandidates) {
+        this.numberOfCandidates = numberOfCandidates;
+        List<Request> requests = data.getRequests();
+        int maxId = requests.stream().mapToInt(Request::getId).max().orElse(0);
+        this.candidates = new int[maxId + 1][];
+        this.candidateSets = new BitSet[maxId + 1];
+
+        TravelTimeMatrix travelTimes = data.getTravelTimes();
+        Request[] others = requests.toArray(new Request[0]);
+        long[] costs = new long[maxId + 1];
+        for (Request request : requests) {
+            for (Request other : others) {
+                costs[other.getId()] = compatibilityCost(request, other, travelTimes);
+            }
+            int[] nearest = Arrays.stream(others)
+                    .filter(other -> other.getId().intValue() != request.getId().intValue())
+                    .sorted(Comparator.comparingLong((Request other) -> costs[other.getId()])
+                            .thenComparingInt(Request::getId))
+                    .limit(numberOfCandidates)
+                    .mapToInt(Request::getId)
+                    .toArray();
+            candidates[request.getId()] = nearest;
+            candidateSets[request.getId()] = new BitSet(maxId + 1);
+            for (int id : nearest) {
+                candidateSets[request.getId()].set(id);
+            }
+        }
+    }
+
+    /**
+     * Returns how far the two requests are from being served together: the
+     * minutes between their delivery windows, which is zero when they overlap,
+     * plus the travel times between their origins and between their
+     * destinations.
+     */
+    public static long compatibilityCost(Request request, Request other, TravelTimeMatrix travelTimes) {
+        int latestLower = Math.max(request.getDeliveryTimeWindowLowerInMinutes(),
+                other.getDeliveryTimeWindowLowerInMinutes());
+        int earliestUpper = Math.min(request.getDeliveryTimeWindowUpperInMinutes(),
+                other.getDeliveryTimeWindowUpperInMinutes());
+        long windowGap = Math.max(0, latestLower - earliestUpper);
+        return windowGap + travelTimes.getMinutes(request.getOrigin(), other.getOrigin())
+                + travelTimes.getMinutes(request.getDestination(), other.getDestination());
+    }
+
+    public int getNumberOfCandidates() {
+        return numberOfCandidates;
+    }
+
+    public int[] getCandidates(int requestId) {
+        return candidates[requestId];
+    }
+
+    public boolean isCandidate(int requestId, int otherId) {
+        return candidateSets[requestId].get(otherId);
+    }
+
+    /**
+     * Tells if the route with the ids has a candidate of the request, counting
+     * the pair of request and route as pruned when it has none.
+     */
+    public boolean routeHasCandidate(int requestId, List<Integer> routeIds) {
+        checkedPairs.increment();
+        BitSet candidateSet = candidateSets[requestId];
+        for (int id : routeIds) {
+            if (candidateSet.get(id)) {
+                return true;
+            }
+        }
+        prunedPairs.increment();
+        return false;
+    }
+
+    public long getCheckedPairs() {
+        return checkedPairs.sum();
+    }
+
+    public long getPrunedPairs() {
+        return prunedPairs.sum();
+    }
+
+    /**
+     * Returns the share of the pairs of request and route that were not
+     * visited by the neighborhoods.
+     */
+    public double getPruningRatio() {
+        long checked = checkedPairs.sum();
+        return checked == 0 ? 0 : (double) prunedPairs.sum() / checked;
+    }
+
+    public void resetStatistics() {
+        checkedPairs.reset();
+        prunedPairs.reset();
+    }
+}
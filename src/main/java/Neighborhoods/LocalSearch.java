@@ -0,0 +1,161 @@
+package Neighborhoods;
+
+import ProblemRepresentation.Route;
+import ProblemRepresentation.Solution;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ *
+ * @author renansantos - The LocalSearch Class has the first improvement and
+ * best improvement searches, which work for any neighborhood and change the
+ * solution in place.
+ */
+public class LocalSearch {
+
+    /**
+     * Applies the first move that improves the solution, in the order of the
+     * neighborhood. Returns true if some move was applied.
+     */
+    public static boolean firstImprovement(Solution solution, Neighborhood neighborhood) {
+        long evaluationFunction = solution.getEvaluationFunction();
+        Move[] improvingMove = new Move[1];
+        neighborhood.visitMoves(solution, move -> {
+            if (move.evaluate(solution, evaluationFunction) < evaluationFunction) {
+                improvingMove[0] = move;
+                return false;
+            }
+            return true;
+        });
+        if (improvingMove[0] == null) {
+            return false;
+        }
+        improvingMove[0].apply(solution);
+        return true;
+    }
+
+    /**
+     * Applies the best move of the neighborhood while it improves the
+     * solution, until a local optimum is reached. Ties are broken by the
+     * first move in the order of the neighborhood. Returns true if some move
+     * was applied.
+     */
+    public static boolean bestImprovement(Solution solution, Neighborhood neighborhood) {
+        boolean improved = false;
+        Move bestMove = findBestMove(solution, neighborhood);
+        while (bestMove != null) {
+            bestMove.apply(solution);
+            improved = true;
+            bestMove = findBestMove(solution, neighborhood);
+        }
+        return improved;
+    }
+
+    /**
+     * Returns a copy of the move with the lowest evaluation, or null when no
+     * move improves the solution.
+     */
+    public static Move findBestMove(Solution solution, Neighborhood neighborhood) {
+        long[] bestEvaluationFunction = {solution.getEvaluationFunction()};
+        Move[] bestMove = new Move[1];
+        neighborhood.visitMoves(solution, move -> {
+            long evaluationFunction = move.evaluate(solution, bestEvaluationFunction[0]);
+            if (evaluationFunction < bestEvaluationFunction[0]) {
+                bestEvaluationFunction[0] = evaluationFunction;
+                bestMove[0] = move.copy();
+            }
+            return true;
+        });
+        return bestMove[0];
+    }
+
+    /**
+     * Same as bestImprovement, with the moves of each route visited in
+     * parallel by the pool. The result is the same of the sequential search.
+     */
+    public static boolean bestImprovement(Solution solution, Neighborhood neighborhood, ForkJoinPool pool) {
+        boolean improved = false;
+        Move bestMove = findBestMove(solution, neighborhood, pool);
+        while (bestMove != null) {
+            bestMove.apply(solution);
+            improved = true;
+            bestMove = findBestMove(solution, neighborhood, pool);
+        }
+        return improved;
+    }
+
+    /**
+     * Same as findBestMove, with the groups of moves of the routes split among
+     * the threads of the pool. Each group is visited by its own copy of the
+     * neighborhood, and the best moves of the groups are reduced in the order
+     * of the routes, so ties are broken by the first move in the order of the
+     * neighborhood whatever the thread that found it. The load profiles of the
+     * routes are built before, since they are built when first read.
+     */
+    public static Move findBestMove(Solution solution, Neighborhood neighborhood, ForkJoinPool pool) {
+        for (Route route : solution.getRoutes()) {
+            route.getMaximumLoad();
+        }
+        EvaluatedMove bestMove = pool.invoke(new BestMoveTask(solution, neighborhood, 0, solution.getNumberOfRoutes()));
+        return bestMove.move;
+    }
+
+    private static class EvaluatedMove {
+
+        private final Move move;
+        private final long evaluationFunction;
+
+        private EvaluatedMove(Move move, long evaluationFunction) {
+            this.move = move;
+            this.evaluationFunction = evaluationFunction;
+        }
+    }
+
+    private static class BestMoveTask extends RecursiveTask<EvaluatedMove> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Solution solution;
+        private final Neighborhood neighborhood;
+        private final int firstRoute;
+        private final int endRoute;
+
+        private BestMoveTask(Solution solution, Neighborhood neighborhood, int firstRoute, int endRoute) {
+            this.solution = solution;
+            this.neighborhood = neighborhood;
+            this.firstRoute = firstRoute;
+            this.endRoute = endRoute;
+        }
+
+        @Override
+        protected EvaluatedMove compute() {
+            if (endRoute - firstRoute <= 1) {
+                return findBestMoveOfRoutes();
+            }
+            int middleRoute = (firstRoute + endRoute) / 2;
+            BestMoveTask firstHalf = new BestMoveTask(solution, neighborhood, firstRoute, middleRoute);
+            BestMoveTask secondHalf = new BestMoveTask(solution, neighborhood, middleRoute, endRoute);
+            firstHalf.fork();
+            EvaluatedMove secondBest = secondHalf.compute();
+            EvaluatedMove firstBest = firstHalf.join();
+            return secondBest.evaluationFunction < firstBest.evaluationFunction ? secondBest : firstBest;
+        }
+
+        private EvaluatedMove findBestMoveOfRoutes() {
+            Neighborhood ownNeighborhood = neighborhood.newInstance();
+            long[] bestEvaluationFunction = {solution.getEvaluationFunction()};
+            Move[] bestMove = new Move[1];
+            for (int i = firstRoute; i < endRoute; i++) {
+                ownNeighborhood.visitMoves(solution, i, move -> {
+                    long evaluationFunction = move.evaluate(solution, bestEvaluationFunction[0]);
+                    if (evaluationFunction < bestEvaluationFunction[0]) {
+                        bestEvaluationFunction[0] = evaluationFunction;
+                        bestMove[0] = move.copy();
+                    }
+                    return true;
+                });
+            }
+            return new EvaluatedMove(bestMove[0], bestEvaluationFunction[0]);
+        }
+    }
+}
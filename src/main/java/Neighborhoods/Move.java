@@ -0,0 +1,56 @@
+package Neighborhoods;
+
+import ProblemRepresentation.Solution;
+
+/**
+ *
+ * @author renansantos - The Move Interface represents one change of a solution
+ * that can be priced without changing the solution, applied to it in place and
+ * undone in place, so a local search never has to clone the solution to try a
+ * move or to revert it.
+ */
+public interface Move {
+
+    /**
+     * Returns the evaluation function the solution would have after the move.
+     * The solution is not changed.
+     */
+    default long evaluate(Solution solution) {
+        return evaluate(solution, Long.MAX_VALUE);
+    }
+
+    /**
+     * Same as evaluate, for a search that only wants the move if it is below
+     * the upper bound. A move that is not below it may be given up before its
+     * routes are evaluated to the end, and then Long.MAX_VALUE is returned.
+     */
+    long evaluate(Solution solution, long upperBound);
+
+    /**
+     * Changes the solution by the move and evaluates it again.
+     */
+    void apply(Solution solution);
+
+    /**
+     * Reverts the last apply of the move on the same solution. The ids of the
+     * changed routes are restored and the routes are rebuilt.
+     */
+    void undo(Solution solution);
+
+    /**
+     * Returns the position of the first route changed by the move.
+     */
+    int getFirstRoute();
+
+    /**
+     * Returns the position of the second route changed by the move, which is
+     * the first route for the moves that change a single route.
+     */
+    int getSecondRoute();
+
+    /**
+     * Returns a move with the same parameters, since the neighborhoods reuse
+     * one move object while their moves are visited.
+     */
+    Move copy();
+}
@@ -0,0 +1,40 @@
+package Neighborhoods;
+
+import ProblemRepresentation.Solution;
+import java.util.function.Predicate;
+
+/**
+ *
+ * @author renansantos - The Neighborhood Interface enumerates the moves of a
+ * solution, always in the same order, so the searches that use it are
+ * reproducible. The moves are grouped by the first route they change, and the
+ * groups can be visited apart from each other by different threads.
+ */
+public interface Neighborhood {
+
+    /**
+     * Visits the moves of the solution while the visitor returns true. The
+     * move given to the visitor is reused for the next one, so it must be
+     * copied to be kept.
+     */
+    default void visitMoves(Solution solution, Predicate<Move> visitor) {
+        for (int i = 0; i < solution.getNumberOfRoutes(); i++) {
+            if (!visitMoves(solution, i, visitor)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Visits the moves whose first route is the one in the position, in the
+     * same order of visitMoves. Returns false if the visitor stopped the
+     * visit.
+     */
+    boolean visitMoves(Solution solution, int firstRoute, Predicate<Move> visitor);
+
+    /**
+     * Returns a neighborhood with the same moves and its own evaluators, to be
+     * used by another thread.
+     */
+    Neighborhood newInstance();
+}
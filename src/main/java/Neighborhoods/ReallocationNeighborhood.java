@@ -0,0 +1,162 @@
+package Neighborhoods;
+
+import ProblemRepresentation.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ *
+ * @author renansantos - The ReallocationNeighborhood Class has the moves that
+ * take a request out of its route and insert its pickup and delivery in
+ * another route. The insertions that would exceed the capacity of a route that
+ * keeps it are not visited, and with a granular filter a request is only
+ * moved to the routes that have one of its candidates.
+ */
+public class ReallocationNeighborhood implements Neighborhood {
+
+    private final ProblemData data;
+    private final GranularFilter filter;
+    private final RouteEvaluator removalEvaluator;
+    private final RouteEvaluator insertionEvaluator;
+    private Route removalRoute;
+    private long removalRouteVersion;
+    private int removedRequest;
+
+    public ReallocationNeighborhood(ProblemData data) {
+        this(data, null);
+    }
+
+    public ReallocationNeighborhood(ProblemData data, GranularFilter filter) {
+        this.data = data;
+        this.filter = filter;
+        this.removalEvaluator = new RouteEvaluator(data);
+        this.insertionEvaluator = new RouteEvaluator(data);
+    }
+
+    @Override
+    public boolean visitMoves(Solution solution, int firstRoute, Predicate<Move> visitor) {
+        ReallocationMove move = new ReallocationMove();
+        List<Integer> firstRouteIds = solution.getRoute(firstRoute).getUsedIds();
+        for (int j = 0; j < solution.getNumberOfRoutes(); j++) {
+            if (firstRoute != j) {
+                Route secondRoute = solution.getRoute(j);
+                int secondRouteSize = secondRoute.getIdSequenceSize();
+                List<Integer> secondRouteIds = filter == null ? null : secondRoute.getUsedIds();
+                boolean prepared = false;
+
+                for (int requestId : firstRouteIds) {
+                    if (filter != null && !filter.routeHasCandidate(requestId, secondRouteIds)) {
+                        continue;
+                    }
+                    if (!prepared) {
+                        insertionEvaluator.prepareInsertions(secondRoute);
+                        prepared = true;
+                    }
+                    for (int l = 1; l < secondRouteSize; l++) {
+                        int lastDeliveryPosition = insertionEvaluator.getLastFeasibleDeliveryPosition(l);
+                        for (int m = l + 1; m <= lastDeliveryPosition; m++) {
+                            move.set(firstRoute, j, requestId, l, m);
+                            if (!visitor.test(move)) {
+                                return false;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Neighborhood newInstance() {
+        return new ReallocationNeighborhood(data, filter);
+    }
+
+    /**
+     * Prices the removal of the request only when the route or the request
+     * changed since the last move, since the moves of one request into the
+     * other routes share it.
+     */
+    private void evaluateRemoval(Route route, int requestId) {
+        if (route != removalRoute || route.getVersion() != removalRouteVersion || requestId != removedRequest) {
+            removalEvaluator.evaluateRemoval(route, requestId);
+            removalRoute = route;
+            removalRouteVersion = route.getVersion();
+            removedRequest = requestId;
+        }
+    }
+
+    private class ReallocationMove implements Move {
+
+        private int firstRoute;
+        private int secondRoute;
+        private int requestId;
+        private int pickupPosition;
+        private int deliveryPosition;
+        private int originalPickupPosition;
+        private int originalDeliveryPosition;
+
+        private void set(int firstRoute, int secondRoute, int requestId, int pickupPosition, int deliveryPosition) {
+            this.firstRoute = firstRoute;
+            this.secondRoute = secondRoute;
+            this.requestId = requestId;
+            this.pickupPosition = pickupPosition;
+            this.deliveryPosition = deliveryPosition;
+        }
+
+        @Override
+        public long evaluate(Solution solution, long upperBound) {
+            evaluateRemoval(solution.getRoute(firstRoute), requestId);
+            CostBound costBound = solution.getCostBound(firstRoute, secondRoute, upperBound);
+            insertionEvaluator.setCostBound(costBound == null ? null : costBound.add(removalEvaluator));
+            insertionEvaluator.evaluateInsertion(solution.getRoute(secondRoute), requestId, pickupPosition,
+                    deliveryPosition);
+            return solution.evaluateReplacingRoutes(firstRoute, removalEvaluator, secondRoute, insertionEvaluator);
+        }
+
+        /**
+         * Moves the request and evaluates the solution. A route left without
+         * requests stays in the solution, empty, so the move can be undone;
+         * the caller removes the empty routes when the search ends.
+         */
+        @Override
+        public void apply(Solution solution) {
+            List<Integer> firstRouteIds = solution.getRoute(firstRoute).getIntegerSequenceOfAttendedRequests();
+            originalPickupPosition = firstRouteIds.indexOf(requestId);
+            originalDeliveryPosition = firstRouteIds.lastIndexOf(requestId);
+            solution.getRouteForUpdate(firstRoute).removeRequest(requestId, data);
+            solution.getRouteForUpdate(secondRoute).insertRequest(requestId, pickupPosition, deliveryPosition, data);
+            solution.calculateEvaluationFunction(data);
+        }
+
+        @Override
+        public void undo(Solution solution) {
+            solution.getRouteForUpdate(secondRoute).removeRequest(requestId, data);
+            Route route = solution.getRouteForUpdate(firstRoute);
+            if (route.isIntegerRepresentationEmpty()) {
+                route.rebuild(Arrays.asList(0, requestId, requestId, 0), data);
+            } else {
+                route.insertRequest(requestId, originalPickupPosition, originalDeliveryPosition, data);
+            }
+            solution.calculateEvaluationFunction(data);
+        }
+
+        @Override
+        public int getFirstRoute() {
+            return firstRoute;
+        }
+
+        @Override
+        public int getSecondRoute() {
+            return secondRoute;
+        }
+
+        @Override
+        public Move copy() {
+            ReallocationMove move = new ReallocationMove();
+            move.set(firstRoute, secondRoute, requestId, pickupPosition, deliveryPosition);
+            return move;
+        }
+    }
+}
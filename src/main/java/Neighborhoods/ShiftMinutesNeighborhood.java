@@ -0,0 +1,92 @@
+package Neighborhoods;
+
+import ProblemRepresentation.*;
+import java.util.function.Predicate;
+
+/**
+ *
+ * @author renansantos - The ShiftMinutesNeighborhood Class has the moves that
+ * add or remove up to a number of minutes in every visit of a route, keeping
+ * its sequence of visits.
+ */
+public class ShiftMinutesNeighborhood implements Neighborhood {
+
+    private final ProblemData data;
+    private final RouteEvaluator evaluator;
+    private final int maximumMinutes;
+
+    public ShiftMinutesNeighborhood(ProblemData data, int maximumMinutes) {
+        this.data = data;
+        this.evaluator = new RouteEvaluator(data);
+        this.maximumMinutes = maximumMinutes;
+    }
+
+    @Override
+    public boolean visitMoves(Solution solution, int firstRoute, Predicate<Move> visitor) {
+        ShiftMove move = new ShiftMove();
+        for (int minutes = 1; minutes <= maximumMinutes; minutes++) {
+            move.set(firstRoute, minutes);
+            if (!visitor.test(move)) {
+                return false;
+            }
+        }
+        for (int minutes = 1; minutes <= maximumMinutes; minutes++) {
+            move.set(firstRoute, -minutes);
+            if (!visitor.test(move)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Neighborhood newInstance() {
+        return new ShiftMinutesNeighborhood(data, maximumMinutes);
+    }
+
+    private class ShiftMove implements Move {
+
+        private int route;
+        private int minutes;
+
+        private void set(int route, int minutes) {
+            this.route = route;
+            this.minutes = minutes;
+        }
+
+        @Override
+        public long evaluate(Solution solution, long upperBound) {
+            evaluator.evaluateTimeShift(solution.getRoute(route), minutes);
+            return solution.evaluateReplacingRoute(route, evaluator);
+        }
+
+        @Override
+        public void apply(Solution solution) {
+            solution.getRouteForUpdate(route).addMinutesInRoute(minutes, data);
+            solution.calculateEvaluationFunction(data);
+        }
+
+        @Override
+        public void undo(Solution solution) {
+            solution.getRouteForUpdate(route).addMinutesInRoute(-minutes, data);
+            solution.calculateEvaluationFunction(data);
+        }
+
+        @Override
+        public int getFirstRoute() {
+            return route;
+        }
+
+        @Override
+        public int getSecondRoute() {
+            return route;
+        }
+
+        @Override
+        public Move copy() {
+            ShiftMove move = new ShiftMove();
+            move.set(route, minutes);
+            return move;
+        }
+    }
+}
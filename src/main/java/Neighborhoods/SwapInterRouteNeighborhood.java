@@ -0,0 +1,133 @@
+package Neighborhoods;
+
+import ProblemRepresentation.*;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ *
+ * @author renansantos - The SwapInterRouteNeighborhood Class has the moves
+ * that exchange two requests of different routes, each one taking the visits
+ * of the other. With a granular filter, two requests are only exchanged when
+ * the route of one of them has a candidate of the other.
+ */
+public class SwapInterRouteNeighborhood implements Neighborhood {
+
+    private final ProblemData data;
+    private final GranularFilter filter;
+    private final RouteEvaluator firstEvaluator;
+    private final RouteEvaluator secondEvaluator;
+
+    public SwapInterRouteNeighborhood(ProblemData data) {
+        this(data, null);
+    }
+
+    public SwapInterRouteNeighborhood(ProblemData data, GranularFilter filter) {
+        this.data = data;
+        this.filter = filter;
+        this.firstEvaluator = new RouteEvaluator(data);
+        this.secondEvaluator = new RouteEvaluator(data);
+    }
+
+    @Override
+    public boolean visitMoves(Solution solution, int firstRoute, Predicate<Move> visitor) {
+        SwapMove move = new SwapMove();
+        List<Integer> firstRouteIds = solution.getRoute(firstRoute).getUsedIds();
+        for (int j = firstRoute + 1; j < solution.getNumberOfRoutes(); j++) {
+            List<Integer> secondRouteIds = solution.getRoute(j).getUsedIds();
+            boolean[] secondIdsAccepted = acceptedIds(secondRouteIds, firstRouteIds);
+            for (int firstId : firstRouteIds) {
+                boolean firstIdAccepted = filter == null || filter.routeHasCandidate(firstId, secondRouteIds);
+                for (int k = 0; k < secondRouteIds.size(); k++) {
+                    int secondId = secondRouteIds.get(k);
+                    if (!firstIdAccepted && !secondIdsAccepted[k]) {
+                        continue;
+                    }
+                    move.set(firstRoute, firstId, j, secondId);
+                    if (!visitor.test(move)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells, for each id, if the other route has one of its candidates. All
+     * ids are accepted without a filter.
+     */
+    private boolean[] acceptedIds(List<Integer> ids, List<Integer> otherRouteIds) {
+        boolean[] accepted = new boolean[ids.size()];
+        for (int k = 0; k < ids.size(); k++) {
+            accepted[k] = filter == null || filter.routeHasCandidate(ids.get(k), otherRouteIds);
+        }
+        return accepted;
+    }
+
+    @Override
+    public Neighborhood newInstance() {
+        return new SwapInterRouteNeighborhood(data, filter);
+    }
+
+    private class SwapMove implements Move {
+
+        private int firstRoute;
+        private int firstId;
+        private int secondRoute;
+        private int secondId;
+
+        private void set(int firstRoute, int firstId, int secondRoute, int secondId) {
+            this.firstRoute = firstRoute;
+            this.firstId = firstId;
+            this.secondRoute = secondRoute;
+            this.secondId = secondId;
+        }
+
+        @Override
+        public long evaluate(Solution solution, long upperBound) {
+            CostBound costBound = solution.getCostBound(firstRoute, secondRoute, upperBound);
+            firstEvaluator.setCostBound(costBound);
+            firstEvaluator.evaluateReplacement(solution.getRoute(firstRoute), firstId, secondId);
+            if (firstEvaluator.isRejectedEarly()) {
+                return Long.MAX_VALUE;
+            }
+            secondEvaluator.setCostBound(costBound == null ? null : costBound.add(firstEvaluator));
+            secondEvaluator.evaluateReplacement(solution.getRoute(secondRoute), secondId, firstId);
+            return solution.evaluateReplacingRoutes(firstRoute, firstEvaluator, secondRoute, secondEvaluator);
+        }
+
+        @Override
+        public void apply(Solution solution) {
+            exchange(solution, firstId, secondId);
+        }
+
+        @Override
+        public void undo(Solution solution) {
+            exchange(solution, secondId, firstId);
+        }
+
+        private void exchange(Solution solution, int idLeavingFirstRoute, int idLeavingSecondRoute) {
+            solution.getRouteForUpdate(firstRoute).replaceRequest(idLeavingFirstRoute, idLeavingSecondRoute, data);
+            solution.getRouteForUpdate(secondRoute).replaceRequest(idLeavingSecondRoute, idLeavingFirstRoute, data);
+            solution.calculateEvaluationFunction(data);
+        }
+
+        @Override
+        public int getFirstRoute() {
+            return firstRoute;
+        }
+
+        @Override
+        public int getSecondRoute() {
+            return secondRoute;
+        }
+
+        @Override
+        public Move copy() {
+            SwapMove move = new SwapMove();
+            move.set(firstRoute, firstId, secondRoute, secondId);
+            return move;
+        }
+    }
+}
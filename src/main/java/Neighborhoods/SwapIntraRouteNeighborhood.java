@@ -0,0 +1,88 @@
+package Neighborhoods;
+
+import ProblemRepresentation.*;
+import java.util.function.Predicate;
+
+/**
+ *
+ * @author renansantos - The SwapIntraRouteNeighborhood Class has the moves
+ * that swap two visits of the same route.
+ */
+public class SwapIntraRouteNeighborhood implements Neighborhood {
+
+    private final ProblemData data;
+    private final RouteEvaluator evaluator;
+
+    public SwapIntraRouteNeighborhood(ProblemData data) {
+        this.data = data;
+        this.evaluator = new RouteEvaluator(data);
+    }
+
+    @Override
+    public boolean visitMoves(Solution solution, int firstRoute, Predicate<Move> visitor) {
+        SwapMove move = new SwapMove();
+        int routeSize = solution.getRoute(firstRoute).getIdSequenceSize();
+        for (int j = 1; j < routeSize - 1; j++) {
+            for (int k = j + 1; k < routeSize; k++) {
+                move.set(firstRoute, j, k);
+                if (!visitor.test(move)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Neighborhood newInstance() {
+        return new SwapIntraRouteNeighborhood(data);
+    }
+
+    private class SwapMove implements Move {
+
+        private int route;
+        private int firstPosition;
+        private int secondPosition;
+
+        private void set(int route, int firstPosition, int secondPosition) {
+            this.route = route;
+            this.firstPosition = firstPosition;
+            this.secondPosition = secondPosition;
+        }
+
+        @Override
+        public long evaluate(Solution solution, long upperBound) {
+            evaluator.setCostBound(solution.getCostBound(route, -1, upperBound));
+            evaluator.evaluateSwap(solution.getRoute(route), firstPosition, secondPosition);
+            return solution.evaluateReplacingRoute(route, evaluator);
+        }
+
+        @Override
+        public void apply(Solution solution) {
+            solution.getRouteForUpdate(route).swapRequests(firstPosition, secondPosition, data);
+            solution.calculateEvaluationFunction(data);
+        }
+
+        @Override
+        public void undo(Solution solution) {
+            apply(solution);
+        }
+
+        @Override
+        public int getFirstRoute() {
+            return route;
+        }
+
+        @Override
+        public int getSecondRoute() {
+            return route;
+        }
+
+        @Override
+        public Move copy() {
+            SwapMove move = new SwapMove();
+            move.set(route, firstPosition, secondPosition);
+            return move;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package Neighborhoods;
+
+import ProblemRepresentation.*;
+import java.util.function.Predicate;
+
+/**
+ *
+ * @author renansantos - The TwoOptNeighborhood Class has the moves that
+ * reverse a segment of a route.
+ */
+public class TwoOptNeighborhood implements Neighborhood {
+
+    private final ProblemData data;
+    private final RouteEvaluator evaluator;
+
+    public TwoOptNeighborhood(ProblemData data) {
+        this.data = data;
+        this.evaluator = new RouteEvaluator(data);
+    }
+
+    @Override
+    public boolean visitMoves(Solution solution, int firstRoute, Predicate<Move> visitor) {
+        ReversalMove move = new ReversalMove();
+        int routeSize = solution.getRoute(firstRoute).getIdSequenceSize();
+        for (int j = 1; j < routeSize - 1; j++) {
+            for (int k = j + 1; k < routeSize; k++) {
+                move.set(firstRoute, j, k);
+                if (!visitor.test(move)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Neighborhood newInstance() {
+        return new TwoOptNeighborhood(data);
+    }
+
+    private class ReversalMove implements Move {
+
+        private int route;
+        private int firstPosition;
+        private int endPosition;
+
+        private void set(int route, int firstPosition, int endPosition) {
+            this.route = route;
+            this.firstPosition = firstPosition;
+            this.endPosition = endPosition;
+        }
+
+        @Override
+        public long evaluate(Solution solution, long upperBound) {
+            evaluator.setCostBound(solution.getCostBound(route, -1, upperBound));
+            evaluator.evaluateReversal(solution.getRoute(route), firstPosition, endPosition);
+            return solution.evaluateReplacingRoute(route, evaluator);
+        }
+
+        @Override
+        public void apply(Solution solution) {
+            solution.getRouteForUpdate(route).reverseRequests(firstPosition, endPosition, data);
+            solution.calculateEvaluationFunction(data);
+        }
+
+        @Override
+        public void undo(Solution solution) {
+            apply(solution);
+        }
+
+        @Override
+        public int getFirstRoute() {
+            return route;
+        }
+
+        @Override
+        public int getSecondRoute() {
+            return route;
+        }
+
+        @Override
+        public Move copy() {
+            ReversalMove move = new ReversalMove();
+            move.set(route, firstPosition, endPosition);
+            return move;
+        }
+    }
+}
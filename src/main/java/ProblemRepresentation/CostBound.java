@@ -0,0 +1,69 @@
+package ProblemRepresentation;
+
+/**
+ *
+ * @author renansantos - The CostBound Class lets a RouteEvaluator give up a
+ * candidate route as soon as the solution with it can no longer be below an
+ * upper bound, such as the evaluation of the incumbent. It keeps the sums of
+ * the routes the move does not change, and the distance and travel time of the
+ * part of the candidate already visited, with the delay its schedule already
+ * forces, give a lower bound of the evaluation of the solution: the rest of the
+ * route only adds to them, and the schedule is only ever moved later.
+ */
+public class CostBound {
+
+    private final long upperBound;
+    private long distance;
+    private long travelTime;
+    private long anticipation;
+    private long delay;
+    private long vehicles;
+    private boolean penalized;
+
+    CostBound(long upperBound, long distance, long travelTime, long anticipation, long delay, long vehicles,
+            boolean penalized) {
+        this.upperBound = upperBound;
+        this.distance = distance;
+        this.travelTime = travelTime;
+        this.anticipation = anticipation;
+        this.delay = delay;
+        this.vehicles = vehicles;
+        this.penalized = penalized;
+    }
+
+    public long getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Adds a candidate route that was already evaluated to the routes the
+     * move does not change, to bound the other route of a two route move.
+     */
+    public CostBound add(RouteEvaluator candidate) {
+        distance += candidate.getTotalRouteDistance();
+        travelTime += candidate.getRouteTravelTime();
+        anticipation += candidate.getTotalTimeWindowAnticipation();
+        delay += candidate.getTotalTimeWindowDelay();
+        vehicles += candidate.isEmpty() ? 0 : 1;
+        penalized = penalized || candidate.isPenalized();
+        return this;
+    }
+
+    /**
+     * Tells if a solution whose candidate route starts with the distance,
+     * travel time and forced delay can not be below the upper bound. The
+     * candidate has requests, so it counts as one more vehicle.
+     */
+    boolean excludes(long routeDistance, long routeTravelTime, long forcedDelay, boolean routePenalized) {
+        long totalDistance = distance + routeDistance;
+        long totalTravelTime = travelTime + routeTravelTime;
+        long lowerBound;
+        if (penalized || routePenalized) {
+            lowerBound = totalDistance * totalTravelTime * totalTravelTime;
+        } else {
+            lowerBound = totalDistance + totalTravelTime * Math.max(1, delay + forcedDelay)
+                    + anticipation * (vehicles + 1);
+        }
+        return lowerBound >= upperBound;
+    }
+}
@@ -102,6 +102,19 @@ public class EvolutionarySolution extends Solution {
     public boolean isNotEmpty(){
         return this.evaluationFunction != 0;
     }
+    @Override
+    public EvolutionarySolution copy() {
+        shareRoutes();
+        EvolutionarySolution copy = new EvolutionarySolution(totalDistanceTraveled, totalTravelTime,
+                totalTimeWindowAnticipation, totalTimeWindowDelay, numberOfVehicles, evaluationFunction,
+                new ArrayList<>(this.routes), nonAttendedRequests, copyOfIntegerRepresentation(),
+                objectiveFunctions, fitness, numberOfDominatedSolutions, numberOfSolutionsThatDominate,
+                dominatedSolutions, solutionsThatDominate);
+        copy.sharedRoutes.addAll(this.sharedRoutes);
+        copy.routeTotals = new RouteTotals(this.routeTotals);
+        return copy;
+    }
+
     @Override
     public Object clone() {
         List<Route> routesClone = new ArrayList<>();
@@ -125,7 +138,7 @@ public class EvolutionarySolution extends Solution {
                 + this.totalTimeWindowAnticipation + "\t" 
                 + this.totalTimeWindowDelay + "\t" 
                 + this.numberOfVehicles + "\t" 
-                + this.integerRepresentation.stream()
+                + this.getIntegerRepresentation().stream()
                 .filter(u -> u.intValue() >= 0)
                 .collect(Collectors.toCollection(ArrayList::new));
     }
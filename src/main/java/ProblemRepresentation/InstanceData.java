@@ -0,0 +1,117 @@
+package ProblemRepresentation;
+
+import InstanceReader.*;
+import java.io.IOException;
+import java.util.*;
+import jxl.read.biff.BiffException;
+
+/**
+ *
+ * @author renansantos - The InstanceData Class keeps the data of an instance
+ * that never changes during the search: the nodes, the requests as they were
+ * read, the travel times and the distances. It is read once and can be shared
+ * by every solver that runs on the instance, each one with its own
+ * SearchContext, so nothing kept here, not even the nodes of the requests, may
+ * be written by a solver.
+ */
+public class InstanceData {
+
+    private final String instanceName;
+    private final String nodesInstanceName;
+    private final String adjacenciesInstanceName;
+    private final int numberOfNodes;
+    private final List<Node> nodes;
+    private final List<Request> requests;
+    private final TravelTimeMatrix travelTimes;
+    private final long[][] distance;
+    private final int numberOfVehicles;
+    private final int vehicleCapacity;
+
+    public InstanceData(String instanceName, String nodesInstanceName, String adjacenciesInstanceName,
+            int numberOfNodes, List<Node> nodes, List<Request> requests, TravelTimeMatrix travelTimes,
+            long[][] distance, int numberOfVehicles, int vehicleCapacity) {
+        this.instanceName = instanceName;
+        this.nodesInstanceName = nodesInstanceName;
+        this.adjacenciesInstanceName = adjacenciesInstanceName;
+        this.numberOfNodes = numberOfNodes;
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+        this.requests = Collections.unmodifiableList(new ArrayList<>(requests));
+        this.travelTimes = travelTimes;
+        this.distance = distance;
+        this.numberOfVehicles = numberOfVehicles;
+        this.vehicleCapacity = vehicleCapacity;
+    }
+
+    public static InstanceData readFromDatabase(String instanceName, String nodesInstanceName,
+            String adjacenciesInstanceName, int numberOfVehicles, int vehicleCapacity) {
+        int numberOfNodes = new NumberOfNodesDAO().getNumberOfNodes(nodesInstanceName);
+        List<Node> nodes = new NodeDAO(nodesInstanceName).getListOfNodes();
+        List<Request> requests = new RequestDAO(instanceName).getListOfRequestUsingNodesList(nodes);
+        TravelTimeMatrix travelTimes = new TravelTimeMatrix(new AdjacenciesDAO(adjacenciesInstanceName, nodesInstanceName)
+                .getDurationBetweenNodes(numberOfNodes));
+        long[][] distance = new AdjacenciesDAO(adjacenciesInstanceName, nodesInstanceName).getDistanceBetweenNodes(numberOfNodes);
+        return new InstanceData(instanceName, nodesInstanceName, adjacenciesInstanceName, numberOfNodes, nodes,
+                requests, travelTimes, distance, numberOfVehicles, vehicleCapacity);
+    }
+
+    public static InstanceData readFromExcel(Instance instance, String excelDataFilesPath) throws IOException, BiffException {
+        ReadDataInExcelFile reader = new ReadDataInExcelFile(excelDataFilesPath, instance);
+        int numberOfNodes = reader.getNumberOfNodes();
+        List<Node> nodes = reader.getListOfNodes();
+        List<Request> requests = reader.getRequests(nodes);
+        TravelTimeMatrix travelTimes = new TravelTimeMatrix(reader.getDurationBetweenNodes(numberOfNodes));
+        long[][] distance = reader.getDistanceBetweenNodes(numberOfNodes);
+        return new InstanceData(instance.getInstanceName(), instance.getNodesData(), instance.getAdjacenciesData(),
+                numberOfNodes, nodes, requests, travelTimes, distance, instance.getNumberOfVehicles(),
+                instance.getVehicleCapacity());
+    }
+
+    public String getInstanceName() {
+        return instanceName;
+    }
+
+    public String getNodesInstanceName() {
+        return nodesInstanceName;
+    }
+
+    public String getAdjacenciesInstanceName() {
+        return adjacenciesInstanceName;
+    }
+
+    public int getNumberOfNodes() {
+        return numberOfNodes;
+    }
+
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the requests as they were read. The solvers change the ranking
+     * and feasibility of the requests while building solutions, so they work
+     * on the copies kept by their SearchContext.
+     */
+    public List<Request> getRequests() {
+        return requests;
+    }
+
+    public TravelTimeMatrix getTravelTimes() {
+        return travelTimes;
+    }
+
+    /**
+     * Returns the distances between the nodes. The matrix is shared by every
+     * solver of the instance, so it must only be read.
+     */
+    public long[][] getDistance() {
+        return distance;
+    }
+
+    public int getNumberOfVehicles() {
+        return numberOfVehicles;
+    }
+
+    public int getVehicleCapacity() {
+        return vehicleCapacity;
+    }
+}
@@ -0,0 +1,181 @@
+package ProblemRepresentation;
+
+import java.util.*;
+
+/**
+ *
+ * @author renansantos - The IntSequence Class is a growable sequence of
+ * primitive ints, used by the Route to keep the visited ids and their times
+ * without boxing one Integer for each position
+ */
+public class IntSequence {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] values;
+    private int size;
+
+    public IntSequence() {
+        this.values = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    public IntSequence(IntSequence sequence) {
+        this.values = Arrays.copyOf(sequence.values, Math.max(sequence.size, INITIAL_CAPACITY));
+        this.size = sequence.size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(int position) {
+        checkPosition(position);
+        return values[position];
+    }
+
+    public void set(int position, int value) {
+        checkPosition(position);
+        values[position] = value;
+    }
+
+    public void add(int value) {
+        ensureCapacity(size + 1);
+        values[size++] = value;
+    }
+
+    public void insert(int position, int value) {
+        if (position < 0 || position > size) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", Size: " + size);
+        }
+        ensureCapacity(size + 1);
+        System.arraycopy(values, position, values, position + 1, size - position);
+        values[position] = value;
+        size++;
+    }
+
+    public void swap(int firstPosition, int secondPosition) {
+        checkPosition(firstPosition);
+        checkPosition(secondPosition);
+        int value = values[firstPosition];
+        values[firstPosition] = values[secondPosition];
+        values[secondPosition] = value;
+    }
+
+    /**
+     * Reverses the values from the first position (inclusive) to the end
+     * position (exclusive).
+     */
+    public void reverse(int fromPosition, int toPosition) {
+        if (fromPosition < 0 || toPosition > size) {
+            throw new IndexOutOfBoundsException("From: " + fromPosition + ", To: " + toPosition + ", Size: " + size);
+        }
+        for (int i = fromPosition, j = toPosition - 1; i < j; i++, j--) {
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    /**
+     * Removes, keeping the order of the other values, every occurrence of the
+     * value and returns how many positions were removed.
+     */
+    public int removeAll(int value) {
+        int newSize = 0;
+        for (int i = 0; i < size; i++) {
+            if (values[i] != value) {
+                values[newSize++] = values[i];
+            }
+        }
+        int removed = size - newSize;
+        size = newSize;
+        return removed;
+    }
+
+    public int indexOf(int value, int fromPosition, int toPosition) {
+        for (int i = fromPosition; i < toPosition; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(int value) {
+        return indexOf(value, 0, size) >= 0;
+    }
+
+    public int max() {
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < size; i++) {
+            if (values[i] > max) {
+                max = values[i];
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Resizes the sequence, filling the new positions with the value.
+     */
+    public void resize(int newSize, int value) {
+        ensureCapacity(newSize);
+        if (newSize > size) {
+            Arrays.fill(values, size, newSize, value);
+        }
+        size = newSize;
+    }
+
+    public void fill(int value) {
+        Arrays.fill(values, 0, size, value);
+    }
+
+    public void copyFrom(IntSequence sequence) {
+        ensureCapacity(sequence.size);
+        System.arraycopy(sequence.values, 0, values, 0, sequence.size);
+        size = sequence.size;
+    }
+
+    /**
+     * Returns the array that keeps the values, valid up to size(), so the
+     * classes of the package can run over it without copying. It is replaced
+     * when the sequence grows.
+     */
+    int[] values() {
+        return values;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public List<Integer> toList() {
+        List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(values[i]);
+        }
+        return list;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+        }
+    }
+
+    private void checkPosition(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position: " + position + ", Size: " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+}
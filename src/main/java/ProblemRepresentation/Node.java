@@ -1,8 +1,5 @@
 package ProblemRepresentation;
 
-import java.util.List;
-import java.util.Map;
-
 /**
  *
  * @author Renan Santos Mendes T
@@ -13,7 +10,6 @@ public class Node implements Cloneable {
     private Double longitude;
     private Double latitude;
     private String adress;
-    private int loadIndex;
 
     public Node() {
 
@@ -24,15 +20,6 @@ public class Node implements Cloneable {
         this.longitude = longitude;
         this.latitude = latitude;
         this.adress = adress;
-        this.loadIndex = 0;
-    }
-
-    public Node(Integer id, Double longitude, Double latitude, String adress, int loadIndex) {
-        this.id = id;
-        this.longitude = longitude;
-        this.latitude = latitude;
-        this.adress = adress;
-        this.loadIndex = loadIndex;
     }
 
     public Integer getId() {
@@ -51,20 +38,10 @@ public class Node implements Cloneable {
         return adress;
     }
 
-    public int getLoadIndex() {
-        return loadIndex;
-    }
-
     public String getGeocodedInformationForRoutes() {
         return this.getLongitude() + "," + this.getLatitude();
     }
 
-    public void setLoadIndex(Map<Node, List<Request>> requestsWichBoardsInNode, Map<Node, List<Request>> requestsWichLeavesInNode) {
-        if (requestsWichBoardsInNode.get(this) != null && requestsWichLeavesInNode.get(this) != null) {
-            this.loadIndex = requestsWichBoardsInNode.get(this).size() - requestsWichLeavesInNode.get(this).size();
-        }
-    }
-
     private void setId(Integer id) {
         this.id = id;
     }
@@ -81,16 +58,11 @@ public class Node implements Cloneable {
         this.adress = adress;
     }
 
-    private void setLoadIndex(int loadIndex) {
-        this.loadIndex = loadIndex;
-    }
-
     public void setNode(Node node) {
         this.setId(node.getId());
         this.setLongitude(node.getLongitude());
         this.setLatitude(node.getLatitude());
         this.setAdress(node.getAdress());
-        this.setLoadIndex(node.getLoadIndex());
     }
 
     public String getLatLng() {
@@ -100,7 +72,7 @@ public class Node implements Cloneable {
     @Override
     public String toString() {
         return "Node(" + this.id + ") " + "Lat = " + this.latitude + " Long = "
-                + this.longitude + " LoadIndex = " + this.loadIndex + " Adress = " + this.adress;
+                + this.longitude + " Adress = " + this.adress;
     }
 
     public String toStringForMapQuery() {
@@ -155,6 +127,6 @@ public class Node implements Cloneable {
 
     @Override
     public Object clone() {
-        return new Node(id, longitude, latitude, adress, loadIndex);
+        return new Node(id, longitude, latitude, adress);
     }
 }
@@ -5,7 +5,7 @@
  */
 package ProblemRepresentation;
 
-import InstanceReader.*;
+import InstanceReader.Instance;
 import java.io.IOException;
 import java.time.*;
 import java.util.*;
@@ -17,197 +17,154 @@ import jxl.read.biff.BiffException;
  */
 public class ProblemData {
 
-    private int numberOfNodes;
-    private List<Node> nodes;
-    private List<Request> requests;
-    private List<Request> instanceRequests = new ArrayList<>();
-    private Duration[][] duration;
-    private long[][] distance;
-    private String instanceName;
-    private String nodesInstanceName;
-    private String adjacenciesInstanceName;
-    private LocalDateTime currentTime = LocalDateTime.of(2017, 1, 1, 0, 0, 0);
-    private Node currentNode = new Node();//= new Node(0, 40.7143528, -74.0059731, "Av. do Contorno, 340 - Santa Efigênia, Belo Horizonte - MG, 30110-017");
-    private Request lastPassengerAddedToRoute;
-    private int numberOfVehicles;
-    private int vehicleCapacity;
-    private List<Vehicle> avaibleVehicles;
-    private List<Vehicle> allocatedVehicles;
-    private Vehicle currentVehicle = new Vehicle();
-    private Instance instance;
-    private String excelDataFilesPath;
+    private final InstanceData instanceData;
+    private final SearchContext context;
 
     public ProblemData(String instanceName, String nodesInstanceName, String adjacenciesInstanceName,
             int numberOfVehicles, int vehicleCapacity) {
-        this.instanceName = instanceName;
-        this.nodesInstanceName = nodesInstanceName;
-        this.adjacenciesInstanceName = adjacenciesInstanceName;
-        this.numberOfVehicles = numberOfVehicles;
-        this.vehicleCapacity = vehicleCapacity;
-        this.readInstance();
-        this.startVehiclesData();
+        this(InstanceData.readFromDatabase(instanceName, nodesInstanceName, adjacenciesInstanceName,
+                numberOfVehicles, vehicleCapacity));
     }
     
     public ProblemData(Instance instance, String excelDataFilesPath) throws IOException, BiffException {
-        this.instance = instance;
-        this.instanceName = instance.getInstanceName();
-        this.nodesInstanceName = instance.getNodesData();
-        this.adjacenciesInstanceName = instance.getAdjacenciesData();
-        this.numberOfVehicles = instance.getNumberOfVehicles();
-        this.vehicleCapacity = instance.getVehicleCapacity();
-        this.excelDataFilesPath = excelDataFilesPath;
-        this.readExcelInstance();
-        this.startVehiclesData();
+        this(InstanceData.readFromExcel(instance, excelDataFilesPath));
     }
 
-    public int getNumberOfNodes() {
-        return numberOfNodes;
+    /**
+     * Creates the data of a new solver on an instance that was already read,
+     * with a new SearchContext, so the instance is shared and not read again.
+     */
+    public ProblemData(InstanceData instanceData) {
+        this.instanceData = instanceData;
+        this.context = new SearchContext(instanceData);
     }
 
-    public void setNumberOfNodes(int numberOfNodes) {
-        this.numberOfNodes = numberOfNodes;
+    public InstanceData getInstanceData() {
+        return instanceData;
     }
 
-    public List<Node> getNodes() {
-        return nodes;
+    public SearchContext getSearchContext() {
+        return context;
+    }
+
+    public int getNumberOfNodes() {
+        return instanceData.getNumberOfNodes();
     }
 
-    public void setNodes(List<Node> nodes) {
-        this.nodes = nodes;
+    public List<Node> getNodes() {
+        return instanceData.getNodes();
     }
 
     public List<Request> getRequests() {
-        return requests;
+        return context.getRequests();
     }
 
     public void setRequests(List<Request> requests) {
-        this.requests = requests;
+        context.setRequests(requests);
+    }
+
+    public Request getRequest(int id) {
+        return context.getRequest(id);
     }
 
     public List<Request> getInstanceRequests() {
-        return instanceRequests;
+        return context.getInstanceRequests();
     }
 
     public void setInstanceRequests(List<Request> instanceRequests) {
-        this.instanceRequests = instanceRequests;
+        context.setInstanceRequests(instanceRequests);
     }
 
     public Duration[][] getDuration() {
-        return duration;
+        return instanceData.getTravelTimes().toDurationArray();
     }
 
-    public void setDuration(Duration[][] duration) {
-        this.duration = duration;
+    public TravelTimeMatrix getTravelTimes() {
+        return instanceData.getTravelTimes();
     }
 
     public long[][] getDistance() {
-        return distance;
+        return instanceData.getDistance();
     }
 
-    public void setDistance(long[][] distance) {
-        this.distance = distance;
+    public int getLoadIndex(Node node) {
+        return context.getLoadIndex(node);
     }
 
-    public String getInstanceName() {
-        return instanceName;
+    public void setLoadIndexes(Map<Node, List<Request>> requestsThatBoardsInNode,
+            Map<Node, List<Request>> requestsThatLeavesInNode) {
+        context.setLoadIndexes(instanceData.getNodes(), requestsThatBoardsInNode, requestsThatLeavesInNode);
     }
 
-    public void setInstanceName(String instanceName) {
-        this.instanceName = instanceName;
+    public RouteCache getRouteCache() {
+        return context.getRouteCache();
     }
 
-    public String getNodesInstanceName() {
-        return nodesInstanceName;
+    public void setRouteCache(RouteCache routeCache) {
+        context.setRouteCache(routeCache);
     }
 
-    public void setNodesInstanceName(String nodesInstanceName) {
-        this.nodesInstanceName = nodesInstanceName;
+    public String getInstanceName() {
+        return instanceData.getInstanceName();
     }
 
-    public String getAdjacenciesInstanceName() {
-        return adjacenciesInstanceName;
+    public String getNodesInstanceName() {
+        return instanceData.getNodesInstanceName();
     }
 
-    public void setAdjacenciesInstanceName(String adjacenciesInstanceName) {
-        this.adjacenciesInstanceName = adjacenciesInstanceName;
+    public String getAdjacenciesInstanceName() {
+        return instanceData.getAdjacenciesInstanceName();
     }
 
     public LocalDateTime getCurrentTime() {
-        return currentTime;
+        return context.getCurrentTime();
     }
 
     public void setCurrentTime(LocalDateTime currentTime) {
-        this.currentTime = currentTime;
+        context.setCurrentTime(currentTime);
     }
 
     public Node getCurrentNode() {
-        return currentNode;
+        return context.getCurrentNode();
     }
 
     public void setCurrentNode(Node currentNode) {
-        this.currentNode = currentNode;
+        context.setCurrentNode(currentNode);
     }
 
     public void setCurrentVehicle(Vehicle currentVehicle) {
-        this.currentVehicle.setVehicle(currentVehicle);
+        context.setCurrentVehicle(currentVehicle);
     }
 
     public Vehicle getCurrentVehicle() {
-        return currentVehicle;
+        return context.getCurrentVehicle();
     }
 
     public Request getLastPassengerAddedToRoute() {
-        return lastPassengerAddedToRoute;
+        return context.getLastPassengerAddedToRoute();
     }
 
     public void setLastPassengerAddedToRoute(Request lastPassengerAddedToRoute) {
-        this.lastPassengerAddedToRoute = lastPassengerAddedToRoute;
+        context.setLastPassengerAddedToRoute(lastPassengerAddedToRoute);
     }
 
     public int getNumberOfVehicles() {
-        return numberOfVehicles;
+        return instanceData.getNumberOfVehicles();
     }
 
     public int getVehicleCapacity() {
-        return vehicleCapacity;
+        return instanceData.getVehicleCapacity();
     }
 
     public List<Vehicle> getAvaibleVehicles() {
-        return avaibleVehicles;
+        return context.getAvaibleVehicles();
     }
 
     public List<Vehicle> getAllocatedVehicles() {
-        return allocatedVehicles;
+        return context.getAllocatedVehicles();
     }
 
-    public void readInstance() {
-        this.numberOfNodes = new NumberOfNodesDAO().getNumberOfNodes(this.nodesInstanceName);
-        this.nodes = new NodeDAO(this.nodesInstanceName).getListOfNodes();
-        this.requests = new RequestDAO(this.instanceName).getListOfRequestUsingNodesList(nodes);
-        this.duration = new AdjacenciesDAO(this.adjacenciesInstanceName, this.nodesInstanceName).getDurationBetweenNodes(this.numberOfNodes);
-        this.distance = new AdjacenciesDAO(this.adjacenciesInstanceName, this.nodesInstanceName).getDistanceBetweenNodes(this.numberOfNodes);
-        this.instanceRequests.addAll(this.requests);
-        this.currentNode.setNode(this.nodes.get(0));
-    }
-
-    public void readExcelInstance() throws IOException, BiffException {
-        ReadDataInExcelFile reader = new ReadDataInExcelFile(this.excelDataFilesPath, instance);
-        this.numberOfNodes = reader.getNumberOfNodes();
-        this.nodes = reader.getListOfNodes();
-        this.requests = reader.getRequests(nodes);
-        this.duration = reader.getDurationBetweenNodes(numberOfNodes);
-        this.distance = reader.getDistanceBetweenNodes(numberOfNodes);
-        this.instanceRequests.addAll(this.requests);
-        this.currentNode.setNode(this.nodes.get(0));
-    }
-    
     public void startVehiclesData() {
-        avaibleVehicles = new LinkedList<>();
-        allocatedVehicles = new LinkedList<>();
-
-        for (int i = 0; i < this.numberOfVehicles; i++) {
-            Vehicle vehicle = new Vehicle(i + 1, "VPL2017", this.vehicleCapacity);
-            avaibleVehicles.add(vehicle);
-        }
+        context.startVehiclesData(instanceData.getNumberOfVehicles(), instanceData.getVehicleCapacity());
     }
 }
@@ -12,13 +12,10 @@ public class Request implements Cloneable {
     private final Integer id;
     private final Node origin;
     private final Node destination;
-    private LocalDateTime dayRequestWasMade;
-    private LocalDateTime pickUpTime;
-    private LocalDateTime deliveryTime;
-    private LocalDateTime deliveryTimeWindowLower;
-    private LocalDateTime deliveryTimeWindowUpper;
-    private Duration delay;
-    private Duration anticipation;
+    private final LocalDateTime dayRequestWasMade;
+    private final int pickUpTime;
+    private final int deliveryTimeWindowLower;
+    private final int deliveryTimeWindowUpper;
     private boolean feasible;
     private boolean boarded;
     private double requestRankingFunction;
@@ -37,9 +34,9 @@ public class Request implements Cloneable {
         this.origin = passengerOrigin;
         this.destination = passengerDestination;
         this.dayRequestWasMade = dayRequestWasMade;
-        this.pickUpTime = pickUpTime;
-        this.deliveryTimeWindowLower = deliveryTimeWindowLower;
-        this.deliveryTimeWindowUpper = deliveryTimeWindowUpper;
+        this.pickUpTime = toMinutes(pickUpTime);
+        this.deliveryTimeWindowLower = toMinutes(deliveryTimeWindowLower);
+        this.deliveryTimeWindowUpper = toMinutes(deliveryTimeWindowUpper);
         this.feasible = false;
         this.boarded = false;
         this.requestRankingFunction = -1.0;
@@ -51,96 +48,44 @@ public class Request implements Cloneable {
         this.destinationNodeRankingFunction = 0.0;
     }
 
-    public Request(Integer id, Node origin, Node destination, LocalDateTime dayRequestWasMade, LocalDateTime pickUpTime,
-            LocalDateTime deliveryTime, LocalDateTime deliveryTimeWindowLower, LocalDateTime deliveryTimeWindowUpper,
-            Duration anticipation, Duration delay, boolean feasible, boolean boarded, double requestRankingFunction,
-            double distanceRankingFunction, double distanceToAttendThisRequest, double deliveryTimeWindowLowerRankingFunction,
-            double deliveryTimeWindowUpperRankingFunction, double originNodeRankingFunction,
-            double destinationNodeRankingFunction) {
-        this.id = id;
-        this.origin = origin;
-        this.destination = destination;
-        this.dayRequestWasMade = dayRequestWasMade;
-        this.pickUpTime = pickUpTime;
-        this.deliveryTime = deliveryTime;
-        this.deliveryTimeWindowLower = deliveryTimeWindowLower;
-        this.deliveryTimeWindowUpper = deliveryTimeWindowUpper;
-        this.anticipation = anticipation;
-        this.delay = delay;
-        this.feasible = feasible;
-        this.boarded = boarded;
-        this.requestRankingFunction = requestRankingFunction;
-        this.distanceRankingFunction = distanceRankingFunction;
-        this.distanceToAttendThisRequest = distanceToAttendThisRequest;
-        this.deliveryTimeWindowLowerRankingFunction = deliveryTimeWindowLowerRankingFunction;
-        this.deliveryTimeWindowUpperRankingFunction = deliveryTimeWindowUpperRankingFunction;
-        this.originNodeRankingFunction = originNodeRankingFunction;
-        this.destinationNodeRankingFunction = destinationNodeRankingFunction;
+    private Request(Request request) {
+        this.id = request.id;
+        this.origin = request.origin;
+        this.destination = request.destination;
+        this.dayRequestWasMade = request.dayRequestWasMade;
+        this.pickUpTime = request.pickUpTime;
+        this.deliveryTimeWindowLower = request.deliveryTimeWindowLower;
+        this.deliveryTimeWindowUpper = request.deliveryTimeWindowUpper;
+        this.feasible = request.feasible;
+        this.boarded = request.boarded;
+        this.requestRankingFunction = request.requestRankingFunction;
+        this.distanceRankingFunction = request.distanceRankingFunction;
+        this.distanceToAttendThisRequest = request.distanceToAttendThisRequest;
+        this.deliveryTimeWindowLowerRankingFunction = request.deliveryTimeWindowLowerRankingFunction;
+        this.deliveryTimeWindowUpperRankingFunction = request.deliveryTimeWindowUpperRankingFunction;
+        this.originNodeRankingFunction = request.originNodeRankingFunction;
+        this.destinationNodeRankingFunction = request.destinationNodeRankingFunction;
     }
 
-    public void setDayRequestWasMade(LocalDateTime dayRequestWasMade) {
-        this.dayRequestWasMade = dayRequestWasMade;
+    /**
+     * The times of the request are kept in minutes since the start of the day
+     * the request was made. They never change: the time each request is picked
+     * up and delivered belongs to the route that attends it.
+     */
+    private LocalDateTime getStartOfServiceDay() {
+        return dayRequestWasMade.toLocalDate().atStartOfDay();
     }
 
-    public void setPickUpTime(LocalDateTime pickUpTime) {
-        this.pickUpTime = pickUpTime;
-    }
-
-    public void setPickUpTime(Integer pickUpTime) {
-        if (pickUpTime < 0) {
-            pickUpTime = -pickUpTime;
-            int hour = pickUpTime / 60;
-            int minute = pickUpTime % 60;
-            this.pickUpTime = LocalDateTime.of(dayRequestWasMade.toLocalDate(), LocalTime.of(hour, minute));
-        } else if (pickUpTime > 1380) {
-            int hour = 0;
-            int minute = pickUpTime % 60;
-            this.pickUpTime = LocalDateTime.of(dayRequestWasMade.toLocalDate().plusDays(1), LocalTime.of(hour, minute));
-            this.anticipation = Duration.between(this.deliveryTime, this.deliveryTimeWindowLower);
-            this.delay = Duration.between(this.deliveryTime, this.deliveryTimeWindowUpper);
-        }else {
-            int hour = pickUpTime / 60;
-            int minute = pickUpTime % 60;
-            this.pickUpTime = LocalDateTime.of(dayRequestWasMade.toLocalDate(), LocalTime.of(hour, minute));
-        }
-    }
-
-    public void setDeliveryTime(LocalDateTime deliveryTime) {
-        this.deliveryTime = deliveryTime;
-        this.anticipation = Duration.between(this.deliveryTime, this.deliveryTimeWindowLower);
-        this.delay = Duration.between(this.deliveryTime, this.deliveryTimeWindowUpper);
-    }
-
-    public void setDeliveryTime(Integer deliveryTime) {
-        if (deliveryTime < 0) {
-            deliveryTime = -deliveryTime;
-            int hour = deliveryTime / 60;
-            int minute = deliveryTime % 60;
-
-            this.deliveryTime = LocalDateTime.of(dayRequestWasMade.toLocalDate(), LocalTime.of(hour, minute));
-            this.anticipation = Duration.between(this.deliveryTime, this.deliveryTimeWindowLower);
-            this.delay = Duration.between(this.deliveryTime, this.deliveryTimeWindowUpper);
-        } else if (deliveryTime > 1380) {
-            int hour = 0;
-            int minute = deliveryTime % 60;
-            this.deliveryTime = LocalDateTime.of(dayRequestWasMade.toLocalDate().plusDays(1), LocalTime.of(hour, minute));
-            this.anticipation = Duration.between(this.deliveryTime, this.deliveryTimeWindowLower);
-            this.delay = Duration.between(this.deliveryTime, this.deliveryTimeWindowUpper);
-        } else {
-            int hour = deliveryTime / 60;
-            int minute = deliveryTime % 60;
-            this.deliveryTime = LocalDateTime.of(dayRequestWasMade.toLocalDate(), LocalTime.of(hour, minute));
-            this.anticipation = Duration.between(this.deliveryTime, this.deliveryTimeWindowLower);
-            this.delay = Duration.between(this.deliveryTime, this.deliveryTimeWindowUpper);
-        }
+    private int toMinutes(LocalDateTime time) {
+        return (int) Duration.between(getStartOfServiceDay(), time).toMinutes();
     }
 
-    public void setDeliveryTimeWindowLower(LocalDateTime deliveryTimeWindowLower) {
-        this.deliveryTimeWindowLower = deliveryTimeWindowLower;
+    private long toSeconds(LocalDateTime time) {
+        return Duration.between(getStartOfServiceDay(), time).getSeconds();
     }
 
-    public void setDeliveryTimeWindowUpper(LocalDateTime deliveryTimeWindowUpper) {
-        this.deliveryTimeWindowUpper = deliveryTimeWindowUpper;
+    private LocalDateTime toLocalDateTime(int minutes) {
+        return getStartOfServiceDay().plusMinutes(minutes);
     }
 
     public void setFeasible(boolean feasible) {
@@ -185,20 +130,20 @@ public class Request implements Cloneable {
                 = (maxTimeWindowUpper - this.getDeliveryTimeWindowLowerInMinutes()) / (maxTimeWindowUpper - minTimeWindowUpper);
     }
 
-    public void setOriginNodeRankingFunction(int maxLoadIndex, int minLoadIndex) {
+    public void setOriginNodeRankingFunction(int originLoadIndex, int maxLoadIndex, int minLoadIndex) {
         if (maxLoadIndex != minLoadIndex) {
             this.originNodeRankingFunction
-                    = (double) (this.getOrigin().getLoadIndex() - minLoadIndex) / (maxLoadIndex - minLoadIndex);
+                    = (double) (originLoadIndex - minLoadIndex) / (maxLoadIndex - minLoadIndex);
         } else {
             this.originNodeRankingFunction = 0;
         }
 
     }
 
-    public void setDestinationNodeRankingFunction(int maxLoadIndex, int minLoadIndex) {
+    public void setDestinationNodeRankingFunction(int destinationLoadIndex, int maxLoadIndex, int minLoadIndex) {
         if (maxLoadIndex != minLoadIndex) {
             this.destinationNodeRankingFunction
-                    = (double) (this.getDestination().getLoadIndex() - minLoadIndex) / (maxLoadIndex - minLoadIndex);
+                    = (double) (destinationLoadIndex - minLoadIndex) / (maxLoadIndex - minLoadIndex);
         } else {
             this.destinationNodeRankingFunction = 0;
         }
@@ -222,35 +167,27 @@ public class Request implements Cloneable {
     }
 
     public LocalDateTime getPickUpTime() {
-        return pickUpTime;
-    }
-
-    public LocalDateTime getDeliveryTime() {
-        return deliveryTime;
+        return toLocalDateTime(pickUpTime);
     }
 
-    public Integer getPickUpTimeInMinutes() {
-        return pickUpTime.getHour() * 60 + pickUpTime.getMinute();
-    }
-
-    public Integer getDeliveryTimeInMinutes() {
-        return deliveryTime.getHour() * 60 + deliveryTime.getMinute();
+    public int getPickUpTimeInMinutes() {
+        return pickUpTime;
     }
 
     public LocalDateTime getDeliveryTimeWindowLower() {
-        return deliveryTimeWindowLower;
+        return toLocalDateTime(deliveryTimeWindowLower);
     }
 
-    public Integer getDeliveryTimeWindowLowerInMinutes() {
-        return deliveryTimeWindowLower.getHour() * 60 + deliveryTimeWindowLower.getMinute();
+    public int getDeliveryTimeWindowLowerInMinutes() {
+        return deliveryTimeWindowLower;
     }
 
     public LocalDateTime getDeliveryTimeWindowUpper() {
-        return deliveryTimeWindowUpper;
+        return toLocalDateTime(deliveryTimeWindowUpper);
     }
 
-    public Integer getDeliveryTimeWindowUpperInMinutes() {
-        return deliveryTimeWindowUpper.getHour() * 60 + deliveryTimeWindowUpper.getMinute();
+    public int getDeliveryTimeWindowUpperInMinutes() {
+        return deliveryTimeWindowUpper;
     }
 
     public boolean isFeasible() {
@@ -289,43 +226,49 @@ public class Request implements Cloneable {
         return destinationNodeRankingFunction;
     }
 
-    public Duration getAnticipation() {
-        return this.anticipation;
+    /**
+     * Returns how many minutes before the lower time window the request would
+     * be delivered at the given time.
+     */
+    public int getAnticipationInMinutes(int deliveryTime) {
+        return deliveryTimeWindowLower - deliveryTime;
     }
 
-    public Duration getDelay() {
-        return this.delay;
+    /**
+     * Returns how many minutes before the upper time window the request would
+     * be delivered at the given time; negative values are delays.
+     */
+    public int getDelayInMinutes(int deliveryTime) {
+        return deliveryTimeWindowUpper - deliveryTime;
     }
 
-    public void determineInicialFeasibility(LocalDateTime currentTime, Node currentNode, Duration timeMatrix[][]) {
+    public void determineInicialFeasibility(LocalDateTime currentTime, Node currentNode, TravelTimeMatrix timeMatrix) {
 
-        Duration durationUntilVehicleArrivesPickUpNode = timeMatrix[currentNode.getId()][this.getOrigin().getId()];
-        Duration durationBetweenOriginAndDestination = timeMatrix[this.getOrigin().getId()][this.getDestination().getId()];
+        int secondsUntilVehicleArrivesPickUpNode = timeMatrix.getSeconds(currentNode, this.getOrigin());
+        int secondsBetweenOriginAndDestination = timeMatrix.getSeconds(this.getOrigin(), this.getDestination());
 
-        Duration totalDuration = durationUntilVehicleArrivesPickUpNode.plus(durationBetweenOriginAndDestination);
+        int totalDuration = secondsUntilVehicleArrivesPickUpNode + secondsBetweenOriginAndDestination;
 
-        if (currentTime.plus(totalDuration).isBefore(this.getDeliveryTimeWindowUpper())) {
+        if (toSeconds(currentTime) + totalDuration < this.deliveryTimeWindowUpper * 60L) {
             this.setFeasible(true);
         } else {
             this.setFeasible(false);
         }
     }
 
-    public void determineFeasibilityInConstructionFase(LocalDateTime currentTime, Request lastRequestAdded, Node currentNode, Duration timeMatrix[][]) {
+    public void determineFeasibilityInConstructionFase(LocalDateTime currentTime, Request lastRequestAdded, Node currentNode,
+            TravelTimeMatrix timeMatrix) {
 
-        Duration durationFromCurrentNodeToThisDeliveryNode = timeMatrix[currentNode.getId()][this.getDestination().getId()];
-        Duration durationFromCurrentNodeToOrigin = timeMatrix[this.getDestination().getId()][0];
+        int secondsFromCurrentNodeToThisDeliveryNode = timeMatrix.getSeconds(currentNode.getId(), this.getDestination().getId());
+        long test = timeMatrix.getMinutes(this.getDestination().getId(), 0);
 
-        Duration durationBetweenTimeWindows = Duration.between(this.deliveryTimeWindowLower, lastRequestAdded.getDeliveryTimeWindowUpper());
-        long test = durationFromCurrentNodeToOrigin.getSeconds() / 60;
-        long test2 = durationBetweenTimeWindows.getSeconds() / 60;
-        if (test2 < 0) {
-            test2 = -test2;
-        }
-        if (currentTime.plus(durationFromCurrentNodeToThisDeliveryNode).isBefore(this.getDeliveryTimeWindowUpper())
-                && (currentTime.plus(durationFromCurrentNodeToThisDeliveryNode).isAfter(this.getDeliveryTimeWindowLower()
-                .minusMinutes(toleranceTime)))) {
-            if (durationBetweenTimeWindows.getSeconds() <= 0) {
+        long minutesBetweenTimeWindows = lastRequestAdded.getDeliveryTimeWindowUpperInMinutes() - this.deliveryTimeWindowLower;
+        long test2 = Math.abs(minutesBetweenTimeWindows);
+
+        long arrivalTime = toSeconds(currentTime) + secondsFromCurrentNodeToThisDeliveryNode;
+        if (arrivalTime < this.deliveryTimeWindowUpper * 60L
+                && arrivalTime > (this.deliveryTimeWindowLower - toleranceTime) * 60L) {
+            if (minutesBetweenTimeWindows <= 0) {
                 this.setFeasible(true);
             } else if (test2 < test) {
                 this.setFeasible(true);
@@ -342,30 +285,25 @@ public class Request implements Cloneable {
     }
 
     public String getStringToFile() {
-        String string = id + "\t" + origin + "\t" + destination + "\t" + deliveryTimeWindowLower + "\t" + deliveryTimeWindowUpper;
+        String string = id + "\t" + origin + "\t" + destination + "\t" + getDeliveryTimeWindowLower() + "\t"
+                + getDeliveryTimeWindowUpper();
         return string;
     }
 
     public String toString() {
         return "Request: id = " + this.id + " Passenger Origin = " + this.origin.getId()
                 + " Passenger Destination = " + this.destination.getId()
-                + "\nTime Window Lower = " + this.deliveryTimeWindowLower
-                + "\nTime Window Upper = " + this.deliveryTimeWindowUpper
-                + "\nPickup Time = " + this.pickUpTime
-                + "\nDelivery Time = " + this.deliveryTime
+                + "\nTime Window Lower = " + this.getDeliveryTimeWindowLower()
+                + "\nTime Window Upper = " + this.getDeliveryTimeWindowUpper()
+                + "\nPickup Time = " + this.getPickUpTime()
                 + "\nRRF = " + this.requestRankingFunction
                 + "\nIs Feasible = " + this.feasible
-                + "\nAnticipation = " + this.anticipation
-                + "\nDelay = " + this.delay
                 + "\n";
     }
 
     @Override
     public Object clone() {
-        return new Request(id, (Node) origin.clone(), (Node) destination.clone(), dayRequestWasMade, pickUpTime, deliveryTime,
-                deliveryTimeWindowLower, deliveryTimeWindowUpper, anticipation, delay, feasible, boarded, requestRankingFunction,
-                distanceRankingFunction, distanceToAttendThisRequest, deliveryTimeWindowLowerRankingFunction,
-                deliveryTimeWindowUpperRankingFunction, originNodeRankingFunction, destinationNodeRankingFunction);
+        return new Request(this);
     }
 
     @Override
@@ -1,8 +1,7 @@
 package ProblemRepresentation;
 
-import java.time.*;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  *
@@ -19,8 +18,22 @@ public class Route implements Cloneable {
     private Set<Request> notServedRequests;
     private List<Node> nodesSequence;
     private List<Request> sequenceOfAttendedRequests;
+    private IntSequence visitIds;
+    private IntSequence visitTimes;
     private List<Integer> integerRouteRepresetation;
+    private boolean[] visitedIds = new boolean[0];
     private boolean violatedSomeConstraint = false;
+    private long version = VERSIONS.incrementAndGet();
+    private int vehicleCapacity;
+    private int[] loadProfile = new int[0];
+    private int maximumLoad;
+    private boolean loadProfileUpToDate;
+    private long requestsHash;
+    private long requestsHashVersion;
+    private RouteScheduler scheduler;
+
+    static final int NO_TIME = Integer.MIN_VALUE;
+    private static final AtomicLong VERSIONS = new AtomicLong();
 
     public Route(long totalRouteDistance, long routeTravelTime, long totalTimeWindowAnticipation, long totalTimeWindowDelay,
             long evaluationFunction, Set<Request> notServedRequests, List<Node> nodesSequence,
@@ -33,7 +46,9 @@ public class Route implements Cloneable {
         this.notServedRequests = notServedRequests;
         this.nodesSequence = nodesSequence;
         this.sequenceOfAttendedRequests = sequenceOfServedRequests;
-        this.integerRouteRepresetation = integerRouteRepresetation;
+        this.visitIds = new IntSequence();
+        this.visitTimes = new IntSequence();
+        this.setIntegerRouteRepresetation(integerRouteRepresetation);
         this.violatedSomeConstraint = violatedSomeConstraint;
     }
 
@@ -45,7 +60,8 @@ public class Route implements Cloneable {
         this.notServedRequests = new HashSet<>();
         this.nodesSequence = new ArrayList<>();
         this.sequenceOfAttendedRequests = new ArrayList<>();
-        this.integerRouteRepresetation = new ArrayList<>();
+        this.visitIds = new IntSequence();
+        this.visitTimes = new IntSequence();
     }
 
     public Route(Route route) {
@@ -56,10 +72,14 @@ public class Route implements Cloneable {
         this.totalTimeWindowDelay = route.getTotalTimeWindowDelay();
         this.evaluationFunction = route.getEvaluationFunction();
         this.notServedRequests = route.getNotServedRequests();
-        this.nodesSequence = route.getNodesSequence();
-        this.sequenceOfAttendedRequests = route.getSequenceOfAttendedRequests();
-        //this.integerRouteRepresetation = route.getIntegerRouteRepresetation();
-        this.integerRouteRepresetation.addAll(new ArrayList<>(route.getIntegerRouteRepresetation()));
+        this.nodesSequence = new ArrayList<>(route.getNodesSequence());
+        this.sequenceOfAttendedRequests = new ArrayList<>(route.getSequenceOfAttendedRequests());
+        this.vehicleCapacity = route.vehicleCapacity;
+        this.violatedSomeConstraint = route.violatedSomeConstraint;
+        this.copyVisits(route);
+        this.version = route.version;
+        this.requestsHash = route.requestsHash;
+        this.requestsHashVersion = route.requestsHashVersion;
     }
 
     public void setRoute(Route route) {
@@ -69,9 +89,84 @@ public class Route implements Cloneable {
         this.totalTimeWindowDelay = route.getTotalTimeWindowDelay();
         this.evaluationFunction = route.getEvaluationFunction();
         this.notServedRequests = route.getNotServedRequests();
-        this.nodesSequence = route.getNodesSequence();
-        this.sequenceOfAttendedRequests = route.getSequenceOfAttendedRequests();
-        this.integerRouteRepresetation = route.getIntegerRouteRepresetation();
+        this.nodesSequence = new ArrayList<>(route.getNodesSequence());
+        this.sequenceOfAttendedRequests = new ArrayList<>(route.getSequenceOfAttendedRequests());
+        this.vehicleCapacity = route.vehicleCapacity;
+        this.violatedSomeConstraint = route.violatedSomeConstraint;
+        this.copyVisits(route);
+        this.version = route.version;
+        this.requestsHash = route.requestsHash;
+        this.requestsHashVersion = route.requestsHashVersion;
+    }
+
+    /**
+     * Returns a number that changes every time the visits or the attributes
+     * of the route change, so a solution can tell which of its routes must be
+     * summed again without comparing them. The numbers are never repeated by
+     * other routes, and a copy keeps the number of the route it copies, so two
+     * routes with the same version have the same visits and attributes.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    private void markChanged() {
+        markTimesChanged();
+        this.loadProfileUpToDate = false;
+    }
+
+    /**
+     * Marks a change of the times only, which keeps the load profile, since
+     * the loads depend on the order of the ids alone.
+     */
+    private void markTimesChanged() {
+        this.integerRouteRepresetation = null;
+        this.version = VERSIONS.incrementAndGet();
+    }
+
+    /**
+     * Returns the capacity of the vehicle that runs the route, or zero when
+     * the route was not given one.
+     */
+    public int getVehicleCapacity() {
+        return vehicleCapacity;
+    }
+
+    public void setVehicleCapacity(int vehicleCapacity) {
+        this.vehicleCapacity = vehicleCapacity;
+        this.loadProfileUpToDate = false;
+        this.requestsHashVersion = 0;
+    }
+
+    /**
+     * Returns the capacity of the vehicle of the route or, when the route was
+     * not given one, the capacity of the vehicles of the instance.
+     */
+    public int getVehicleCapacity(ProblemData data) {
+        return vehicleCapacity > 0 ? vehicleCapacity : data.getVehicleCapacity();
+    }
+
+    IntSequence getVisitIds() {
+        return visitIds;
+    }
+
+    IntSequence getVisitTimes() {
+        return visitTimes;
+    }
+
+    public boolean containsRequest(int requestId) {
+        return visitIds.contains(requestId);
+    }
+
+    /**
+     * Copies the ids and times of the other route into the arrays of this one.
+     * The encoding is never shared, so rebuilding a route in place does not
+     * change the route it was copied from.
+     */
+    private void copyVisits(Route route) {
+        this.visitIds.copyFrom(route.visitIds);
+        this.visitTimes.copyFrom(route.visitTimes);
+        markChanged();
     }
 
     public long getTotalRouteDistance() {
@@ -80,6 +175,7 @@ public class Route implements Cloneable {
 
     public void setTotalDistanceTraveled(long totalDistanceTraveled) {
         this.totalDistanceTraveled = totalDistanceTraveled;
+        this.version = VERSIONS.incrementAndGet();
     }
 
     public long getEvaluationFunction() {
@@ -88,6 +184,7 @@ public class Route implements Cloneable {
 
     public void setEvaluationFunction(long evaluationFunction) {
         this.evaluationFunction = evaluationFunction;
+        this.version = VERSIONS.incrementAndGet();
     }
 
     public long getRouteTravelTime() {
@@ -96,6 +193,7 @@ public class Route implements Cloneable {
 
     public void setRouteTravelTime(int routeTravelTime) {
         this.routeTravelTime = routeTravelTime;
+        this.version = VERSIONS.incrementAndGet();
     }
 
     public long getTotalTimeWindowAnticipation() {
@@ -104,6 +202,7 @@ public class Route implements Cloneable {
 
     public void setTotalTimeWindowAnticipation(long totalTimeWindowAnticipation) {
         this.totalTimeWindowAnticipation = totalTimeWindowAnticipation;
+        this.version = VERSIONS.incrementAndGet();
     }
 
     public long getTotalTimeWindowDelay() {
@@ -112,6 +211,7 @@ public class Route implements Cloneable {
 
     public void setTotalTimeWindowDelay(long totalTimeWindowAnticipation) {
         this.totalTimeWindowAnticipation = totalTimeWindowAnticipation;
+        this.version = VERSIONS.incrementAndGet();
     }
 
     public Set<Request> getNotServedRequests() {
@@ -135,64 +235,96 @@ public class Route implements Cloneable {
     }
 
     public List<Integer> getIntegerSequenceOfAttendedRequests() {
-        return this.getIntegerRouteRepresetation()
-                .stream()
-                .filter(u -> u.intValue() >= 0)
-                .collect(Collectors.toCollection(ArrayList::new));
+        return visitIds.toList();
+    }
+
+    public int getIdSequenceSize() {
+        return visitIds.size();
     }
 
     public void setSequenceOfAttendedRequests(List<Request> sequenceOfAttendedRequests) {
         this.sequenceOfAttendedRequests = sequenceOfAttendedRequests;
     }
 
+    /**
+     * Returns the route in the form [id, -time, id, -time, ...], built from the
+     * primitive arrays only when the route changed since the last call.
+     */
     public List<Integer> getIntegerRouteRepresetation() {
-        return integerRouteRepresetation;
+        if (this.integerRouteRepresetation == null) {
+            List<Integer> representation = new ArrayList<>(getIntegerRepresentationSize());
+            for (int i = 0; i < visitIds.size(); i++) {
+                representation.add(visitIds.get(i));
+                if (visitTimes.get(i) != NO_TIME) {
+                    representation.add(-visitTimes.get(i));
+                }
+            }
+            this.integerRouteRepresetation = Collections.unmodifiableList(representation);
+        }
+        return this.integerRouteRepresetation;
+    }
+
+    public boolean isIntegerRepresentationEmpty() {
+        return visitIds.isEmpty();
+    }
+
+    int getIntegerRepresentationSize() {
+        int size = visitIds.size();
+        for (int i = 0; i < visitTimes.size(); i++) {
+            if (visitTimes.get(i) != NO_TIME) {
+                size++;
+            }
+        }
+        return size;
     }
 
     public void setIntegerRouteRepresetation(List<Integer> integerRouteRepresetation) {
-        this.integerRouteRepresetation = integerRouteRepresetation;
+        this.visitIds.clear();
+        this.visitTimes.clear();
+        for (int value : integerRouteRepresetation) {
+            addValueInIntegerRepresentation(value);
+        }
+        markChanged();
     }
 
     public void addValueInIntegerRepresentation(int value) {
-        this.integerRouteRepresetation.add(value);
+        if (value >= 0) {
+            this.visitIds.add(value);
+            this.visitTimes.add(NO_TIME);
+        } else if (!this.visitIds.isEmpty()) {
+            this.visitTimes.set(this.visitTimes.size() - 1, -value);
+        }
+        markChanged();
     }
 
     public void buildSequenceOfAttendedRequests(ProblemData data) {
-        List<Integer> idSequence = new ArrayList<>();
-        idSequence = this.integerRouteRepresetation.stream().filter(u -> u.longValue() > 0)
-                .collect(Collectors.toCollection(ArrayList::new));
-
         if (this.sequenceOfAttendedRequests == null) {
             this.sequenceOfAttendedRequests = new ArrayList<>();
         }
         this.sequenceOfAttendedRequests.clear();
 
-        for (Integer id : idSequence) {
-            Request request = data.getRequests().stream().filter(u -> u.getId().equals(id)).findAny().get();
-            this.sequenceOfAttendedRequests.add(request);
+        for (int i = 0; i < visitIds.size(); i++) {
+            if (visitIds.get(i) > 0) {
+                this.sequenceOfAttendedRequests.add(data.getRequest(visitIds.get(i)));
+            }
         }
 
     }
 
     public void buildNodesSequence(ProblemData data) {
-        List<Integer> idSequence = new ArrayList<>();
-        idSequence = this.integerRouteRepresetation.stream().filter(u -> u.longValue() >= 0)
-                .collect(Collectors.toCollection(ArrayList::new));
-
         if (this.nodesSequence == null) {
             this.nodesSequence = new ArrayList<>();
         }
         this.nodesSequence.clear();
 
-        Set<Integer> idCrossed = new HashSet<>();
+        boolean[] idCrossed = clearVisitedIds();
         int currentPosition = 0;
-        for (int i = 0; i < idSequence.size(); i++) {
-            Integer id = idSequence.get(i);
-            if (!id.equals(0)) {
-                Request passenger = null;
-                passenger = findRequestWithIdentification(data, id, passenger);
+        for (int i = 0; i < visitIds.size(); i++) {
+            int id = visitIds.get(i);
+            if (id != 0) {
+                Request passenger = data.getRequest(id);
 
-                if (idCrossed.contains(id)) {
+                if (idCrossed[id]) {
                     if (!this.nodesSequence.get(currentPosition - 1).getId().equals(passenger.getDestination().getId())) {
                         this.nodesSequence.add(passenger.getDestination());
                         currentPosition++;
@@ -202,7 +334,7 @@ public class Route implements Cloneable {
                     this.nodesSequence.add(passenger.getOrigin());
                     currentPosition++;
                 }
-                idCrossed.add(id);
+                idCrossed[id] = true;
             } else {
                 this.nodesSequence.add(data.getNodes().get(0));
                 currentPosition++;
@@ -210,21 +342,26 @@ public class Route implements Cloneable {
         }
     }
 
-    private Request findRequestWithIdentification(ProblemData data, Integer id, Request passenger) {
-        for (Request request : data.getRequests()) {
-            if (request.getId().equals(id)) {
-                passenger = request;
-            }
+    /**
+     * Returns the marks used to know if an id was already visited, cleared and
+     * large enough for the ids in the route. The array is reused between calls.
+     */
+    private boolean[] clearVisitedIds() {
+        int maxId = Math.max(visitIds.max(), 0);
+        if (visitedIds.length <= maxId) {
+            visitedIds = new boolean[maxId + 1];
+        } else {
+            Arrays.fill(visitedIds, 0, maxId + 1, false);
         }
-        return passenger;
+        return visitedIds;
     }
 
     public void evaluateRoute(ProblemData data) {
-        if (this.integerRouteRepresetation.size() > 2) {
+        if (getIntegerRepresentationSize() > 2) {
             calculateTravelTime(data);
             calculateDistanceTraveled(data);
             calculateTotalDeliveryAnticipation(data);
-            calculateTotalDeliveryDelay();
+            calculateTotalDeliveryDelay(data);
             calculateEvaluationFunction();
             if (this.violatedSomeConstraint) {
                 penalizeRoute();
@@ -232,6 +369,7 @@ public class Route implements Cloneable {
         } else {
             clearAtributes();
         }
+        this.version = VERSIONS.incrementAndGet();
     }
 
     private void clearAtributes() {
@@ -249,7 +387,7 @@ public class Route implements Cloneable {
     public void calculateTravelTime(ProblemData data) {
         long totalTravelTime = 0;
         for (int i = 0; i < this.nodesSequence.size() - 1; i++) {
-            totalTravelTime += data.getDuration()[this.nodesSequence.get(i).getId()][this.nodesSequence.get(i + 1).getId()].getSeconds();
+            totalTravelTime += data.getTravelTimes().getSeconds(this.nodesSequence.get(i), this.nodesSequence.get(i + 1));
         }
 
         this.routeTravelTime = totalTravelTime / 60;
@@ -265,52 +403,39 @@ public class Route implements Cloneable {
     }
 
     public void calculateTotalDeliveryAnticipation(ProblemData data) {
-        Duration violations = Duration.ofMinutes(0);
         long totalSumTime = 0;
-        Set<Request> attendedRequests = new HashSet<>();
-        List<Integer> ids = returnUsedIds();
-        for (Integer id : ids) {
-            attendedRequests.add(getRequestUsingId(id, data));
-        }
-//        for (Request request : this.sequenceOfAttendedRequests) {//treta aqui
-//            attendedRequests.add(request);
-//        }
-
-        for (Request request : attendedRequests) {
-            if (request.getAnticipation().getSeconds() > 0) {
-                totalSumTime += request.getAnticipation().getSeconds() / 60;
+        boolean[] visited = clearVisitedIds();
+        for (int i = 0; i < visitIds.size(); i++) {
+            int id = visitIds.get(i);
+            if (id > 0 && visitTimes.get(i) != NO_TIME) {
+                if (visited[id]) {
+                    int anticipation = getRequestUsingId(id, data).getAnticipationInMinutes(visitTimes.get(i));
+                    if (anticipation > 0) {
+                        totalSumTime += anticipation;
+                    }
+                }
+                visited[id] = true;
             }
         }
         this.totalTimeWindowAnticipation = totalSumTime;
     }
 
-    private List<Integer> returnUsedIds() {
-        Set<Integer> setOfIds = this.getIntegerRouteRepresetation()
-                .stream()
-                .filter(u -> u.intValue() > 0)
-                .collect(Collectors.toCollection(LinkedHashSet::new));
-
-        List<Integer> idsUsed = new ArrayList<>();
-        for (int id : setOfIds) {
-            idsUsed.add(id);
-        }
-        return idsUsed;
-    }
-
-    public void calculateTotalDeliveryDelay() {
-        Duration violations = Duration.ofMinutes(0);
-        Set<Request> attendedRequests = new HashSet<>();
-        for (Request request : this.sequenceOfAttendedRequests) {
-            attendedRequests.add(request);
-        }
-
-        for (Request request : attendedRequests) {
-            if (request.getDeliveryTimeWindowUpper().isBefore(request.getDeliveryTime())) {
-                Duration time = Duration.between(request.getDeliveryTimeWindowUpper(), request.getDeliveryTime());
-                violations = violations.plus(time);
+    public void calculateTotalDeliveryDelay(ProblemData data) {
+        long violations = 0;
+        boolean[] visited = clearVisitedIds();
+        for (int i = 0; i < visitIds.size(); i++) {
+            int id = visitIds.get(i);
+            if (id > 0 && visitTimes.get(i) != NO_TIME) {
+                if (visited[id]) {
+                    int delay = getRequestUsingId(id, data).getDelayInMinutes(visitTimes.get(i));
+                    if (delay < 0) {
+                        violations -= delay;
+                    }
+                }
+                visited[id] = true;
             }
         }
-        this.totalTimeWindowDelay = violations.getSeconds() / 60;
+        this.totalTimeWindowDelay = violations;
     }
 
     public void calculateEvaluationFunction() {
@@ -333,7 +458,9 @@ public class Route implements Cloneable {
     }
 
     public void clearIntegerRepresentation() {
-        this.integerRouteRepresetation.clear();
+        this.visitIds.clear();
+        this.visitTimes.clear();
+        markChanged();
     }
 
     public void clearNodesSequence() {
@@ -344,51 +471,118 @@ public class Route implements Cloneable {
         this.sequenceOfAttendedRequests.clear();
     }
 
-    public void setPickupAndDeliveryTimeForEachAttendedRequest(ProblemData data) {
-        Set<Integer> visitedIds = new HashSet<>();
-        for (int i = 0; i < this.integerRouteRepresetation.size(); i += 2) {
-            if (this.integerRouteRepresetation.get(i) != 0) {
-                if (visitedIds.contains(this.integerRouteRepresetation.get(i))) {
-                    Request request = getRequestUsingId(this.integerRouteRepresetation.get(i), data);
-                    request.setDeliveryTime(this.integerRouteRepresetation.get(i + 1));
-                } else {
-                    Request request = getRequestUsingId(this.integerRouteRepresetation.get(i), data);
-                    request.setPickUpTime(this.integerRouteRepresetation.get(i + 1));
-                }
-                visitedIds.add(this.integerRouteRepresetation.get(i));
-            }
-        }
-    }
-
     public Request getRequestUsingId(Integer id, ProblemData data) {
-        if (id != 0) {
-            return data.getRequests().stream().filter(u -> u.getId().equals(id)).findAny().get();
-        } else {
-            return null;
-        }
+        return data.getRequest(id);
     }
 
     public void swapRequests(int firstPosition, int secondPosition, ProblemData data) {
-        List<Integer> idSequence = this.integerRouteRepresetation
-                .stream()
-                .filter(u -> u >= 0)
-                .collect(Collectors.toCollection(ArrayList::new));
-
-        if ((idSequence.get(firstPosition) != 0) && (idSequence.get(secondPosition) != 0)) {
-            if (!idSequence.get(firstPosition).equals(idSequence.get(secondPosition))) {
-                Collections.swap(idSequence, firstPosition, secondPosition);
-                clear();
-                rebuild(idSequence, data);
+        int firstId = visitIds.get(firstPosition);
+        int secondId = visitIds.get(secondPosition);
+
+        if (firstId != 0 && secondId != 0 && firstId != secondId) {
+            boolean hashIsKnown = hasRequestsHash();
+            long hash = RouteCache.updateHash(requestsHash, firstPosition - 1, firstId, secondId);
+            hash = RouteCache.updateHash(hash, secondPosition - 1, secondId, firstId);
+            visitIds.swap(firstPosition, secondPosition);
+            clearTimes();
+            clearNodesSequence();
+            clearSequenceOfAttendeRequests();
+            if (hashIsKnown) {
+                rebuild(data, hash);
+            } else {
+                rebuild(data);
             }
         }
     }
 
+    /**
+     * Reverses the ids from the first position (inclusive) to the end position
+     * (exclusive) and rebuilds the route, as the 2-opt move does.
+     */
+    public void reverseRequests(int firstPosition, int endPosition, ProblemData data) {
+        visitIds.reverse(firstPosition, endPosition);
+        clearTimes();
+        clearNodesSequence();
+        clearSequenceOfAttendeRequests();
+        rebuild(data);
+    }
+
     public void rebuild(List<Integer> idSequence, ProblemData data) {
         this.setIntegerRouteRepresetation(idSequence);
-        this.scheduleRouteUsingBestScheduling(data);
-        this.buildSequenceOfAttendedRequests(data);
-        this.buildNodesSequence(data);
-        this.evaluateRoute(data);
+        this.rebuild(data);
+    }
+
+    /**
+     * Schedules and evaluates the route again using the id sequence already
+     * stored in it, without building any intermediate list. When the same
+     * requests were rebuilt before, the result is taken from the route cache
+     * of the problem data.
+     */
+    public void rebuild(ProblemData data) {
+        if (visitIds.max() <= 0) {
+            this.scheduleRouteUsingBestScheduling(data);
+            this.evaluateRoute(data);
+            return;
+        }
+        rebuild(data, RouteCache.hashOf(visitIds, getVehicleCapacity(data)));
+    }
+
+    /**
+     * Rebuilds the route whose requests have the hash, which the swaps update
+     * from the hash of the last rebuild instead of hashing every request.
+     */
+    private void rebuild(ProblemData data, long hash) {
+        RouteCache cache = data.getRouteCache();
+        int capacity = getVehicleCapacity(data);
+        RouteCache.Entry entry = cache.get(hash, visitIds, capacity);
+        if (entry != null) {
+            restore(entry);
+        } else {
+            this.scheduleRouteUsingBestScheduling(data);
+            this.evaluateRoute(data);
+            cache.put(hash, new RouteCache.Entry(capacity, visitIds, visitTimes, nodesSequence,
+                    sequenceOfAttendedRequests, totalDistanceTraveled, routeTravelTime, totalTimeWindowAnticipation,
+                    totalTimeWindowDelay, evaluationFunction, violatedSomeConstraint));
+        }
+        this.requestsHash = hash;
+        this.requestsHashVersion = version;
+    }
+
+    /**
+     * Tells whether the hash of the last rebuild still holds the requests of
+     * the route. Any change of the route after the rebuild takes a new
+     * version, so it makes the hash unknown. A rebuilt route starts and ends
+     * at the depot, so a request in position i is the request i - 1 of the
+     * hash.
+     */
+    private boolean hasRequestsHash() {
+        return requestsHashVersion == version;
+    }
+
+    /**
+     * Takes the schedule and the attributes of a rebuild of the same requests
+     * kept by the cache.
+     */
+    private void restore(RouteCache.Entry entry) {
+        this.visitIds.copyFrom(entry.visitIds);
+        this.visitTimes.copyFrom(entry.visitTimes);
+        if (this.nodesSequence == null) {
+            this.nodesSequence = new ArrayList<>();
+        }
+        this.nodesSequence.clear();
+        this.nodesSequence.addAll(entry.nodesSequence);
+        if (this.sequenceOfAttendedRequests == null) {
+            this.sequenceOfAttendedRequests = new ArrayList<>();
+        }
+        this.sequenceOfAttendedRequests.clear();
+        this.sequenceOfAttendedRequests.addAll(entry.sequenceOfAttendedRequests);
+        this.totalDistanceTraveled = entry.totalDistanceTraveled;
+        this.routeTravelTime = entry.routeTravelTime;
+        this.totalTimeWindowAnticipation = entry.totalTimeWindowAnticipation;
+        this.totalTimeWindowDelay = entry.totalTimeWindowDelay;
+        this.evaluationFunction = entry.evaluationFunction;
+        this.violatedSomeConstraint = entry.violatedSomeConstraint;
+        markChanged();
     }
 
     public void clear() {
@@ -397,451 +591,154 @@ public class Route implements Cloneable {
         this.clearSequenceOfAttendeRequests();
     }
 
+    private void clearTimes() {
+        this.visitTimes.clear();
+        this.visitTimes.resize(visitIds.size(), NO_TIME);
+        markChanged();
+    }
+
     public void addMinutesInRoute(int timeInterval, ProblemData data) {
-        for (int i = 0; i < this.integerRouteRepresetation.size(); i++) {
-            if (this.integerRouteRepresetation.get(i) < 0) {
-                this.integerRouteRepresetation.set(i, this.integerRouteRepresetation.get(i) - timeInterval);
-            }
-        }
-        List<Request> attendedRequests = new ArrayList<>();
-        List<Integer> ids = returnUsedIds();
-        for (Integer id : ids) {
-            attendedRequests.add(getRequestUsingId(id, data));
-        }
+        shiftTimes(timeInterval, data);
+    }
 
-        for (Request request : attendedRequests) {
-            request.setPickUpTime(request.getPickUpTimeInMinutes() + timeInterval);
-            request.setDeliveryTime(request.getDeliveryTimeInMinutes() + timeInterval);
-            int a = 0;
-        }
+    public void removeMinutesInRoute(int timeInterval, ProblemData data) {
+        shiftTimes(-timeInterval, data);
+    }
 
+    private void shiftTimes(int timeInterval, ProblemData data) {
+        moveTimes(timeInterval);
         this.evaluateRoute(data);
     }
 
-    public void removeMinutesInRoute(int timeInterval, ProblemData data) {
-        for (int i = 0; i < this.integerRouteRepresetation.size(); i++) {
-            if (this.integerRouteRepresetation.get(i) < 0) {
-                this.integerRouteRepresetation.set(i, this.integerRouteRepresetation.get(i) + timeInterval);
+    private void moveTimes(int timeInterval) {
+        for (int i = 0; i < visitTimes.size(); i++) {
+            if (visitTimes.get(i) != NO_TIME) {
+                visitTimes.set(i, visitTimes.get(i) + timeInterval);
             }
         }
-
-        List<Request> attendedRequests = new ArrayList<>();
-        List<Integer> ids = returnUsedIds();
-        for (Integer id : ids) {
-            attendedRequests.add(getRequestUsingId(id, data));
-        }
-
-        for (Request request : attendedRequests) {
-            request.setPickUpTime(request.getPickUpTimeInMinutes() - timeInterval);
-            request.setDeliveryTime(request.getDeliveryTimeInMinutes() - timeInterval);
-            int a = 0;
-        }
-        this.evaluateRoute(data);
+        markTimesChanged();
     }
 
     public void scheduleRoute(ProblemData data) {
-        List<Integer> deliveryIdSequence = getOnlyIdSequence();
-        List<Integer> pickupIdSequence = getOnlyIdSequence();
-        List<Integer> idSequence = new ArrayList<>();
-        Set<Integer> visitedIds = new HashSet<>();
-        int positionInSequenceOfFirstDelivery = 0;
-
-        idSequence.addAll(pickupIdSequence);
-
-        positionInSequenceOfFirstDelivery = findFirstDelivery(idSequence, visitedIds, positionInSequenceOfFirstDelivery);
-
-        deliveryIdSequence.subList(0, positionInSequenceOfFirstDelivery).clear();
-        pickupIdSequence.subList(positionInSequenceOfFirstDelivery, pickupIdSequence.size()).clear();
-
-        List<Integer> deliveryTimes = new ArrayList<>();
-        List<Integer> pickupTimes = new ArrayList<>();
-
-        int currentTimeForDelivery = getRequestUsingId(idSequence.get(positionInSequenceOfFirstDelivery), data)
-                .getDeliveryTimeWindowLowerInMinutes();
-        int currentTimeForPickup = -currentTimeForDelivery;
-        deliveryTimes.add(-currentTimeForDelivery);
-
-        currentTimeForDelivery = scheludePassengerDeliveries(positionInSequenceOfFirstDelivery,
-                idSequence, visitedIds, deliveryTimes, currentTimeForDelivery, data);
-
-        addDepotInPickupAndDeliverySequences(deliveryIdSequence, pickupIdSequence);
-
-        int timeBetween = (int) data.getDuration()[getRequestUsingId(idSequence.get(idSequence.size() - 1), data).getDestination().getId()][0]
-                .getSeconds() / 60;
-        deliveryTimes.add(-currentTimeForDelivery - timeBetween);
-
-        List<Integer> times = schedulePassengerPickups(pickupIdSequence, idSequence, positionInSequenceOfFirstDelivery,
-                currentTimeForPickup, deliveryTimes, data);
-
-        addDepotInPickupAndDeliverySequences(idSequence, idSequence);
-        setIntegerRepresentation(idSequence, times, data);
-        capacityAnalysis(data);
-        improveSchedule(data);
+        scheduleRouteUsingBestScheduling(data);
     }
 
+    /**
+     * Schedules the route and builds its sequences of requests and nodes, so
+     * the route can be evaluated when the schedule is improved.
+     */
     public void scheduleRouteUsingBestScheduling(ProblemData data) {
-        List<Integer> deliveryIdSequence = getOnlyIdSequence();
-        List<Integer> pickupIdSequence = getOnlyIdSequence();
-        List<Integer> idSequence = new ArrayList<>();
-        Set<Integer> visitedIds = new HashSet<>();
-        int positionInSequenceOfFirstDelivery = 0;
-
-        idSequence.addAll(pickupIdSequence);
-
-        positionInSequenceOfFirstDelivery = findFirstDelivery(idSequence, visitedIds, positionInSequenceOfFirstDelivery);
-
-        deliveryIdSequence.subList(0, positionInSequenceOfFirstDelivery).clear();
-        pickupIdSequence.subList(positionInSequenceOfFirstDelivery, pickupIdSequence.size()).clear();
-
-        List<Integer> deliveryTimes = new ArrayList<>();
-        List<Integer> pickupTimes = new ArrayList<>();
-
-        int currentTimeForDelivery = getRequestUsingId(idSequence.get(positionInSequenceOfFirstDelivery), data)
-                .getDeliveryTimeWindowLowerInMinutes();
-        deliveryTimes.add(-currentTimeForDelivery);
-//        currentTimeForDelivery = bestScheludePassengerDeliveries(positionInSequenceOfFirstDelivery,
-//                idSequence, visitedIds, deliveryTimes, currentTimeForDelivery, data);
-        currentTimeForDelivery = scheludePassengerDeliveries(positionInSequenceOfFirstDelivery,
-                idSequence, visitedIds, deliveryTimes, currentTimeForDelivery, data);
-        int currentTimeForPickup = deliveryTimes.get(0);
-        deliveryTimes.add(-currentTimeForDelivery);
-        addDepotInPickupAndDeliverySequences(deliveryIdSequence, pickupIdSequence);
-
-        int timeBetween = (int) data.getDuration()[getRequestUsingId(idSequence.get(idSequence.size() - 1), data).getDestination().getId()][0]
-                .getSeconds() / 60;
-        deliveryTimes.add(-currentTimeForDelivery - timeBetween);
-
-        List<Integer> times = schedulePassengerPickups(pickupIdSequence, idSequence, positionInSequenceOfFirstDelivery,
-                currentTimeForPickup, deliveryTimes, data);
-
-        addDepotInPickupAndDeliverySequences(idSequence, idSequence);
-        setIntegerRepresentation(idSequence, times, data);
+        scheduleVisits(data);
         capacityAnalysis(data);
-
+        buildSequenceOfAttendedRequests(data);
+        buildNodesSequence(data);
         improveSchedule(data);
-
     }
 
+    /**
+     * Puts the depot at both ends of the id sequence and schedules the visits
+     * with RouteScheduler.scheduleVisits, writing the times directly in the
+     * time array.
+     */
+    private void scheduleVisits(ProblemData data) {
+        visitIds.removeAll(0);
+        int numberOfVisits = visitIds.size();
+        visitIds.insert(0, 0);
+        visitIds.add(0);
+        visitTimes.clear();
+        visitTimes.resize(visitIds.size(), NO_TIME);
+        RouteScheduler.scheduleVisits(visitIds.values(), visitTimes.values(), numberOfVisits, clearVisitedIds(), data);
+        markChanged();
+    }
+
+    /**
+     * Moves the whole schedule by the shift that minimizes the evaluation of
+     * the route, found by the scheduler in one sweep, and evaluates the route
+     * once. Penalized routes are not moved, since the shift does not change
+     * their evaluation.
+     */
     public void improveSchedule(ProblemData data) {
-        Set<Integer> times = new HashSet<>();
-
-        for (Request request : sequenceOfAttendedRequests) {
-            if (!request.getAnticipation().isNegative() && !request.getAnticipation().isZero()) {
-                times.add((int) request.getAnticipation().getSeconds() / 60);
+        if (getIntegerRepresentationSize() > 2 && !this.violatedSomeConstraint) {
+            if (scheduler == null) {
+                scheduler = new RouteScheduler();
             }
-
-            if (request.getDelay().isNegative()) {
-                times.add((int) -request.getDelay().getSeconds() / 60);
-            }
-        }
-        try {
-            tryToInsertTimesInRoute(times, data);
-        } catch (DateTimeException e) {
-            e.printStackTrace();
-            System.out.println("List of times = " + times);
-        }
-    }
-
-    private void tryToInsertTimesInRoute(Set<Integer> times, ProblemData data) {
-        Route route = new Route((Route) this.clone());
-        Route bestRoute = new Route((Route) this.clone());
-        long evaluationBefore = route.getEvaluationFunction();
-        for (Integer time : times) {
-            route.addMinutesInRoute(time, data);
-            if (bestRoute.getEvaluationFunction() > route.getEvaluationFunction()) {
-                bestRoute.setRoute((Route) route.clone());
-            }
-            route.removeMinutesInRoute(time, data);
-        }
-        this.setRoute((Route) bestRoute.clone());
-    }
-
-    private List<Integer> getOnlyIdSequence() {
-        List<Integer> idSequence = this.getIntegerRouteRepresetation()
-                .stream().filter(u -> u.intValue() > 0)
-                .collect(Collectors.toCollection(ArrayList::new));
-        return idSequence;
-    }
-
-    private int findFirstDelivery(List<Integer> idSequence, Set<Integer> visitedIds, int positionInSequenceOfFirstDelivery) {
-        for (int i = 0; i < idSequence.size(); i++) {
-            int id = idSequence.get(i);
-            if (visitedIds.contains(id)) {
-                positionInSequenceOfFirstDelivery = i;
-                break;
-            }
-            visitedIds.add(id);
-        }
-        return positionInSequenceOfFirstDelivery;
-    }
-
-    private int scheludePassengerDeliveries(int positionInSequenceOfFirstDelivery, List<Integer> idSequence,
-            Set<Integer> visitedIds, List<Integer> deliveryTimes, int currentTimeForDelivery, ProblemData data) {
-        List<Integer> anticipations = new ArrayList<>();
-        for (int i = positionInSequenceOfFirstDelivery; i < idSequence.size() - 1; i++) {
-            int originPassengerId = idSequence.get(i);
-            int destinationPassengerId = idSequence.get(i + 1);
-            Request originRequest = getRequestUsingId(originPassengerId, data);
-            Request destinationRequest = getRequestUsingId(destinationPassengerId, data);
-            int timeBetween;
-
-            if (originPassengerId == destinationPassengerId) {
-                currentTimeForDelivery = getTimeForTheSameRequest(data, originRequest, destinationRequest,
-                        deliveryTimes, currentTimeForDelivery);
-            } else {
-                currentTimeForDelivery = getTimeForDifferentRequests(visitedIds, originPassengerId, destinationPassengerId,
-                        data, originRequest, destinationRequest, deliveryTimes, currentTimeForDelivery);
-            }
-            saveAnticipations(originRequest, anticipations);
-        }
-        addTimeToDepot(deliveryTimes, currentTimeForDelivery, data, idSequence);
-        Request lastRequest = getRequestUsingId(idSequence.get(idSequence.size() - 1), data);
-        saveAnticipations(lastRequest, anticipations);
-
-        return currentTimeForDelivery;
-    }
-
-    private void addTimeToDepot(List<Integer> deliveryTimes, int currentTimeForDelivery, ProblemData data, List<Integer> idSequence) {
-        deliveryTimes.add(-currentTimeForDelivery - (int) data
-                .getDuration()[getRequestUsingId(idSequence.get(idSequence.size() - 1), data)
-                .getDestination().getId()][data.getNodes().get(0).getId()].getSeconds() / 60);
-    }
-
-    private int bestScheludePassengerDeliveries(int positionInSequenceOfFirstDelivery, List<Integer> idSequence,
-            Set<Integer> visitedIds, List<Integer> deliveryTimes, int currentTimeForDelivery, ProblemData data) {
-        List<Integer> anticipations = new ArrayList<>();
-
-        for (int i = positionInSequenceOfFirstDelivery; i < idSequence.size() - 1; i++) {
-            int originPassengerId = idSequence.get(i);
-            int destinationPassengerId = idSequence.get(i + 1);
-            Request originRequest = getRequestUsingId(originPassengerId, data);
-            Request destinationRequest = getRequestUsingId(destinationPassengerId, data);
-            int timeBetween;
-
-            if (originPassengerId == destinationPassengerId) {
-                currentTimeForDelivery = getTimeForTheSameRequest(data, originRequest, destinationRequest,
-                        deliveryTimes, currentTimeForDelivery);
-            } else {
-                currentTimeForDelivery = getTimeForDifferentRequests(visitedIds, originPassengerId, destinationPassengerId,
-                        data, originRequest, destinationRequest, deliveryTimes, currentTimeForDelivery);
-            }
-            saveAnticipations(originRequest, anticipations);
-        }
-        Request lastRequest = getRequestUsingId(idSequence.get(idSequence.size() - 1), data);
-        saveAnticipations(lastRequest, anticipations);
-
-        if (isNotARouteForOnePassenger(idSequence)) {
-            currentTimeForDelivery = rescheduleDeliveriesAfterConstruction(anticipations, positionInSequenceOfFirstDelivery, idSequence,
-                    visitedIds, deliveryTimes, currentTimeForDelivery, data);
-        } else {
-            Request request = getRequestUsingId(idSequence.get(0), data);
-            deliveryTimes.add(-request.getDeliveryTimeWindowLowerInMinutes());
-            int time = (int) -data.getDuration()[request.getDestination().getId()][0].getSeconds() / 60;
-            deliveryTimes.add(-currentTimeForDelivery - time);
-        }
-
-        return currentTimeForDelivery;
-    }
-
-    private static boolean isNotARouteForOnePassenger(List<Integer> idSequence) {
-        return idSequence.size() > 2;
-    }
-
-    private void saveAnticipations(Request originRequest, List<Integer> anticipations) {
-        int anticipation = (int) (Duration.between(originRequest.getDeliveryTimeWindowLower(), originRequest.getDeliveryTime()).getSeconds() / 60);
-        if (anticipation < 0) {
-            anticipations.add(anticipation);
-        }
-    }
-
-    private int rescheduleDeliveriesAfterConstruction(List<Integer> anticipations, int positionInSequenceOfFirstDelivery,
-            List<Integer> idSequence, Set<Integer> visitedIds, List<Integer> deliveryTimes, int currentTimeForDelivery,
-            ProblemData data) {
-
-        int lastAnticipation = 0;
-        int totalAnticipation = anticipations.stream().mapToInt(Integer::valueOf).sum();
-        List<Request> requests = new ArrayList<>();
-
-        getDeliveryRequests(positionInSequenceOfFirstDelivery, idSequence, data, requests);
-        int oldDelay = getTotalDelay(requests);
-
-        for (Integer anticipation : anticipations) {
-
-            addAnticipationToRequestsDeliveries(requests, anticipation, lastAnticipation);
-            addAnticipationToTimesList(deliveryTimes, anticipation, lastAnticipation);
-
-            int newAnticipation = getTotalAnticipationAfterTimeAdded(requests);
-            int newDelay = getTotalDelay(requests);
-            if (newAnticipation < totalAnticipation && newDelay > oldDelay) {
-                removeAnticipationAdded(deliveryTimes, anticipation);
-            } else {
-                lastAnticipation = anticipation;
-                totalAnticipation = newAnticipation;
+            scheduler.clear();
+            boolean[] visited = clearVisitedIds();
+            for (int i = 0; i < visitIds.size(); i++) {
+                int id = visitIds.get(i);
+                if (id > 0 && visitTimes.get(i) != NO_TIME) {
+                    if (visited[id]) {
+                        Request request = getRequestUsingId(id, data);
+                        scheduler.addDelivery(visitTimes.get(i), request.getDeliveryTimeWindowLowerInMinutes(),
+                                request.getDeliveryTimeWindowUpperInMinutes());
+                    }
+                    visited[id] = true;
+                }
             }
-        }
-        return -deliveryTimes.get(deliveryTimes.size() - 1);
-
-    }
-
-    private int getTotalDelay(List<Request> requests) {
-        return requests.stream().mapToInt(u -> (int) u.getAnticipation().toMinutes() / 60).sum();
-    }
-
-    private void removeAnticipationAdded(List<Integer> deliveryTimes, Integer anticipation) {
-        for (int j = 0; j < deliveryTimes.size(); j++) {
-            deliveryTimes.set(j, deliveryTimes.get(j) - anticipation);
-        }
-    }
-
-    private void subtractAddedAnticipationFromSet(List<Integer> anticipations, int lastAnticipation) {
-        if (anticipations.size() != 0) {
-            for (int i = 0; i < anticipations.size(); i++) {
-                anticipations.set(i, anticipations.get(i) - lastAnticipation);
+            calculateTravelTime(data);
+            int bestShift = scheduler.findBestShift(this.routeTravelTime);
+            if (bestShift != 0) {
+                moveTimes(bestShift);
             }
         }
+        this.evaluateRoute(data);
     }
 
-    private int getTotalAnticipationAfterTimeAdded(List<Request> requests) {
-        return requests.stream().mapToInt(u -> (int) u.getAnticipation().toMinutes()).sum();
+    public void capacityAnalysis(ProblemData data) {
+        buildLoadProfile();
+        this.violatedSomeConstraint = this.maximumLoad > getVehicleCapacity(data);
     }
 
-    private void addAnticipationToTimesList(List<Integer> deliveryTimes, Integer anticipation, int lastAnticipation) {
-        for (int j = 0; j < deliveryTimes.size(); j++) {
-            deliveryTimes.set(j, deliveryTimes.get(j) + anticipation - lastAnticipation);
-        }
+    /**
+     * Returns the number of passengers on board after each position of the
+     * id sequence. The array may be longer than the sequence and is shared
+     * with the route, so it must not be changed nor kept after the route
+     * changes.
+     */
+    int[] getLoadProfile() {
+        buildLoadProfile();
+        return loadProfile;
     }
 
-    private void addAnticipationToRequestsDeliveries(List<Request> requests, Integer anticipation, int lastAnticipation) {
-        for (int i = 0; i < requests.size(); i++) {
-            Request request = requests.get(i);
-            request.setDeliveryTime(request.getDeliveryTimeInMinutes() - anticipation - lastAnticipation);
-            int k = 0;
-        }
+    public int getLoad(int position) {
+        return getLoadProfile()[position];
     }
 
-    private void getDeliveryRequests(int positionInSequenceOfFirstDelivery, List<Integer> idSequence, ProblemData data, List<Request> requests) {
-        for (int i = positionInSequenceOfFirstDelivery; i < idSequence.size(); i++) {
-            Request request = getRequestUsingId(idSequence.get(i), data);
-            requests.add((Request) request.clone());
-        }
+    public int getMaximumLoad() {
+        buildLoadProfile();
+        return maximumLoad;
     }
 
-    private void rescheduleDeliveriesDuringConstruction() {
-
-    }
-
-    private int getTimeForDifferentRequests(Set<Integer> visitedIds, int originPassengerId, int destinationPassengerId,
-            ProblemData data, Request originRequest, Request destinationRequest, List<Integer> deliveryTimes,
-            int currentTimeForDelivery) {
-        int timeBetween;
-        if (visitedIds.contains(originPassengerId)) {
-            if (visitedIds.contains(destinationPassengerId)) {
-                timeBetween = (int) data.getDuration()[originRequest.getDestination().getId()][destinationRequest.getDestination().getId()]
-                        .getSeconds() / 60;
-            } else {
-                timeBetween = (int) data.getDuration()[originRequest.getDestination().getId()][destinationRequest.getOrigin().getId()]
-                        .getSeconds() / 60;
-            }
-            deliveryTimes.add(-currentTimeForDelivery - timeBetween);
-            currentTimeForDelivery -= -timeBetween;
-        } else {
-            if (visitedIds.contains(destinationPassengerId)) {
-                timeBetween = (int) data.getDuration()[originRequest.getOrigin().getId()][destinationRequest.getDestination().getId()]
-                        .getSeconds() / 60;
-            } else {
-                timeBetween = (int) data.getDuration()[originRequest.getOrigin().getId()][destinationRequest.getOrigin().getId()]
-                        .getSeconds() / 60;
-            }
-            deliveryTimes.add(-currentTimeForDelivery - timeBetween);
-            currentTimeForDelivery -= -timeBetween;
-        }
-        visitedIds.add(originPassengerId);
-        visitedIds.add(destinationPassengerId);
-        return currentTimeForDelivery;
-    }
-
-    private int getTimeForTheSameRequest(ProblemData data, Request originRequest, Request destinationRequest, List<Integer> deliveryTimes, int currentTimeForDelivery) {
-        int timeBetween;
-        timeBetween = (int) data.getDuration()[originRequest.getOrigin().getId()][destinationRequest.getDestination().getId()]
-                .getSeconds() / 60;
-        originRequest.setDeliveryTime(-currentTimeForDelivery - timeBetween);
-        deliveryTimes.add(-currentTimeForDelivery - timeBetween);
-        currentTimeForDelivery -= -timeBetween;
-        return currentTimeForDelivery;
-    }
-
-    private void addDepotInPickupAndDeliverySequences(List<Integer> deliveryIdSequence, List<Integer> pickupIdSequence) {
-        deliveryIdSequence.add(0);
-        pickupIdSequence.add(0, 0);
-    }
-
-    private List<Integer> schedulePassengerPickups(List<Integer> pickupIdSequence, List<Integer> idSequence,
-            int positionInSequenceOfFirstDelivery, int currentTimeForPickup, List<Integer> deliveryTimes, ProblemData data) {
-        List<Long> displacementTimesBetweenPassengers = new ArrayList<>();
-        for (int i = 0; i < pickupIdSequence.size() - 1; i++) {
-            int originPassengerId = pickupIdSequence.get(i);
-            int destinationPassengerId = pickupIdSequence.get(i + 1);
-            long displacementTime = 0;
-
-            Request originRequest = getRequestUsingId(originPassengerId, data);
-            Request destinationRequest = getRequestUsingId(destinationPassengerId, data);
-
-            if (originRequest == null) {
-                displacementTime = data.getDuration()[0][destinationRequest.getOrigin().getId()]
-                        .getSeconds();
-            } else if (destinationRequest == null) {
-                displacementTime = data.getDuration()[originRequest.getOrigin().getId()][0]
-                        .getSeconds();
-            } else {
-                displacementTime = data.getDuration()[originRequest.getOrigin().getId()][destinationRequest.getOrigin().getId()]
-                        .getSeconds();
-            }
-            displacementTimesBetweenPassengers.add(-displacementTime / 60);
+    /**
+     * Fills the load profile in a single pass over the ids: the first visit of
+     * an id is its pickup and the second one its delivery. It is built again
+     * only when the ids changed since the last time.
+     */
+    private void buildLoadProfile() {
+        if (loadProfileUpToDate) {
+            return;
         }
-        Request lastPickup = getRequestUsingId(idSequence.get(positionInSequenceOfFirstDelivery - 1), data);
-        Request firstDelivery = getRequestUsingId(idSequence.get(positionInSequenceOfFirstDelivery), data);
-        long timeBetweenLastPickupAndFirstDelivery = data
-                .getDuration()[lastPickup.getOrigin().getId()][firstDelivery.getDestination().getId()].getSeconds() / 60;
-
-        displacementTimesBetweenPassengers.add(-timeBetweenLastPickupAndFirstDelivery);
-
-        List<Integer> times = new ArrayList<>();
-        for (int i = displacementTimesBetweenPassengers.size() - 1; i >= 0; i--) {
-            currentTimeForPickup -= displacementTimesBetweenPassengers.get(i);
-            times.add((int) currentTimeForPickup);
+        if (loadProfile.length < visitIds.size()) {
+            loadProfile = new int[Math.max(visitIds.size(), 2 * loadProfile.length)];
         }
-
-        Collections.reverse(times);
-        times.addAll(deliveryTimes);
-        return times;
-    }
-
-    private void setIntegerRepresentation(List<Integer> idSequence, List<Integer> times, ProblemData data) {
-        List<Integer> integerRepresentation = buildIntegerRepresentation(idSequence, times);
-
-        this.clearIntegerRepresentation();
-        this.setIntegerRouteRepresetation(integerRepresentation);
-        this.setPickupAndDeliveryTimeForEachAttendedRequest(data);
-    }
-
-    public void capacityAnalysis(ProblemData data) {
-        List<Integer> idSequence = getOnlyIdSequence();
-        List<Integer> vehicleOccupation = new ArrayList<>();
-        this.violatedSomeConstraint = false;
+        boolean[] crossed = clearVisitedIds();
         int busySeats = 0;
-        vehicleOccupation.add(busySeats);
-        for (int i = 0; i < idSequence.size(); i++) {
-            int currentId = idSequence.get(i);
-            if (idSequence.subList(0, i).contains(currentId)) {
-                busySeats--;
-            } else {
-                busySeats++;
-                if (busySeats > data.getVehicleCapacity()) {
-                    this.violatedSomeConstraint = true;
+        int maximum = 0;
+        for (int i = 0; i < visitIds.size(); i++) {
+            int id = visitIds.get(i);
+            if (id != 0) {
+                if (crossed[id]) {
+                    busySeats--;
+                } else {
+                    crossed[id] = true;
+                    busySeats++;
+                    maximum = Math.max(maximum, busySeats);
                 }
             }
-            vehicleOccupation.add(busySeats);
+            loadProfile[i] = busySeats;
         }
+        this.maximumLoad = maximum;
+        this.loadProfileUpToDate = true;
     }
 
     private void penalizeRoute() {
@@ -849,61 +746,71 @@ public class Route implements Cloneable {
         //this.totalDistanceTraveled = this.totalDistanceTraveled * this.routeTravelTime * this.routeTravelTime;
     }
 
-    private List<Integer> buildIntegerRepresentation(List<Integer> idSequence, List<Integer> times) {
-        List<Integer> integerRepresentation = new ArrayList<>();
-        for (int i = 0; i < idSequence.size(); i++) {
-            integerRepresentation.add(idSequence.get(i));
-            integerRepresentation.add(times.get(i));
-        }
-        return integerRepresentation;
-    }
-
     public void replaceRequest(int oldId, int newId, ProblemData data) {
-        List<Integer> idSequence = new ArrayList<>();
-        idSequence = this.integerRouteRepresetation.stream().filter(u -> u.longValue() >= 0)
-                .collect(Collectors.toCollection(ArrayList::new));
-
-        List<Integer> positions = new ArrayList<>();
-        for (int i = 0; i < idSequence.size(); i++) {
-            if (idSequence.get(i) == oldId) {
-                positions.add(i);
+        boolean hashIsKnown = hasRequestsHash() && oldId != 0 && newId != 0;
+        long hash = requestsHash;
+        for (int i = 0; i < visitIds.size(); i++) {
+            if (visitIds.get(i) == oldId) {
+                visitIds.set(i, newId);
+                hash = RouteCache.updateHash(hash, i - 1, oldId, newId);
             }
         }
 
-        for (int id : positions) {
-            idSequence.set(id, newId);
+        clearTimes();
+        clearNodesSequence();
+        clearSequenceOfAttendeRequests();
+        if (hashIsKnown) {
+            rebuild(data, hash);
+        } else {
+            rebuild(data);
         }
+    }
 
-        clear();
-        rebuild(idSequence, data);
+    /**
+     * Inserts the pickup of the request in the first position and its
+     * delivery in the second one, both positions taken in the new sequence,
+     * and rebuilds the route.
+     */
+    public void insertRequest(int requestId, int pickupPosition, int deliveryPosition, ProblemData data) {
+        visitIds.insert(pickupPosition, requestId);
+        visitIds.insert(deliveryPosition, requestId);
+        clearTimes();
+        clearNodesSequence();
+        clearSequenceOfAttendeRequests();
+        rebuild(data);
     }
 
     public void removeReallocatedRequest(int requestId, ProblemData data) {
-
-        this.rebuild(integerRouteRepresetation.stream()
-                .filter(u -> u.intValue() >= 0 && u.intValue() != requestId)
-                .collect(Collectors.toCollection(ArrayList::new)), data);
+        visitIds.removeAll(requestId);
+        clearTimes();
+        this.rebuild(data);
     }
 
     public void removeRequest(int requestId, ProblemData data) {
-        List<Integer> idSequence = new ArrayList<>();
-        if (this.integerRouteRepresetation.size() > 2) {
-            idSequence.addAll(this.integerRouteRepresetation.stream()
-                    .filter(u -> u.intValue() >= 0 && u.intValue() != requestId)
-                    .collect(Collectors.toCollection(ArrayList::new)));
-        }
-        idSequence.remove((Integer) requestId);
-        this.clear();
-        if (idSequence.stream().mapToInt(u -> u.intValue()).sum() == 0) {
+        if (getIntegerRepresentationSize() > 2) {
+            visitIds.removeAll(requestId);
+        } else {
+            visitIds.clear();
+        }
+        clearTimes();
+        clearNodesSequence();
+        clearSequenceOfAttendeRequests();
+        if (visitIds.max() <= 0) {
+            this.clearIntegerRepresentation();
             this.clearAtributes();
         } else {
-            this.rebuild(idSequence, data);
+            this.rebuild(data);
         }
     }
 
     public void removeAddedRequests(List<Integer> idSequence, ProblemData data) {
-        if (integerRouteRepresetation.removeAll(idSequence)) {
-            this.rebuild(integerRouteRepresetation, data);
+        int removed = 0;
+        for (int id : idSequence) {
+            removed += visitIds.removeAll(id);
+        }
+        if (removed > 0) {
+            clearTimes();
+            this.rebuild(data);
         }
     }
 
@@ -915,15 +822,20 @@ public class Route implements Cloneable {
         return this.violatedSomeConstraint == true;
     }
 
+    /**
+     * Returns the requests of the route in the order of their pickups. It does
+     * not use the marks shared by the other methods, so it can be called by
+     * several threads at once.
+     */
     public List<Integer> getUsedIds() {
-        Set<Integer> setOfIds = this.getIntegerRouteRepresetation()
-                .stream()
-                .filter(u -> u.intValue() > 0)
-                .collect(Collectors.toCollection(LinkedHashSet::new));
-
         List<Integer> usedIds = new ArrayList<>();
-        for (int id : setOfIds) {
-            usedIds.add(id);
+        boolean[] visited = new boolean[Math.max(visitIds.max(), 0) + 1];
+        for (int i = 0; i < visitIds.size(); i++) {
+            int id = visitIds.get(i);
+            if (id > 0 && !visited[id]) {
+                visited[id] = true;
+                usedIds.add(id);
+            }
         }
         return usedIds;
     }
@@ -936,23 +848,22 @@ public class Route implements Cloneable {
     public String toString() {
         return "Route - Evaluation Function = " + this.evaluationFunction + " - Total Distance = " + this.totalDistanceTraveled + " km - Travel Time = " + this.routeTravelTime
                 + " min - Total of Anticipation  = " + this.totalTimeWindowAnticipation + " min"
-                + " - Total of Delay  = " + this.totalTimeWindowDelay + " min\t" + this.integerRouteRepresetation
+                + " - Total of Delay  = " + this.totalTimeWindowDelay + " min\t" + this.getIntegerRouteRepresetation()
                 + "Violate some constraint = " + this.violatedSomeConstraint;
     }
 
     public Object clone() {
-        List<Request> sequenceOfAttendedRequestsClone = new ArrayList<>();
-        List<Node> nodesSequenceClone = new ArrayList<>();
-        for (Request request : sequenceOfAttendedRequests) {
-            sequenceOfAttendedRequestsClone.add((Request) request.clone());
-        }
-
-        for (Node node : nodesSequence) {
-            nodesSequenceClone.add((Node) node.clone());
-        }
+        List<Request> sequenceOfAttendedRequestsClone = new ArrayList<>(sequenceOfAttendedRequests);
+        List<Node> nodesSequenceClone = new ArrayList<>(nodesSequence);
 
-        return new Route(totalDistanceTraveled, routeTravelTime, totalTimeWindowAnticipation, totalTimeWindowDelay,
+        Route route = new Route(totalDistanceTraveled, routeTravelTime, totalTimeWindowAnticipation, totalTimeWindowDelay,
                 evaluationFunction, notServedRequests, nodesSequenceClone, sequenceOfAttendedRequestsClone,
-                new ArrayList(integerRouteRepresetation), violatedSomeConstraint);
+                Collections.emptyList(), violatedSomeConstraint);
+        route.vehicleCapacity = this.vehicleCapacity;
+        route.copyVisits(this);
+        route.version = this.version;
+        route.requestsHash = this.requestsHash;
+        route.requestsHashVersion = this.requestsHashVersion;
+        return route;
     }
 }
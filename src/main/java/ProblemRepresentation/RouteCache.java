@@ -0,0 +1,187 @@
+package ProblemRepresentation;
+
+import java.util.*;
+
+/**
+ *
+ * @author renansantos - The RouteCache Class keeps the result of the last
+ * route rebuilds, so a route whose sequence of requests was already scheduled
+ * takes the schedule and the attributes from the cache instead of being
+ * rebuilt. The key is a Zobrist hash of the requests in the route: each
+ * request contributes a random value that depends on its id and position, so
+ * the hash of a route changed by a swap is updated with four xor operations
+ * by updateHash instead of being computed again.
+ * The least recently used entries are removed when the cache is full.
+ */
+public class RouteCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 4096;
+
+    private final int maximumSize;
+    private final LinkedHashMap<Long, Entry> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public RouteCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public RouteCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > RouteCache.this.maximumSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * Returns the value that the request id contributes to the hash when it is
+     * in the position among the requests of the route.
+     */
+    public static long hashOf(int position, int requestId) {
+        long value = ((long) position << 32) ^ requestId;
+        value += 0x9E3779B97F4A7C15L;
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Returns the hash after the request id in the position among the requests
+     * of the route was replaced by the new id. Two calls update the hash of a
+     * swap of two requests.
+     */
+    public static long updateHash(long hash, int position, int oldId, int newId) {
+        return hash ^ hashOf(position, oldId) ^ hashOf(position, newId);
+    }
+
+    /**
+     * Returns the hash of the requests in the id sequence, ignoring the depot,
+     * for a route of a vehicle with the capacity.
+     */
+    public static long hashOf(IntSequence visitIds, int vehicleCapacity) {
+        long hash = hashOf(-1, vehicleCapacity);
+        int position = 0;
+        for (int i = 0; i < visitIds.size(); i++) {
+            int id = visitIds.get(i);
+            if (id != 0) {
+                hash ^= hashOf(position++, id);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the entry of the same requests and capacity, or null. The
+     * requests are compared one by one, so two sequences with the same hash
+     * are never mistaken for each other.
+     */
+    synchronized Entry get(long hash, IntSequence visitIds, int vehicleCapacity) {
+        Entry entry = entries.get(hash);
+        if (entry != null && entry.vehicleCapacity == vehicleCapacity && entry.hasSameRequests(visitIds)) {
+            hits++;
+            return entry;
+        }
+        misses++;
+        return null;
+    }
+
+    synchronized void put(long hash, Entry entry) {
+        entries.put(hash, entry);
+    }
+
+    /**
+     * The schedule and the attributes of a rebuilt route. The entry owns its
+     * sequences, which are copied into the route that uses them.
+     */
+    static class Entry {
+
+        final int vehicleCapacity;
+        final IntSequence visitIds;
+        final IntSequence visitTimes;
+        final List<Node> nodesSequence;
+        final List<Request> sequenceOfAttendedRequests;
+        final long totalDistanceTraveled;
+        final long routeTravelTime;
+        final long totalTimeWindowAnticipation;
+        final long totalTimeWindowDelay;
+        final long evaluationFunction;
+        final boolean violatedSomeConstraint;
+
+        Entry(int vehicleCapacity, IntSequence visitIds, IntSequence visitTimes, List<Node> nodesSequence,
+                List<Request> sequenceOfAttendedRequests, long totalDistanceTraveled, long routeTravelTime,
+                long totalTimeWindowAnticipation, long totalTimeWindowDelay, long evaluationFunction,
+                boolean violatedSomeConstraint) {
+            this.vehicleCapacity = vehicleCapacity;
+            this.visitIds = new IntSequence(visitIds);
+            this.visitTimes = new IntSequence(visitTimes);
+            this.nodesSequence = new ArrayList<>(nodesSequence);
+            this.sequenceOfAttendedRequests = new ArrayList<>(sequenceOfAttendedRequests);
+            this.totalDistanceTraveled = totalDistanceTraveled;
+            this.routeTravelTime = routeTravelTime;
+            this.totalTimeWindowAnticipation = totalTimeWindowAnticipation;
+            this.totalTimeWindowDelay = totalTimeWindowDelay;
+            this.evaluationFunction = evaluationFunction;
+            this.violatedSomeConstraint = violatedSomeConstraint;
+        }
+
+        private boolean hasSameRequests(IntSequence otherIds) {
+            int position = 0;
+            for (int i = 0; i < otherIds.size(); i++) {
+                int id = otherIds.get(i);
+                if (id != 0) {
+                    while (position < visitIds.size() && visitIds.get(position) == 0) {
+                        position++;
+                    }
+                    if (position == visitIds.size() || visitIds.get(position) != id) {
+                        return false;
+                    }
+                    position++;
+                }
+            }
+            while (position < visitIds.size() && visitIds.get(position) == 0) {
+                position++;
+            }
+            return position == visitIds.size();
+        }
+    }
+}
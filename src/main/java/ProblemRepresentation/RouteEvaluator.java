@@ -0,0 +1,462 @@
+package ProblemRepresentation;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author renansantos - The RouteEvaluator Class evaluates candidate id
+ * sequences of a route in its own buffers, giving the same attributes the
+ * route would have after a rebuild without changing the route. It is used to
+ * price neighborhood moves, so only the accepted move rebuilds the route.
+ */
+public class RouteEvaluator {
+
+    private final ProblemData data;
+    private final RouteScheduler scheduler = new RouteScheduler();
+    private int[] ids = new int[16];
+    private int[] times = new int[16];
+    private int[] insertionLoads = new int[0];
+    private boolean[] visited = new boolean[16];
+    private int size;
+    private int vehicleCapacity;
+    private int insertionRouteSize;
+    private boolean insertionRouteViolated;
+
+    private long totalDistanceTraveled;
+    private long routeTravelTime;
+    private long totalTimeWindowAnticipation;
+    private long totalTimeWindowDelay;
+    private long evaluationFunction;
+    private boolean violatedSomeConstraint;
+    private boolean empty;
+    private CostBound costBound;
+    private boolean rejectedEarly;
+
+    public RouteEvaluator(ProblemData data) {
+        this.data = data;
+    }
+
+    public ProblemData getData() {
+        return data;
+    }
+
+    public long getTotalRouteDistance() {
+        return totalDistanceTraveled;
+    }
+
+    public long getRouteTravelTime() {
+        return routeTravelTime;
+    }
+
+    public long getTotalTimeWindowAnticipation() {
+        return totalTimeWindowAnticipation;
+    }
+
+    public long getTotalTimeWindowDelay() {
+        return totalTimeWindowDelay;
+    }
+
+    public long getEvaluationFunction() {
+        return evaluationFunction;
+    }
+
+    public boolean isPenalized() {
+        return violatedSomeConstraint;
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Sets the bound used by the next evaluations, or null to evaluate the
+     * whole route. A candidate that the bound excludes is not evaluated to
+     * the end: its evaluation function is Long.MAX_VALUE, the other attributes
+     * are not valid and isRejectedEarly is true.
+     */
+    public void setCostBound(CostBound costBound) {
+        this.costBound = costBound;
+    }
+
+    public boolean isRejectedEarly() {
+        return rejectedEarly;
+    }
+
+    /**
+     * Evaluates the route as it would be after swapRequests(firstPosition,
+     * secondPosition). When the swap would not change the route, the current
+     * attributes of the route are returned.
+     */
+    public long evaluateSwap(Route route, int firstPosition, int secondPosition) {
+        IntSequence visitIds = route.getVisitIds();
+        int firstId = visitIds.get(firstPosition);
+        int secondId = visitIds.get(secondPosition);
+        if (firstId == 0 || secondId == 0 || firstId == secondId) {
+            return copyAttributes(route);
+        }
+
+        loadIds(visitIds);
+        this.vehicleCapacity = route.getVehicleCapacity(data);
+        ids[firstPosition] = secondId;
+        ids[secondPosition] = firstId;
+        return evaluate();
+    }
+
+    /**
+     * Evaluates the route as it would be after reverseRequests(firstPosition,
+     * endPosition). Reversing a segment never puts a delivery before its
+     * pickup: an id with both visits inside the segment keeps one visit in
+     * each place and an id with one visit inside stays on the same side of
+     * the other one, so every reversal can be priced.
+     */
+    public long evaluateReversal(Route route, int firstPosition, int endPosition) {
+        loadIds(route.getVisitIds());
+        this.vehicleCapacity = route.getVehicleCapacity(data);
+        for (int i = firstPosition, j = endPosition - 1; i < j; i++, j--) {
+            int id = ids[i];
+            ids[i] = ids[j];
+            ids[j] = id;
+        }
+        return evaluate();
+    }
+
+    /**
+     * Evaluates the route as it would be after replaceRequest(oldId, newId).
+     */
+    public long evaluateReplacement(Route route, int oldId, int newId) {
+        loadIds(route.getVisitIds());
+        this.vehicleCapacity = route.getVehicleCapacity(data);
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == oldId) {
+                ids[i] = newId;
+            }
+        }
+        return evaluate();
+    }
+
+    /**
+     * Evaluates the route as it would be after addMinutesInRoute(minutes):
+     * the nodes are the same, so only the anticipations and delays of the
+     * deliveries are summed again at the moved times.
+     */
+    public long evaluateTimeShift(Route route, int minutes) {
+        if (route.getIntegerRepresentationSize() <= 2) {
+            this.totalDistanceTraveled = 0;
+            this.routeTravelTime = 0;
+            this.totalTimeWindowAnticipation = 0;
+            this.totalTimeWindowDelay = 0;
+            this.evaluationFunction = 0;
+            this.violatedSomeConstraint = route.isPenalized();
+            this.empty = route.isIntegerRepresentationEmpty();
+            this.rejectedEarly = false;
+            return this.evaluationFunction;
+        }
+        IntSequence visitIds = route.getVisitIds();
+        IntSequence visitTimes = route.getVisitTimes();
+        boolean[] crossed = clearVisited(Math.max(visitIds.max(), 0));
+        scheduler.clear();
+        for (int i = 0; i < visitIds.size(); i++) {
+            int id = visitIds.get(i);
+            if (id > 0 && visitTimes.get(i) != Route.NO_TIME) {
+                if (crossed[id]) {
+                    Request request = data.getRequest(id);
+                    scheduler.addDelivery(visitTimes.get(i), request.getDeliveryTimeWindowLowerInMinutes(),
+                            request.getDeliveryTimeWindowUpperInMinutes());
+                }
+                crossed[id] = true;
+            }
+        }
+        scheduler.evaluateShift(minutes);
+        this.totalDistanceTraveled = route.getTotalRouteDistance();
+        this.routeTravelTime = route.getRouteTravelTime();
+        this.violatedSomeConstraint = route.isPenalized();
+        this.empty = false;
+        this.rejectedEarly = false;
+        return evaluateSchedule();
+    }
+
+    /**
+     * Evaluates the route as it would be after removeRequest(requestId). A
+     * route left without requests is empty and has every attribute zero.
+     */
+    public long evaluateRemoval(Route route, int requestId) {
+        IntSequence visitIds = route.getVisitIds();
+        this.vehicleCapacity = route.getVehicleCapacity(data);
+        if (route.getIntegerRepresentationSize() > 2) {
+            ensureCapacity(visitIds.size() + 2);
+            size = 0;
+            for (int i = 0; i < visitIds.size(); i++) {
+                if (visitIds.get(i) != requestId) {
+                    ids[size++] = visitIds.get(i);
+                }
+            }
+        } else {
+            size = 0;
+        }
+
+        boolean hasRequests = false;
+        for (int i = 0; i < size; i++) {
+            hasRequests = hasRequests || ids[i] > 0;
+        }
+        if (!hasRequests) {
+            this.totalDistanceTraveled = 0;
+            this.routeTravelTime = 0;
+            this.totalTimeWindowAnticipation = 0;
+            this.totalTimeWindowDelay = 0;
+            this.evaluationFunction = 0;
+            this.violatedSomeConstraint = false;
+            this.empty = true;
+            this.rejectedEarly = false;
+            return this.evaluationFunction;
+        }
+        return evaluate();
+    }
+
+    /**
+     * Keeps the load profile of the route that will receive insertions, so
+     * getLastFeasibleDeliveryPosition can answer without building the
+     * candidate. It must be called again when the route changes.
+     */
+    public void prepareInsertions(Route route) {
+        this.vehicleCapacity = route.getVehicleCapacity(data);
+        this.insertionLoads = route.getLoadProfile();
+        this.insertionRouteViolated = route.getMaximumLoad() > vehicleCapacity;
+        this.insertionRouteSize = route.getIdSequenceSize();
+    }
+
+    /**
+     * Returns the last delivery position that keeps the vehicle capacity when
+     * the pickup is inserted in the position, as in Route.insertRequest. The
+     * new request is on board from the load before the pickup until the visit
+     * before the delivery, so the positions are scanned only until the first
+     * full one. When the route already violates the capacity no position is
+     * discarded, since every candidate is penalized in the same way.
+     */
+    public int getLastFeasibleDeliveryPosition(int pickupPosition) {
+        if (insertionRouteViolated) {
+            return insertionRouteSize;
+        }
+        int position = pickupPosition - 1;
+        while (position < insertionRouteSize - 1 && insertionLoads[position] < vehicleCapacity) {
+            position++;
+        }
+        return position + 1;
+    }
+
+    /**
+     * Evaluates the route as it would be after insertRequest(requestId,
+     * pickupPosition, deliveryPosition), without building the new sequence.
+     */
+    public long evaluateInsertion(Route route, int requestId, int pickupPosition, int deliveryPosition) {
+        IntSequence visitIds = route.getVisitIds();
+        this.vehicleCapacity = route.getVehicleCapacity(data);
+        ensureCapacity(visitIds.size() + 4);
+        size = 0;
+        for (int i = 0; i < visitIds.size(); i++) {
+            if (size == pickupPosition) {
+                ids[size++] = requestId;
+            }
+            if (size == deliveryPosition) {
+                ids[size++] = requestId;
+            }
+            ids[size++] = visitIds.get(i);
+        }
+        if (size == pickupPosition) {
+            ids[size++] = requestId;
+        }
+        if (size == deliveryPosition) {
+            ids[size++] = requestId;
+        }
+        return evaluate();
+    }
+
+    private long copyAttributes(Route route) {
+        this.totalDistanceTraveled = route.getTotalRouteDistance();
+        this.routeTravelTime = route.getRouteTravelTime();
+        this.totalTimeWindowAnticipation = route.getTotalTimeWindowAnticipation();
+        this.totalTimeWindowDelay = route.getTotalTimeWindowDelay();
+        this.evaluationFunction = route.getEvaluationFunction();
+        this.violatedSomeConstraint = route.isPenalized();
+        this.empty = route.isIntegerRepresentationEmpty();
+        this.rejectedEarly = false;
+        return this.evaluationFunction;
+    }
+
+    private void loadIds(IntSequence visitIds) {
+        ensureCapacity(visitIds.size() + 2);
+        for (int i = 0; i < visitIds.size(); i++) {
+            ids[i] = visitIds.get(i);
+        }
+        size = visitIds.size();
+    }
+
+    /**
+     * Runs over the ids in the buffer the same steps of Route.rebuild: the
+     * visits are scheduled from the first delivery, the capacity is checked,
+     * the nodes are visited to sum distance and travel time and the schedule
+     * is moved by the best shift found by the scheduler, as in improveSchedule.
+     * With a cost bound, the candidate is rejected while the nodes are visited.
+     */
+    private long evaluate() {
+        scheduleVisits();
+        this.violatedSomeConstraint = isCapacityViolated();
+        this.empty = false;
+        this.rejectedEarly = !sumDistanceAndTravelTime();
+        if (rejectedEarly) {
+            this.evaluationFunction = Long.MAX_VALUE;
+            return this.evaluationFunction;
+        }
+
+        loadDeliveries();
+        if (violatedSomeConstraint) {
+            scheduler.evaluateShift(0);
+        } else {
+            scheduler.findBestShift(routeTravelTime);
+        }
+        return evaluateSchedule();
+    }
+
+    private void scheduleVisits() {
+        int numberOfVisits = 0;
+        for (int i = 0; i < size; i++) {
+            if (ids[i] != 0) {
+                ids[numberOfVisits++] = ids[i];
+            }
+        }
+        System.arraycopy(ids, 0, ids, 1, numberOfVisits);
+        ids[0] = 0;
+        ids[numberOfVisits + 1] = 0;
+        size = numberOfVisits + 2;
+        RouteScheduler.scheduleVisits(ids, times, numberOfVisits, clearVisited(), data);
+    }
+
+    private boolean isCapacityViolated() {
+        boolean[] crossed = clearVisited();
+        int busySeats = 0;
+        boolean violated = false;
+        for (int i = 0; i < size; i++) {
+            int id = ids[i];
+            if (id == 0) {
+                continue;
+            }
+            if (crossed[id]) {
+                busySeats--;
+            } else {
+                crossed[id] = true;
+                busySeats++;
+                if (busySeats > vehicleCapacity) {
+                    violated = true;
+                }
+            }
+        }
+        return violated;
+    }
+
+    /**
+     * Sums the distance and travel time of the visits. Returns false, leaving
+     * the sums unfinished, as soon as the cost bound excludes the candidate:
+     * the visits are scheduled with the first delivery at the lower limit of
+     * its window and can only be moved later, so the delay of a delivery
+     * already visited is at least the one of its scheduled time.
+     */
+    private boolean sumDistanceAndTravelTime() {
+        boolean[] crossed = clearVisited();
+        TravelTimeMatrix travelTimes = data.getTravelTimes();
+        long[][] distance = data.getDistance();
+        int depot = data.getNodes().get(0).getId();
+        long totalSeconds = 0;
+        long totalDistance = 0;
+        long forcedDelay = 0;
+        int lastNode = -1;
+        for (int i = 0; i < size; i++) {
+            int id = ids[i];
+            int node;
+            if (id == 0) {
+                node = depot;
+            } else {
+                Request request = data.getRequest(id);
+                if (crossed[id]) {
+                    node = request.getDestination().getId();
+                    forcedDelay += Math.max(0, times[i] - request.getDeliveryTimeWindowUpperInMinutes());
+                } else {
+                    node = request.getOrigin().getId();
+                }
+                crossed[id] = true;
+                if (node == lastNode) {
+                    continue;
+                }
+            }
+            if (lastNode >= 0) {
+                totalSeconds += travelTimes.getSeconds(lastNode, node);
+                totalDistance += distance[lastNode][node];
+                if (costBound != null && costBound.excludes(totalDistance / 1000, totalSeconds / 60, forcedDelay,
+                        violatedSomeConstraint)) {
+                    return false;
+                }
+            }
+            lastNode = node;
+        }
+        this.routeTravelTime = totalSeconds / 60;
+        this.totalDistanceTraveled = totalDistance / 1000;
+        return true;
+    }
+
+    private void loadDeliveries() {
+        boolean[] crossed = clearVisited();
+        scheduler.clear();
+        for (int i = 0; i < size; i++) {
+            int id = ids[i];
+            if (id > 0) {
+                if (crossed[id]) {
+                    Request request = data.getRequest(id);
+                    scheduler.addDelivery(times[i], request.getDeliveryTimeWindowLowerInMinutes(),
+                            request.getDeliveryTimeWindowUpperInMinutes());
+                }
+                crossed[id] = true;
+            }
+        }
+    }
+
+    private long evaluateSchedule() {
+        long anticipation = scheduler.getTotalTimeWindowAnticipation();
+        long delay = scheduler.getTotalTimeWindowDelay();
+        this.totalTimeWindowAnticipation = anticipation;
+        this.totalTimeWindowDelay = delay;
+        if (delay > 0) {
+            this.evaluationFunction = totalDistanceTraveled + routeTravelTime * delay + anticipation;
+        } else {
+            this.evaluationFunction = totalDistanceTraveled + routeTravelTime + anticipation;
+        }
+        if (violatedSomeConstraint) {
+            this.evaluationFunction = totalDistanceTraveled * routeTravelTime * routeTravelTime;
+        }
+        return this.evaluationFunction;
+    }
+
+    private boolean[] clearVisited() {
+        int maxId = 0;
+        for (int i = 0; i < size; i++) {
+            if (ids[i] > maxId) {
+                maxId = ids[i];
+            }
+        }
+        return clearVisited(maxId);
+    }
+
+    private boolean[] clearVisited(int maxId) {
+        if (visited.length <= maxId) {
+            visited = new boolean[maxId + 1];
+        } else {
+            Arrays.fill(visited, 0, maxId + 1, false);
+        }
+        return visited;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (ids.length < capacity) {
+            int newLength = Math.max(capacity, 2 * ids.length);
+            ids = Arrays.copyOf(ids, newLength);
+            times = Arrays.copyOf(times, newLength);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package ProblemRepresentation;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author renansantos - The RouteScheduler Class finds the best time to add to
+ * every visit of a scheduled route. The anticipation of a delivery decreases
+ * and its delay increases linearly with the shift, so the evaluation of the
+ * route is a piecewise-linear function of the shift that is minimized by one
+ * sweep over the sorted breakpoints, without evaluating the route again for
+ * each shift.
+ */
+public class RouteScheduler {
+
+    private int[] anticipationBreakpoints = new int[16];
+    private int[] delayBreakpoints = new int[16];
+    private int[] candidates = new int[49];
+    private int numberOfDeliveries;
+
+    private long totalTimeWindowAnticipation;
+    private long totalTimeWindowDelay;
+
+    public long getTotalTimeWindowAnticipation() {
+        return totalTimeWindowAnticipation;
+    }
+
+    public long getTotalTimeWindowDelay() {
+        return totalTimeWindowDelay;
+    }
+
+    public void clear() {
+        this.numberOfDeliveries = 0;
+    }
+
+    /**
+     * Adds a delivery scheduled at the time, in minutes, with the lower and
+     * upper limits of its time window.
+     */
+    public void addDelivery(int time, int timeWindowLower, int timeWindowUpper) {
+        if (numberOfDeliveries == anticipationBreakpoints.length) {
+            int newLength = 2 * numberOfDeliveries;
+            anticipationBreakpoints = Arrays.copyOf(anticipationBreakpoints, newLength);
+            delayBreakpoints = Arrays.copyOf(delayBreakpoints, newLength);
+            candidates = Arrays.copyOf(candidates, 3 * newLength + 1);
+        }
+        anticipationBreakpoints[numberOfDeliveries] = timeWindowLower - time;
+        delayBreakpoints[numberOfDeliveries] = timeWindowUpper - time;
+        numberOfDeliveries++;
+    }
+
+    /**
+     * Sums the anticipations and delays of the deliveries moved by the shift.
+     */
+    public void evaluateShift(int shift) {
+        long anticipation = 0;
+        long delay = 0;
+        for (int i = 0; i < numberOfDeliveries; i++) {
+            if (anticipationBreakpoints[i] > shift) {
+                anticipation += anticipationBreakpoints[i] - shift;
+            }
+            if (delayBreakpoints[i] < shift) {
+                delay += shift - delayBreakpoints[i];
+            }
+        }
+        this.totalTimeWindowAnticipation = anticipation;
+        this.totalTimeWindowDelay = delay;
+    }
+
+    /**
+     * Returns the smallest non negative shift that minimizes the evaluation of
+     * the route, leaving the anticipation and delay of that shift in the
+     * totals. Outside the delayed region the travel time is added once, as in
+     * Route.calculateEvaluationFunction, so the function is convex over the
+     * integers: its minimum is at a breakpoint or one minute after the last
+     * shift without delay, and the sweep stops as soon as it grows.
+     */
+    public int findBestShift(long routeTravelTime) {
+        int[] anticipations = anticipationBreakpoints;
+        int[] delays = delayBreakpoints;
+        Arrays.sort(anticipations, 0, numberOfDeliveries);
+        Arrays.sort(delays, 0, numberOfDeliveries);
+
+        int numberOfCandidates = 0;
+        candidates[numberOfCandidates++] = 0;
+        for (int i = 0; i < numberOfDeliveries; i++) {
+            if (anticipations[i] > 0) {
+                candidates[numberOfCandidates++] = anticipations[i];
+            }
+            if (delays[i] >= 0) {
+                candidates[numberOfCandidates++] = delays[i];
+                candidates[numberOfCandidates++] = delays[i] + 1;
+            }
+        }
+        numberOfCandidates = sortDistinct(candidates, numberOfCandidates);
+
+        long anticipationsAbove = 0;
+        for (int i = 0; i < numberOfDeliveries; i++) {
+            anticipationsAbove += anticipations[i];
+        }
+        long delaysBelow = 0;
+        int firstAnticipationAbove = 0;
+        int firstDelayNotBelow = 0;
+
+        int bestShift = 0;
+        long bestEvaluation = Long.MAX_VALUE;
+        long lastEvaluation = Long.MAX_VALUE;
+        for (int i = 0; i < numberOfCandidates; i++) {
+            int shift = candidates[i];
+            while (firstAnticipationAbove < numberOfDeliveries && anticipations[firstAnticipationAbove] <= shift) {
+                anticipationsAbove -= anticipations[firstAnticipationAbove++];
+            }
+            while (firstDelayNotBelow < numberOfDeliveries && delays[firstDelayNotBelow] < shift) {
+                delaysBelow += delays[firstDelayNotBelow++];
+            }
+            long anticipation = anticipationsAbove - (long) shift * (numberOfDeliveries - firstAnticipationAbove);
+            long delay = (long) shift * firstDelayNotBelow - delaysBelow;
+            long evaluation = anticipation + (delay > 0 ? routeTravelTime * delay : routeTravelTime);
+
+            if (evaluation > lastEvaluation) {
+                break;
+            }
+            if (bestEvaluation > evaluation) {
+                bestEvaluation = evaluation;
+                bestShift = shift;
+                this.totalTimeWindowAnticipation = anticipation;
+                this.totalTimeWindowDelay = delay;
+            }
+            lastEvaluation = evaluation;
+        }
+        return bestShift;
+    }
+
+    /**
+     * Schedules the visits of a route whose ids, with the depot at both ends,
+     * are in the first numberOfVisits + 2 positions of the array, writing
+     * their times in the same positions of the times array. The first
+     * delivery is put at the lower limit of its time window, the visits after
+     * it are scheduled forward and the pickups before it backward. The
+     * visited array must be cleared up to the largest id. It is shared by
+     * Route and RouteEvaluator, so a priced move and the rebuilt route are
+     * always scheduled in the same way.
+     */
+    static void scheduleVisits(int[] ids, int[] times, int numberOfVisits, boolean[] visited, ProblemData data) {
+        int firstDeliveryPosition = 1;
+        for (int i = 1; i <= numberOfVisits; i++) {
+            if (visited[ids[i]]) {
+                firstDeliveryPosition = i;
+                break;
+            }
+            visited[ids[i]] = true;
+        }
+
+        TravelTimeMatrix travelTimes = data.getTravelTimes();
+        Request firstDelivery = data.getRequest(ids[firstDeliveryPosition]);
+        int currentTimeForDelivery = firstDelivery.getDeliveryTimeWindowLowerInMinutes();
+        times[firstDeliveryPosition] = currentTimeForDelivery;
+
+        for (int i = firstDeliveryPosition; i < numberOfVisits; i++) {
+            int originPassengerId = ids[i];
+            int destinationPassengerId = ids[i + 1];
+            Request originRequest = data.getRequest(originPassengerId);
+            Request destinationRequest = data.getRequest(destinationPassengerId);
+
+            if (originPassengerId == destinationPassengerId) {
+                currentTimeForDelivery += travelTimes.getMinutes(originRequest.getOrigin(), destinationRequest.getDestination());
+            } else {
+                Node originNode = visited[originPassengerId] ? originRequest.getDestination() : originRequest.getOrigin();
+                Node destinationNode = visited[destinationPassengerId] ? destinationRequest.getDestination()
+                        : destinationRequest.getOrigin();
+                currentTimeForDelivery += travelTimes.getMinutes(originNode, destinationNode);
+                visited[originPassengerId] = true;
+                visited[destinationPassengerId] = true;
+            }
+            times[i + 1] = currentTimeForDelivery;
+        }
+
+        Request lastRequest = data.getRequest(ids[numberOfVisits]);
+        times[numberOfVisits + 1] = currentTimeForDelivery
+                + travelTimes.getMinutes(lastRequest.getDestination().getId(), data.getNodes().get(0).getId());
+
+        Request lastPickup = data.getRequest(ids[firstDeliveryPosition - 1]);
+        int currentTimeForPickup = times[firstDeliveryPosition]
+                - travelTimes.getMinutes(lastPickup.getOrigin(), firstDelivery.getDestination());
+        times[firstDeliveryPosition - 1] = currentTimeForPickup;
+
+        for (int i = firstDeliveryPosition - 2; i >= 0; i--) {
+            int originNode = ids[i] == 0 ? 0 : data.getRequest(ids[i]).getOrigin().getId();
+            int destinationNode = data.getRequest(ids[i + 1]).getOrigin().getId();
+            currentTimeForPickup -= travelTimes.getMinutes(originNode, destinationNode);
+            times[i] = currentTimeForPickup;
+        }
+    }
+
+    /**
+     * Sorts the first values of the array and removes the repeated ones,
+     * returning how many values were kept.
+     */
+    static int sortDistinct(int[] values, int size) {
+        Arrays.sort(values, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || values[distinct - 1] != values[i]) {
+                values[distinct++] = values[i];
+            }
+        }
+        return distinct;
+    }
+}
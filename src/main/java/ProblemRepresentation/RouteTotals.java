@@ -0,0 +1,195 @@
+package ProblemRepresentation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ *
+ * @author renansantos - The RouteTotals Class keeps, for each position of a
+ * solution, the route and the attributes it had when they were last summed,
+ * together with the running sums. A route is summed again only when the route
+ * in its position or its version changed.
+ */
+class RouteTotals {
+
+    private Route[] routes;
+    private long[] versions;
+    private long[] distances;
+    private long[] travelTimes;
+    private long[] anticipations;
+    private long[] delays;
+    private boolean[] penalized;
+    private boolean[] used;
+    private int numberOfRoutes;
+
+    private long totalDistanceTraveled;
+    private long totalTravelTime;
+    private long totalTimeWindowAnticipation;
+    private long totalTimeWindowDelay;
+    private long numberOfVehicles;
+    private int numberOfPenalizedRoutes;
+
+    RouteTotals() {
+        allocate(16);
+    }
+
+    RouteTotals(RouteTotals totals) {
+        this.routes = totals.routes.clone();
+        this.versions = totals.versions.clone();
+        this.distances = totals.distances.clone();
+        this.travelTimes = totals.travelTimes.clone();
+        this.anticipations = totals.anticipations.clone();
+        this.delays = totals.delays.clone();
+        this.penalized = totals.penalized.clone();
+        this.used = totals.used.clone();
+        this.numberOfRoutes = totals.numberOfRoutes;
+        this.totalDistanceTraveled = totals.totalDistanceTraveled;
+        this.totalTravelTime = totals.totalTravelTime;
+        this.totalTimeWindowAnticipation = totals.totalTimeWindowAnticipation;
+        this.totalTimeWindowDelay = totals.totalTimeWindowDelay;
+        this.numberOfVehicles = totals.numberOfVehicles;
+        this.numberOfPenalizedRoutes = totals.numberOfPenalizedRoutes;
+    }
+
+    long getTotalDistanceTraveled() {
+        return totalDistanceTraveled;
+    }
+
+    long getTotalTravelTime() {
+        return totalTravelTime;
+    }
+
+    long getTotalTimeWindowAnticipation() {
+        return totalTimeWindowAnticipation;
+    }
+
+    long getTotalTimeWindowDelay() {
+        return totalTimeWindowDelay;
+    }
+
+    long getNumberOfVehicles() {
+        return numberOfVehicles;
+    }
+
+    int getNumberOfPenalizedRoutes() {
+        return numberOfPenalizedRoutes;
+    }
+
+    /**
+     * Sums again only the routes that are new in their position or whose
+     * version changed. Their capacity is analysed again, as the solution used
+     * to do for every route.
+     */
+    void update(List<Route> solutionRoutes, ProblemData data) {
+        int newNumberOfRoutes = solutionRoutes.size();
+        if (routes.length < newNumberOfRoutes) {
+            grow(newNumberOfRoutes);
+        }
+        for (int position = newNumberOfRoutes; position < numberOfRoutes; position++) {
+            subtract(position);
+        }
+        for (int position = 0; position < newNumberOfRoutes; position++) {
+            Route route = solutionRoutes.get(position);
+            if (position >= numberOfRoutes || routes[position] != route || versions[position] != route.getVersion()) {
+                if (position < numberOfRoutes) {
+                    subtract(position);
+                }
+                route.capacityAnalysis(data);
+                add(position, route);
+            }
+        }
+        numberOfRoutes = newNumberOfRoutes;
+    }
+
+    /**
+     * Tells if the sums still describe the routes, that is, if no route was
+     * replaced or changed since the last update.
+     */
+    boolean isUpToDate(List<Route> solutionRoutes) {
+        if (solutionRoutes.size() != numberOfRoutes) {
+            return false;
+        }
+        for (int position = 0; position < numberOfRoutes; position++) {
+            Route route = solutionRoutes.get(position);
+            if (routes[position] != route || versions[position] != route.getVersion()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long getDistance(int position) {
+        return distances[position];
+    }
+
+    long getTravelTime(int position) {
+        return travelTimes[position];
+    }
+
+    long getAnticipation(int position) {
+        return anticipations[position];
+    }
+
+    long getDelay(int position) {
+        return delays[position];
+    }
+
+    boolean isPenalized(int position) {
+        return penalized[position];
+    }
+
+    boolean isUsed(int position) {
+        return used[position];
+    }
+
+    private void add(int position, Route route) {
+        routes[position] = route;
+        versions[position] = route.getVersion();
+        distances[position] = route.getTotalRouteDistance();
+        travelTimes[position] = route.getRouteTravelTime();
+        anticipations[position] = route.getTotalTimeWindowAnticipation();
+        delays[position] = route.getTotalTimeWindowDelay();
+        penalized[position] = route.isPenalized();
+        used[position] = !route.isIntegerRepresentationEmpty();
+
+        totalDistanceTraveled += distances[position];
+        totalTravelTime += travelTimes[position];
+        totalTimeWindowAnticipation += anticipations[position];
+        totalTimeWindowDelay += delays[position];
+        numberOfVehicles += used[position] ? 1 : 0;
+        numberOfPenalizedRoutes += penalized[position] ? 1 : 0;
+    }
+
+    private void subtract(int position) {
+        totalDistanceTraveled -= distances[position];
+        totalTravelTime -= travelTimes[position];
+        totalTimeWindowAnticipation -= anticipations[position];
+        totalTimeWindowDelay -= delays[position];
+        numberOfVehicles -= used[position] ? 1 : 0;
+        numberOfPenalizedRoutes -= penalized[position] ? 1 : 0;
+        routes[position] = null;
+    }
+
+    private void allocate(int capacity) {
+        this.routes = new Route[capacity];
+        this.versions = new long[capacity];
+        this.distances = new long[capacity];
+        this.travelTimes = new long[capacity];
+        this.anticipations = new long[capacity];
+        this.delays = new long[capacity];
+        this.penalized = new boolean[capacity];
+        this.used = new boolean[capacity];
+    }
+
+    private void grow(int capacity) {
+        int newCapacity = Math.max(capacity, 2 * routes.length);
+        this.routes = Arrays.copyOf(routes, newCapacity);
+        this.versions = Arrays.copyOf(versions, newCapacity);
+        this.distances = Arrays.copyOf(distances, newCapacity);
+        this.travelTimes = Arrays.copyOf(travelTimes, newCapacity);
+        this.anticipations = Arrays.copyOf(anticipations, newCapacity);
+        this.delays = Arrays.copyOf(delays, newCapacity);
+        this.penalized = Arrays.copyOf(penalized, newCapacity);
+        this.used = Arrays.copyOf(used, newCapacity);
+    }
+}
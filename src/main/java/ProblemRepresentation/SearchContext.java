@@ -0,0 +1,180 @@
+package ProblemRepresentation;
+
+import java.time.*;
+import java.util.*;
+
+/**
+ *
+ * @author renansantos - The SearchContext Class keeps the state that a solver
+ * changes while it runs on an instance: its own copies of the requests, the
+ * current time, node and vehicle of the construction, the vehicles and the
+ * cache of rebuilt routes. Each solver has its own context, so many solvers
+ * can run on the same InstanceData at the same time.
+ */
+public class SearchContext {
+
+    private List<Request> requests;
+    private List<Request> instanceRequests = new ArrayList<>();
+    private Request[] requestsById = new Request[0];
+    private LocalDateTime currentTime = LocalDateTime.of(2017, 1, 1, 0, 0, 0);
+    private Node currentNode = new Node();
+    private Request lastPassengerAddedToRoute;
+    private List<Vehicle> avaibleVehicles;
+    private List<Vehicle> allocatedVehicles;
+    private Vehicle currentVehicle = new Vehicle();
+    private RouteCache routeCache;
+    private int[] loadIndexes = new int[0];
+
+    public SearchContext(InstanceData instanceData) {
+        this.requests = new ArrayList<>();
+        for (Request request : instanceData.getRequests()) {
+            this.requests.add((Request) request.clone());
+        }
+        this.indexRequestsById();
+        this.instanceRequests.addAll(this.requests);
+        if (!instanceData.getNodes().isEmpty()) {
+            this.currentNode.setNode(instanceData.getNodes().get(0));
+        }
+        this.startVehiclesData(instanceData.getNumberOfVehicles(), instanceData.getVehicleCapacity());
+    }
+
+    public List<Request> getRequests() {
+        return requests;
+    }
+
+    public void setRequests(List<Request> requests) {
+        this.requests = requests;
+        this.indexRequestsById();
+        this.clearRouteCache();
+    }
+
+    public Request getRequest(int id) {
+        if (id > 0 && id < requestsById.length) {
+            return requestsById[id];
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * The table is indexed by the request id, not by the position in the
+     * requests list, so it is still valid after the list is sorted by the
+     * ranking function during the construction of the solutions.
+     */
+    private void indexRequestsById() {
+        int maxId = requests.stream().mapToInt(Request::getId).max().orElse(0);
+        requestsById = new Request[maxId + 1];
+        for (Request request : requests) {
+            requestsById[request.getId()] = request;
+        }
+    }
+
+    public List<Request> getInstanceRequests() {
+        return instanceRequests;
+    }
+
+    public void setInstanceRequests(List<Request> instanceRequests) {
+        this.instanceRequests = instanceRequests;
+    }
+
+    public LocalDateTime getCurrentTime() {
+        return currentTime;
+    }
+
+    public void setCurrentTime(LocalDateTime currentTime) {
+        this.currentTime = currentTime;
+    }
+
+    public Node getCurrentNode() {
+        return currentNode;
+    }
+
+    public void setCurrentNode(Node currentNode) {
+        this.currentNode = currentNode;
+    }
+
+    public void setCurrentVehicle(Vehicle currentVehicle) {
+        this.currentVehicle.setVehicle(currentVehicle);
+    }
+
+    public Vehicle getCurrentVehicle() {
+        return currentVehicle;
+    }
+
+    public Request getLastPassengerAddedToRoute() {
+        return lastPassengerAddedToRoute;
+    }
+
+    public void setLastPassengerAddedToRoute(Request lastPassengerAddedToRoute) {
+        this.lastPassengerAddedToRoute = lastPassengerAddedToRoute;
+    }
+
+    /**
+     * Returns the number of requests that board in the node minus the number
+     * of requests that leave in it, as set by setLoadIndexes.
+     */
+    public int getLoadIndex(Node node) {
+        int id = node.getId();
+        return id < loadIndexes.length ? loadIndexes[id] : 0;
+    }
+
+    /**
+     * Sets the load index of the nodes where some request boards and some
+     * request leaves. The other nodes keep the index they had. The indexes are
+     * kept by the context and not by the nodes, which are shared by every
+     * solver of the instance.
+     */
+    public void setLoadIndexes(List<Node> nodes, Map<Node, List<Request>> requestsThatBoardsInNode,
+            Map<Node, List<Request>> requestsThatLeavesInNode) {
+        int maxId = nodes.stream().mapToInt(Node::getId).max().orElse(-1);
+        if (loadIndexes.length <= maxId) {
+            loadIndexes = Arrays.copyOf(loadIndexes, maxId + 1);
+        }
+        for (Node node : nodes) {
+            List<Request> boards = requestsThatBoardsInNode.get(node);
+            List<Request> leaves = requestsThatLeavesInNode.get(node);
+            if (boards != null && leaves != null) {
+                loadIndexes[node.getId()] = boards.size() - leaves.size();
+            }
+        }
+    }
+
+    public List<Vehicle> getAvaibleVehicles() {
+        return avaibleVehicles;
+    }
+
+    public List<Vehicle> getAllocatedVehicles() {
+        return allocatedVehicles;
+    }
+
+    /**
+     * Returns the cache of rebuilt routes of the context, created with the
+     * default size when it is used for the first time.
+     */
+    public RouteCache getRouteCache() {
+        if (routeCache == null) {
+            routeCache = new RouteCache();
+        }
+        return routeCache;
+    }
+
+    public void setRouteCache(RouteCache routeCache) {
+        this.routeCache = routeCache;
+    }
+
+    private void clearRouteCache() {
+        if (routeCache != null) {
+            routeCache.clear();
+        }
+    }
+
+    public void startVehiclesData(int numberOfVehicles, int vehicleCapacity) {
+        avaibleVehicles = new LinkedList<>();
+        allocatedVehicles = new LinkedList<>();
+
+        for (int i = 0; i < numberOfVehicles; i++) {
+            Vehicle vehicle = new Vehicle(i + 1, "VPL2017", vehicleCapacity);
+            avaibleVehicles.add(vehicle);
+        }
+    }
+}
@@ -20,13 +20,21 @@ public class Solution implements Cloneable {
     protected List<Route> routes;
     protected Set<Request> nonAttendedRequests;
     protected List<Integer> integerRepresentation = new ArrayList<>();
+    protected Set<Route> sharedRoutes = Collections.newSetFromMap(new IdentityHashMap<>());
+    protected RouteTotals routeTotals = new RouteTotals();
 
     public Solution() {
         initializeAttributesWithEmptyLists();
         clearAttributeValues();
     }
 
+    /**
+     * Builds a copy of the solution that shares every route with it. A route
+     * is only copied when one of the two solutions changes it through
+     * getRouteForUpdate or setRoute.
+     */
     public Solution(Solution solution) {
+        solution.shareRoutes();
         initializeAttributesWithEmptyLists();
         clearAttributeValues();
         this.totalDistanceTraveled = solution.getTotalDistanceTraveled();
@@ -37,8 +45,10 @@ public class Solution implements Cloneable {
         this.numberOfVehicles = solution.getNumberOfVehicles();
         this.routes.clear();
         this.routes.addAll(solution.getRoutes());
+        this.sharedRoutes.addAll(solution.sharedRoutes);
+        this.routeTotals = new RouteTotals(solution.routeTotals);
         this.nonAttendedRequests = solution.getNonAttendedRequests();
-        this.integerRepresentation.addAll(solution.getIntegerRepresentation());
+        this.integerRepresentation = solution.copyOfIntegerRepresentation();
     }
 
     private void initializeAttributesWithEmptyLists() {
@@ -85,6 +95,20 @@ public class Solution implements Cloneable {
         return routes.get(position);
     }
 
+    /**
+     * Returns the route in the position ready to be changed in place. A route
+     * shared with other copies of this solution is cloned the first time it
+     * is changed, so the other copies keep seeing the route they had.
+     */
+    public Route getRouteForUpdate(int position) {
+        Route route = routes.get(position);
+        if (sharedRoutes.remove(route)) {
+            route = (Route) route.clone();
+            routes.set(position, route);
+        }
+        return route;
+    }
+
     public Route getRandomRoute() {
         int position = new Random().nextInt(this.routes.size());
         return routes.get(position);
@@ -95,12 +119,18 @@ public class Solution implements Cloneable {
         return position;
     }
 
+    public int getRandomRoutePosition(Random rnd) {
+        return rnd.nextInt(this.routes.size());
+    }
+
     public void removeSequenceFromAllSolution(List<Integer> idSequence, int indexOfAlteratedRoute, ProblemData data) {
         int currentRouteIndex = 0;
         for (Integer id : idSequence) {
             //if (currentRouteIndex != indexOfAlteratedRoute) {
-            for (Route route : routes) {
-                route.removeRequest(id, data);
+            for (int i = 0; i < routes.size(); i++) {
+                if (routes.get(i).containsRequest(id)) {
+                    getRouteForUpdate(i).removeRequest(id, data);
+                }
             }
             calculateEvaluationFunction(data);
             //}
@@ -118,11 +148,24 @@ public class Solution implements Cloneable {
     }
 
     public void setRoute(int position, Route route) {
-        routes.get(position).setRoute(route);
+        Route currentRoute = routes.get(position);
+        if (sharedRoutes.remove(currentRoute)) {
+            routes.set(position, new Route(route));
+        } else {
+            currentRoute.setRoute(route);
+        }
     }
 
-    public void setSolution(Solution solution1) {
-        Solution solution = new Solution((Solution) solution1.clone());
+    /**
+     * Turns this solution into a copy of the other one. The routes are shared
+     * between both solutions and are only copied when one of them changes a
+     * route through getRouteForUpdate or setRoute.
+     */
+    public void setSolution(Solution solution) {
+        if (solution == this) {
+            return;
+        }
+        solution.shareRoutes();
         initializeAttributesWithEmptyLists();
         clearAttributeValues();
         this.totalDistanceTraveled = solution.getTotalDistanceTraveled();
@@ -133,20 +176,47 @@ public class Solution implements Cloneable {
         this.numberOfVehicles = solution.getNumberOfVehicles();
         this.routes.clear();
         this.routes.addAll(solution.getRoutes());
+        this.sharedRoutes.clear();
+        this.sharedRoutes.addAll(solution.sharedRoutes);
+        this.routeTotals = new RouteTotals(solution.routeTotals);
         this.nonAttendedRequests = solution.getNonAttendedRequests();
-        this.integerRepresentation.addAll(solution.getIntegerRepresentation());
+        this.integerRepresentation = solution.copyOfIntegerRepresentation();
+    }
+
+    /**
+     * Returns a copy of this solution that shares every route with it. Only
+     * the routes changed afterwards are copied, so a move that touches one or
+     * two routes does not pay for copying the whole solution.
+     */
+    public Solution copy() {
+        return new Solution(this);
+    }
+
+    protected void shareRoutes() {
+        this.sharedRoutes.addAll(this.routes);
     }
 
     public Set<Request> getNonAttendedRequests() {
         return nonAttendedRequests;
     }
 
+    /**
+     * Returns the ids and times of every route in a single list. The list is
+     * only built when it is asked for after the solution was evaluated.
+     */
     public List<Integer> getIntegerRepresentation() {
+        if (integerRepresentation == null) {
+            buildIntegerRepresentation();
+        }
         return integerRepresentation;
     }
+
+    protected List<Integer> copyOfIntegerRepresentation() {
+        return integerRepresentation == null ? null : new ArrayList<>(integerRepresentation);
+    }
     
     public List<Integer> getIdsIntegerRepresentation(){
-        return this.integerRepresentation.stream()
+        return this.getIntegerRepresentation().stream()
                         .filter(u -> u.intValue() >= 0)
                         .collect(Collectors.toCollection(ArrayList::new));
     }
@@ -155,45 +225,161 @@ public class Solution implements Cloneable {
         this.routes.add(route);
     }
 
+    /**
+     * Evaluates the solution summing again only the routes that changed since
+     * the last evaluation. The integer representation is left to be built
+     * when it is asked for.
+     */
     public void calculateEvaluationFunction(ProblemData data) {
-        clearAttributeValues();
-        sumAttibutesForEveryRoute();
-        buildIntegerRepresentation();
-        analyseCapacityConstraint(data);
+        routeTotals.update(routes, data);
+        this.totalDistanceTraveled = routeTotals.getTotalDistanceTraveled();
+        this.totalTravelTime = routeTotals.getTotalTravelTime();
+        this.totalTimeWindowAnticipation = routeTotals.getTotalTimeWindowAnticipation();
+        this.totalTimeWindowDelay = routeTotals.getTotalTimeWindowDelay();
+        this.numberOfVehicles = routeTotals.getNumberOfVehicles();
+        this.integerRepresentation = null;
         evaluateSolution();
         penalizeSolution();
     }
 
     public void evaluateSolution() {
-        if (this.totalTimeWindowDelay > 0) {
-            this.evaluationFunction = this.totalDistanceTraveled + this.totalTravelTime * this.totalTimeWindowDelay
-                    + this.totalTimeWindowAnticipation * this.numberOfVehicles;//+ 50* this.numberOfVehicles
+        this.evaluationFunction = evaluate(totalDistanceTraveled, totalTravelTime, totalTimeWindowAnticipation,
+                totalTimeWindowDelay, numberOfVehicles);
+    }
+
+    private static long evaluate(long totalDistanceTraveled, long totalTravelTime, long totalTimeWindowAnticipation,
+            long totalTimeWindowDelay, long numberOfVehicles) {
+        if (totalTimeWindowDelay > 0) {
+            return totalDistanceTraveled + totalTravelTime * totalTimeWindowDelay
+                    + totalTimeWindowAnticipation * numberOfVehicles;//+ 50* this.numberOfVehicles
         } else {
-            this.evaluationFunction = this.totalDistanceTraveled + this.totalTravelTime + this.totalTimeWindowAnticipation * this.numberOfVehicles;//+ 50* this.numberOfVehicles
+            return totalDistanceTraveled + totalTravelTime + totalTimeWindowAnticipation * numberOfVehicles;//+ 50* this.numberOfVehicles
         }
     }
 
     private void penalizeSolution() {
-        if (hasRouteWithViolatedConstraint()) {
+        if (routeTotals.getNumberOfPenalizedRoutes() > 0) {
             this.evaluationFunction = this.totalDistanceTraveled * this.totalTravelTime * this.totalTravelTime;
         }
     }
 
-    private void analyseCapacityConstraint(ProblemData data) {
-        for (Route route : routes) {
-            route.capacityAnalysis(data);
+    /**
+     * Returns the evaluation function the solution would have if the route in
+     * the position had the attributes of the candidate in the evaluator. The
+     * sums are taken from the attributes already stored in the routes, so the
+     * solution and its routes are not changed.
+     */
+    public long evaluateReplacingRoute(int position, RouteEvaluator candidate) {
+        return evaluateReplacingRoutes(position, candidate, -1, null);
+    }
+
+    /**
+     * Same as evaluateReplacingRoute for moves that change two routes at once.
+     * A candidate rejected early by its cost bound makes the evaluation
+     * Long.MAX_VALUE.
+     */
+    public long evaluateReplacingRoutes(int firstPosition, RouteEvaluator firstCandidate, int secondPosition,
+            RouteEvaluator secondCandidate) {
+        if (firstCandidate.isRejectedEarly() || (secondCandidate != null && secondCandidate.isRejectedEarly())) {
+            return Long.MAX_VALUE;
         }
-    }
-
-    private boolean hasRouteWithViolatedConstraint() {
-        return routes.stream().filter(Route::isPenalized).collect(Collectors.toCollection(ArrayList::new)).size() > 0;
+        if (routeTotals.isUpToDate(routes)) {
+            return evaluateReplacingRoutesFromTotals(firstPosition, firstCandidate, secondPosition, secondCandidate);
+        }
+        long distance = firstCandidate.getTotalRouteDistance();
+        long travelTime = firstCandidate.getRouteTravelTime();
+        long anticipation = firstCandidate.getTotalTimeWindowAnticipation();
+        long delay = firstCandidate.getTotalTimeWindowDelay();
+        long vehicles = firstCandidate.isEmpty() ? 0 : 1;
+        boolean penalized = firstCandidate.isPenalized();
+        if (secondCandidate != null) {
+            distance += secondCandidate.getTotalRouteDistance();
+            travelTime += secondCandidate.getRouteTravelTime();
+            anticipation += secondCandidate.getTotalTimeWindowAnticipation();
+            delay += secondCandidate.getTotalTimeWindowDelay();
+            vehicles += secondCandidate.isEmpty() ? 0 : 1;
+            penalized = penalized || secondCandidate.isPenalized();
+        }
+        for (int i = 0; i < routes.size(); i++) {
+            if (i != firstPosition && i != secondPosition) {
+                Route route = routes.get(i);
+                distance += route.getTotalRouteDistance();
+                travelTime += route.getRouteTravelTime();
+                anticipation += route.getTotalTimeWindowAnticipation();
+                delay += route.getTotalTimeWindowDelay();
+                vehicles += route.isIntegerRepresentationEmpty() ? 0 : 1;
+                penalized = penalized || route.isPenalized();
+            }
+        }
+        if (penalized) {
+            return distance * travelTime * travelTime;
+        }
+        return evaluate(distance, travelTime, anticipation, delay, vehicles);
+    }
+
+    /**
+     * Returns the bound that lets the candidates of the routes in the
+     * positions be rejected as soon as the solution with them can not be below
+     * the upper bound, or null when there is no bound. The second position is
+     * -1 for moves that change one route. The bound only knows the routes the
+     * move does not change; the first candidate of a two route move must be
+     * added to it before the second one is evaluated.
+     */
+    public CostBound getCostBound(int firstPosition, int secondPosition, long upperBound) {
+        if (upperBound == Long.MAX_VALUE || !routeTotals.isUpToDate(routes)) {
+            return null;
+        }
+        long distance = routeTotals.getTotalDistanceTraveled() - routeTotals.getDistance(firstPosition);
+        long travelTime = routeTotals.getTotalTravelTime() - routeTotals.getTravelTime(firstPosition);
+        long anticipation = routeTotals.getTotalTimeWindowAnticipation() - routeTotals.getAnticipation(firstPosition);
+        long delay = routeTotals.getTotalTimeWindowDelay() - routeTotals.getDelay(firstPosition);
+        long vehicles = routeTotals.getNumberOfVehicles() - (routeTotals.isUsed(firstPosition) ? 1 : 0);
+        int penalizedRoutes = routeTotals.getNumberOfPenalizedRoutes() - (routeTotals.isPenalized(firstPosition) ? 1 : 0);
+        if (secondPosition >= 0) {
+            distance -= routeTotals.getDistance(secondPosition);
+            travelTime -= routeTotals.getTravelTime(secondPosition);
+            anticipation -= routeTotals.getAnticipation(secondPosition);
+            delay -= routeTotals.getDelay(secondPosition);
+            vehicles -= routeTotals.isUsed(secondPosition) ? 1 : 0;
+            penalizedRoutes -= routeTotals.isPenalized(secondPosition) ? 1 : 0;
+        }
+        return new CostBound(upperBound, distance, travelTime, anticipation, delay, vehicles, penalizedRoutes > 0);
+    }
+
+    private long evaluateReplacingRoutesFromTotals(int firstPosition, RouteEvaluator firstCandidate,
+            int secondPosition, RouteEvaluator secondCandidate) {
+        long distance = routeTotals.getTotalDistanceTraveled() - routeTotals.getDistance(firstPosition)
+                + firstCandidate.getTotalRouteDistance();
+        long travelTime = routeTotals.getTotalTravelTime() - routeTotals.getTravelTime(firstPosition)
+                + firstCandidate.getRouteTravelTime();
+        long anticipation = routeTotals.getTotalTimeWindowAnticipation() - routeTotals.getAnticipation(firstPosition)
+                + firstCandidate.getTotalTimeWindowAnticipation();
+        long delay = routeTotals.getTotalTimeWindowDelay() - routeTotals.getDelay(firstPosition)
+                + firstCandidate.getTotalTimeWindowDelay();
+        long vehicles = routeTotals.getNumberOfVehicles() - (routeTotals.isUsed(firstPosition) ? 1 : 0)
+                + (firstCandidate.isEmpty() ? 0 : 1);
+        int penalizedRoutes = routeTotals.getNumberOfPenalizedRoutes() - (routeTotals.isPenalized(firstPosition) ? 1 : 0)
+                + (firstCandidate.isPenalized() ? 1 : 0);
+        if (secondCandidate != null) {
+            distance += secondCandidate.getTotalRouteDistance() - routeTotals.getDistance(secondPosition);
+            travelTime += secondCandidate.getRouteTravelTime() - routeTotals.getTravelTime(secondPosition);
+            anticipation += secondCandidate.getTotalTimeWindowAnticipation() - routeTotals.getAnticipation(secondPosition);
+            delay += secondCandidate.getTotalTimeWindowDelay() - routeTotals.getDelay(secondPosition);
+            vehicles += (secondCandidate.isEmpty() ? 0 : 1) - (routeTotals.isUsed(secondPosition) ? 1 : 0);
+            penalizedRoutes += (secondCandidate.isPenalized() ? 1 : 0) - (routeTotals.isPenalized(secondPosition) ? 1 : 0);
+        }
+        if (penalizedRoutes > 0) {
+            return distance * travelTime * travelTime;
+        }
+        return evaluate(distance, travelTime, anticipation, delay, vehicles);
     }
 
     public void buildIntegerRepresentation() {
-        this.integerRepresentation.clear();
+        List<Integer> integerRepresentation = new ArrayList<>();
         for (Route route : this.routes) {
-            this.integerRepresentation.addAll(route.getIntegerRouteRepresetation());
+            integerRepresentation.addAll(route.getIntegerRouteRepresetation());
         }
+        this.integerRepresentation = integerRepresentation;
     }
 
     private void clearAttributeValues() {
@@ -205,21 +391,6 @@ public class Solution implements Cloneable {
         this.numberOfVehicles = 0;
     }
 
-    private void sumAttibutesForEveryRoute() {
-        this.totalDistanceTraveled = this.routes.stream().mapToLong(Route::getTotalRouteDistance).sum();
-        this.totalTravelTime = this.routes.stream().mapToLong(Route::getRouteTravelTime).sum();
-        this.totalTimeWindowAnticipation = this.routes.stream().mapToLong(Route::getTotalTimeWindowAnticipation).sum();
-        this.totalTimeWindowDelay = this.routes.stream().mapToLong(Route::getTotalTimeWindowDelay).sum();
-
-        List<Route> test = new ArrayList<>();
-        for (Route route : routes) {
-            if (route.getIntegerRouteRepresetation().size() != 0) {
-                test.add(route);
-            }
-        }
-        this.numberOfVehicles = test.size();
-    }
-
     public Set<List<Integer>> getRoutesForMap() {
         Set<List<Integer>> routes = new HashSet<>();
         for (Route route : this.routes) {
@@ -265,8 +436,7 @@ public class Solution implements Cloneable {
 
         for (Route route : this.routes) {
             idSequence.append("Id = ")
-                    .append(route.getIntegerRouteRepresetation().stream().filter(r -> r >= 0)
-                            .collect(Collectors.toCollection(ArrayList::new)))
+                    .append(route.getIntegerSequenceOfAttendedRequests())
                     .append("\n");
             integerRepresentation.append("InR = ")
                     .append(route.getIntegerRouteRepresetation())
@@ -282,9 +452,8 @@ public class Solution implements Cloneable {
         System.out.println(nodesSequence);
         System.out.println(integerRepresentation);
         System.out.println(idSequence);
-        System.out.println(this.integerRepresentation);
-        System.out.println(this.integerRepresentation.stream().filter(u -> u.intValue() >= 0)
-                .collect(Collectors.toCollection(ArrayList::new)));
+        System.out.println(this.getIntegerRepresentation());
+        System.out.println(this.getIdsIntegerRepresentation());
     }
 
     public void removeEmptyRoutes() {
@@ -304,7 +473,7 @@ public class Solution implements Cloneable {
     public String toString() {
         return "Solution - " + this.evaluationFunction + "\t" + this.totalDistanceTraveled + "\t" + this.totalTravelTime + "\t"
                 + this.totalTimeWindowAnticipation + "\t" + this.totalTimeWindowDelay + "\t" + this.numberOfVehicles
-                + "\t" + this.integerRepresentation.stream()
+                + "\t" + this.getIntegerRepresentation().stream()
                         .filter(u -> u.intValue() >= 0)
                         .collect(Collectors.toCollection(ArrayList::new));
     }
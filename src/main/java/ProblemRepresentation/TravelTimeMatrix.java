@@ -0,0 +1,68 @@
+package ProblemRepresentation;
+
+import java.time.Duration;
+
+/**
+ *
+ * @author renansantos - The TravelTimeMatrix Class stores the travel time
+ * between every pair of nodes as primitive seconds and minutes, in flat
+ * row-major arrays, so the route evaluation does not dereference one Duration
+ * object for each leg
+ */
+public class TravelTimeMatrix {
+
+    private final int numberOfNodes;
+    private final int[] seconds;
+    private final int[] minutes;
+    private Duration[][] durationView;
+
+    public TravelTimeMatrix(Duration[][] duration) {
+        this.numberOfNodes = duration.length;
+        this.seconds = new int[numberOfNodes * numberOfNodes];
+        this.minutes = new int[numberOfNodes * numberOfNodes];
+        for (int i = 0; i < numberOfNodes; i++) {
+            for (int j = 0; j < numberOfNodes; j++) {
+                int index = i * numberOfNodes + j;
+                this.seconds[index] = duration[i][j] == null ? 0 : (int) duration[i][j].getSeconds();
+                this.minutes[index] = this.seconds[index] / 60;
+            }
+        }
+    }
+
+    public int getNumberOfNodes() {
+        return numberOfNodes;
+    }
+
+    public int getSeconds(int originNode, int destinationNode) {
+        return seconds[originNode * numberOfNodes + destinationNode];
+    }
+
+    public int getMinutes(int originNode, int destinationNode) {
+        return minutes[originNode * numberOfNodes + destinationNode];
+    }
+
+    public int getSeconds(Node origin, Node destination) {
+        return getSeconds(origin.getId(), destination.getId());
+    }
+
+    public int getMinutes(Node origin, Node destination) {
+        return getMinutes(origin.getId(), destination.getId());
+    }
+
+    /**
+     * Builds, only once, the Duration[][] view of the matrix used by the code
+     * written against the old representation.
+     */
+    public Duration[][] toDurationArray() {
+        if (durationView == null) {
+            Duration[][] view = new Duration[numberOfNodes][numberOfNodes];
+            for (int i = 0; i < numberOfNodes; i++) {
+                for (int j = 0; j < numberOfNodes; j++) {
+                    view[i][j] = Duration.ofSeconds(getSeconds(i, j));
+                }
+            }
+            durationView = view;
+        }
+        return durationView;
+    }
+}
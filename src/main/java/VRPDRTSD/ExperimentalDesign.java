@@ -5,6 +5,7 @@
  */
 package VRPDRTSD;
 
+import Algorithms.ExperimentRunner;
 import Algorithms.GeneticAlgorithm;
 import InstanceReader.Instance;
 import java.io.FileNotFoundException;
@@ -22,6 +23,16 @@ public class ExperimentalDesign {
     private int vehicleCapacities[] = {4, 11};
     private String instanceSizes[] = {"s", "m", "l"};
     private Instance instance = new Instance();
+    private ExperimentRunner experimentRunner = new ExperimentRunner();
+
+    /**
+     * Sets the runner of the executions of every experiment, for instance to
+     * run them on several threads.
+     */
+    public ExperimentalDesign setExperimentRunner(ExperimentRunner experimentRunner) {
+        this.experimentRunner = experimentRunner;
+        return this;
+    }
 
     public void runMultiStartExperiment() throws FileNotFoundException {
         for (int i = 0; i < requestNumber.length; i++) {
@@ -35,6 +46,7 @@ public class ExperimentalDesign {
                         .setVehicleCapacity(11);
 
                 VRPDRTSD problem = new VRPDRTSD(instance);
+                problem.setExperimentRunner(experimentRunner);
                 System.out.println(instance);
                 problem.multiStartForExperiment();
             }
@@ -53,6 +65,7 @@ public class ExperimentalDesign {
                         .setVehicleCapacity(11);
 
                 VRPDRTSD problem = new VRPDRTSD(instance, path);
+                problem.setExperimentRunner(experimentRunner);
                 System.out.println(instance);
                 problem.multiStartForExperiment();
             }
@@ -71,6 +84,7 @@ public class ExperimentalDesign {
                         .setVehicleCapacity(11);
 
                 VRPDRTSD problem = new VRPDRTSD(instance);
+                problem.setExperimentRunner(experimentRunner);
                 System.out.println(instance);
                 problem.simulatedAnnealingForExperiment();
             }
@@ -89,6 +103,7 @@ public class ExperimentalDesign {
                         .setVehicleCapacity(11);
 
                 VRPDRTSD problem = new VRPDRTSD(instance, path);
+                problem.setExperimentRunner(experimentRunner);
                 System.out.println(instance);
                 problem.simulatedAnnealingForExperiment();
             }
@@ -107,6 +122,7 @@ public class ExperimentalDesign {
                         .setVehicleCapacity(11);
 
                 VRPDRTSD problem = new VRPDRTSD(instance);
+                problem.setExperimentRunner(experimentRunner);
                 System.out.println(instance);
                 problem.vnsForExperiment();
             }
@@ -125,6 +141,7 @@ public class ExperimentalDesign {
                         .setVehicleCapacity(11);
 
                 VRPDRTSD problem = new VRPDRTSD(instance, path);
+                problem.setExperimentRunner(experimentRunner);
                 System.out.println(instance);
                 problem.vnsForExperiment();
             }
@@ -143,6 +160,7 @@ public class ExperimentalDesign {
                         .setVehicleCapacity(11);
 
                 VRPDRTSD problem = new VRPDRTSD(instance, path);
+                problem.setExperimentRunner(experimentRunner);
                 System.out.println(instance);
                 problem.ilsForExperiment();
             }
@@ -167,7 +185,8 @@ public class ExperimentalDesign {
                         .setMutationProbabilty(0.02)
                         .setNumberOfGenerations(200)
                         .setNumberOfExecutions(30)
-                        .setPopulationSize(100);
+                        .setPopulationSize(100)
+                        .setExperimentRunner(experimentRunner);
                 
                 algorithm.runExperiment();
             }
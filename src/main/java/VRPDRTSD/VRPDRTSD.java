@@ -2,6 +2,7 @@ package VRPDRTSD;
 
 import ProblemRepresentation.*;
 import Algorithms.*;
+import Neighborhoods.*;
 import InstanceReader.DataOutput;
 import InstanceReader.Instance;
 import java.io.File;
@@ -9,6 +10,12 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.time.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -20,6 +27,7 @@ import jxl.read.biff.BiffException;
  */
 public class VRPDRTSD implements Metaheuristic {
 
+    private InstanceData instanceData;
     private ProblemData data;
     private String instanceName;
     private String nodesInstanceName;
@@ -44,6 +52,19 @@ public class VRPDRTSD implements Metaheuristic {
     private int localSearchType = 2;
     private String excelDataFilesPath;
     private Instance instance;
+    private Neighborhood[] neighborhoods;
+    private ProblemData neighborhoodsData;
+    private ForkJoinPool searchPool;
+    private int numberOfCandidates;
+    private GranularFilter granularFilter;
+    private InstanceData granularFilterData;
+    private boolean useDontLookBits = false;
+    private DontLookBitsNeighborhood[] dontLookBitsNeighborhoods;
+    private Neighborhood[] dontLookBitsSource;
+    private StoppingCriteria stoppingCriteria = new StoppingCriteria();
+    private final AnytimeBestSolution anytimeBestSolution = new AnytimeBestSolution();
+    private Random random = new Random();
+    private ExperimentRunner experimentRunner = new ExperimentRunner();
 
     public VRPDRTSD(Instance instance) {
         this.instance = instance;
@@ -76,12 +97,32 @@ public class VRPDRTSD implements Metaheuristic {
         this.readInstance();
     }
 
+    /**
+     * Creates a solver on an instance that was already read. The instance is
+     * shared with the other solvers created from it, which can run at the same
+     * time, each one with its own search context.
+     */
+    public VRPDRTSD(InstanceData instanceData) {
+        this.instanceName = instanceData.getInstanceName();
+        this.nodesInstanceName = instanceData.getNodesInstanceName();
+        this.adjacenciesInstanceName = instanceData.getAdjacenciesInstanceName();
+        this.numberOfVehicles = instanceData.getNumberOfVehicles();
+        this.vehicleCapacity = instanceData.getVehicleCapacity();
+        this.instanceData = instanceData;
+        this.data = new ProblemData(instanceData);
+    }
+
+    public InstanceData getInstanceData() {
+        return instanceData;
+    }
+
     public ProblemData getData() {
         return data;
     }
 
     public void setData(ProblemData data) {
         this.data = data;
+        this.instanceData = data.getInstanceData();
     }
 
     public Solution getSolution() {
@@ -89,6 +130,9 @@ public class VRPDRTSD implements Metaheuristic {
     }
 
     public void setSolution(Solution solution) {
+        if (this.solution == null) {
+            this.solution = new Solution();
+        }
         this.solution.setSolution(solution);
     }
 
@@ -102,7 +146,7 @@ public class VRPDRTSD implements Metaheuristic {
 
     public void originalRequestsFeasibilityAnalysis() {
         for (Request request : data.getRequests()) {
-            request.determineInicialFeasibility(data.getCurrentTime(), data.getCurrentNode(), data.getDuration());
+            request.determineInicialFeasibility(data.getCurrentTime(), data.getCurrentNode(), data.getTravelTimes());
         }
     }
 
@@ -110,7 +154,7 @@ public class VRPDRTSD implements Metaheuristic {
         data.setCurrentNode(data.getNodes().get(0));
 
         for (Request request : candidates) {
-            request.determineInicialFeasibility(data.getCurrentTime(), data.getCurrentNode(), data.getDuration());
+            request.determineInicialFeasibility(data.getCurrentTime(), data.getCurrentNode(), data.getTravelTimes());
         }
         //System.out.println(getRequestUsingId(230).isFeasible());
     }
@@ -121,7 +165,7 @@ public class VRPDRTSD implements Metaheuristic {
 //        }
         for (Request request : candidates) {
             request.determineFeasibilityInConstructionFase(data.getCurrentTime(), data.getLastPassengerAddedToRoute(),
-                    data.getCurrentNode(), data.getDuration());
+                    data.getCurrentNode(), data.getTravelTimes());
         }
         //System.out.println(getRequestUsingId(230).isFeasible());
     }
@@ -165,15 +209,15 @@ public class VRPDRTSD implements Metaheuristic {
     }
 
     public void setLoadIndexForEveryNode() {
-        data.getNodes().forEach(n -> n.setLoadIndex(requestsThatBoardsInNode, requestsThatLeavesInNode));
+        data.setLoadIndexes(requestsThatBoardsInNode, requestsThatLeavesInNode);
     }
 
     public void findMaxAndMinLoadIndex() {
         maxLoadIndex = data.getNodes().stream()
-                .mapToInt(Node::getLoadIndex)
+                .mapToInt(data::getLoadIndex)
                 .max().getAsInt();
         minLoadIndex = data.getNodes().stream()
-                .mapToInt(Node::getLoadIndex)
+                .mapToInt(data::getLoadIndex)
                 .min().getAsInt();
     }
 
@@ -183,12 +227,15 @@ public class VRPDRTSD implements Metaheuristic {
 
     @Override
     public void readInstance() {
-        data = new ProblemData(instanceName, nodesInstanceName, adjacenciesInstanceName, numberOfVehicles, vehicleCapacity);
+        instanceData = InstanceData.readFromDatabase(instanceName, nodesInstanceName, adjacenciesInstanceName,
+                numberOfVehicles, vehicleCapacity);
+        data = new ProblemData(instanceData);
     }
 
     public void readExcelInstance() {
         try {
-            data = new ProblemData(instance, this.excelDataFilesPath);
+            instanceData = InstanceData.readFromExcel(instance, this.excelDataFilesPath);
+            data = new ProblemData(instanceData);
         } catch (IOException ex) {
             ex.printStackTrace();
         } catch (BiffException ex) {
@@ -253,8 +300,9 @@ public class VRPDRTSD implements Metaheuristic {
             request.setDistanceRankingFunction(maxDistance, minDistance);
             request.setDeliveryTimeWindowLowerRankingFunction(maxTimeWindowLower, minTimeWindowLower);
             request.setDeliveryTimeWindowUpperRankingFunction(maxTimeWindowUpper, minTimeWindowUpper);
-            request.setOriginNodeRankingFunction(maxLoadIndex, minLoadIndex);
-            request.setDestinationNodeRankingFunction(maxLoadIndex, minLoadIndex);
+            request.setOriginNodeRankingFunction(data.getLoadIndex(request.getOrigin()), maxLoadIndex, minLoadIndex);
+            request.setDestinationNodeRankingFunction(data.getLoadIndex(request.getDestination()), maxLoadIndex,
+                    minLoadIndex);
             request.setRequestRankingFunction(0.1, 0.5, 0.1, 0.1, 0.1);
         }
     }
@@ -276,20 +324,18 @@ public class VRPDRTSD implements Metaheuristic {
     }
 
     public void addCandidateIntoRoute() {
-        if (currentRoute.getIntegerRouteRepresetation().size() == 0) {
+        if (currentRoute.isIntegerRepresentationEmpty()) {
             data.setCurrentTime(candidate.getDeliveryTimeWindowLower());
-            candidate.setDeliveryTime(data.getCurrentTime());
         } else {
-            Duration displacementTime = data.getDuration()[data.getLastPassengerAddedToRoute().getDestination().getId()][candidate.getDestination().getId()];
-            data.setCurrentTime(data.getCurrentTime().plus(displacementTime));
-            candidate.setDeliveryTime(data.getCurrentTime());
+            int displacementTime = data.getTravelTimes().getSeconds(data.getLastPassengerAddedToRoute().getDestination(),
+                    candidate.getDestination());
+            data.setCurrentTime(data.getCurrentTime().plusSeconds(displacementTime));
         }
 
         int indexOfCandidate = candidates.indexOf(candidate);
         data.setLastPassengerAddedToRoute(candidates.get(indexOfCandidate));
         data.setCurrentNode(data.getLastPassengerAddedToRoute().getDestination());
 
-        candidate.setDeliveryTime(data.getCurrentTime());
         currentRoute.addValueInIntegerRepresentation(candidate.getId());
 
         data.getCurrentVehicle().boardPassenger();
@@ -309,6 +355,7 @@ public class VRPDRTSD implements Metaheuristic {
     public void startNewRoute() {
         currentRoute = new Route();
         data.setCurrentVehicle(new Vehicle(data.getAvaibleVehicles().get(0)));
+        currentRoute.setVehicleCapacity(data.getCurrentVehicle().getCapacity());
         data.getAvaibleVehicles().remove(0);
         data.setCurrentNode(data.getNodes().get(0));
         data.setCurrentTime(LocalDateTime.of(2017, 1, 1, 0, 0, 0));
@@ -325,7 +372,7 @@ public class VRPDRTSD implements Metaheuristic {
     }
 
     public void scheduleDeliveryTimeInRouteRepresentation() {
-        currentRoute.addValueInIntegerRepresentation(-1 * candidate.getDeliveryTimeInMinutes());
+        scheduleDeliveryTime(data.getCurrentTime());
     }
 
     public void scheduleDeliveryTime(Request request) {
@@ -402,11 +449,7 @@ public class VRPDRTSD implements Metaheuristic {
     }
 
     public Request getRequestUsingId(Integer id) {
-        if (id != 0) {
-            return data.getRequests().stream().filter(u -> u.getId().equals(id)).findAny().get();
-        } else {
-            return null;
-        }
+        return data.getRequest(id);
     }
 
     private void buildSequenceOfAttendedRequests() {
@@ -430,12 +473,11 @@ public class VRPDRTSD implements Metaheuristic {
         }
 
         if (otherRequestsToAdd.size() != 0) {
-            otherRequestsToAdd.sort(Comparator.comparing(Request::getDeliveryTimeWindowLower));
+            otherRequestsToAdd.sort(Comparator.comparing(Request::getDeliveryTimeWindowLowerInMinutes));
         }
 
         while (otherRequestsToAdd.size() != 0 && hasEmptySeatInVehicle()) {
             candidate = otherRequestsToAdd.get(0);
-            candidate.setDeliveryTime(data.getCurrentTime());
             currentRoute.addValueInIntegerRepresentation(otherRequestsToAdd.get(0).getId());
             data.setLastPassengerAddedToRoute(otherRequestsToAdd.get(0));
             data.getCurrentVehicle().boardPassenger();
@@ -532,7 +574,7 @@ public class VRPDRTSD implements Metaheuristic {
     }
 
     public void setRequestRandomParameters() {
-        Random rnd = new Random();
+        Random rnd = random;
         for (Request request : data.getRequests()) {
             Double RRF = rnd.nextDouble();
             request.setRequestRankingFunction(RRF);
@@ -549,230 +591,187 @@ public class VRPDRTSD implements Metaheuristic {
 
     @Override
     public void localSearch(int localSearchType) {
+        localSearch(localSearchType, getNeighborhoods());
+    }
+
+    private void localSearch(int localSearchType, Neighborhood[] neighborhoods) {
         switch (localSearchType) {
             case 1:
-                this.solution = swapIntraRouteFirstImprovement();
+                this.solution = firstImprovement(neighborhoods[0]);
                 break;
             case 2:
-                this.solution = swapIntraBestImprovement();
+                this.solution = bestImprovement(neighborhoods[0]);
                 break;
             case 3:
-                this.solution = swapInterRouteFirstImprovement();
+                this.solution = firstImprovement(neighborhoods[1]);
                 break;
             case 4:
-                this.solution = swapInterRouteBestImprovement();
+                this.solution = bestImprovement(neighborhoods[1]);
                 break;
             case 5:
-                this.solution = requestReallocationFirstImprovement();
+                this.solution = firstImprovement(neighborhoods[2]);
                 break;
             case 6:
-                this.solution = requestReallocationBestImprovement();
+                this.solution = bestImprovement(neighborhoods[2]);
                 break;
             case 7:
-                this.solution = optFirstImprovement();
+                this.solution = firstImprovement(neighborhoods[3]);
                 break;
             case 8:
-                this.solution = optBestImprovement();
+                this.solution = bestImprovement(neighborhoods[3]);
+                break;
+            case 9:
+                this.solution = firstImprovement(neighborhoods[4]);
+                break;
+            case 10:
+                this.solution = bestImprovement(neighborhoods[4]);
                 break;
-//            case 7://
-//                this.solution = addMinutesInSolutionScheduleFirstImprovement();
-//                break;
-//            case 8:
-//                this.solution = addMinutesInSolutionScheduleBestImprovement();
-//                break;
-//            case 9:
-//                this.solution = removeMinutesInSolutionScheduleFirstImprovement();
-//                break;
-//            case 10:
-//                this.solution = removeMinutesInSolutionScheduleBestImprovement();
-//                break;
-
         }
         this.solution.buildIntegerRepresentation();
     }
 
-    private Solution swapIntraRouteFirstImprovement() {
-        Solution solution = new Solution(this.solution);
-        for (int i = 0; i < solution.getNumberOfRoutes(); i++) {
-            Route route = new Route(solution.getRoute(i));
-            long evaluationFunctionBeforeMovement = solution.getEvaluationFunction();
-            for (int j = 1; j < route.getIntegerSequenceOfAttendedRequests().size(); j++) {
-                for (int k = j + 1; k < route.getIntegerSequenceOfAttendedRequests().size(); k++) {
-                    route.swapRequests(j, k, data);
-                    actualizeSolution(solution, i, route);
-                    long evaluationFunctionAfterMovement = solution.getEvaluationFunction();
-
-                    if (evaluationFunctionAfterMovement < evaluationFunctionBeforeMovement) {
-                        return solution;
-                    } else {
-                        route.swapRequests(j, k, data);
-                    }
-                }
-            }
+    /**
+     * Returns the neighborhoods of the local searches, in the order of their
+     * types: intra-route swap, inter-route swap, reallocation, 2-opt and
+     * schedule shift. They keep evaluators of the problem data, so they are
+     * created again when the data changes.
+     */
+    private Neighborhood[] getNeighborhoods() {
+        if (neighborhoods == null || neighborhoodsData != data) {
+            GranularFilter filter = getGranularFilter();
+            neighborhoods = new Neighborhood[]{new SwapIntraRouteNeighborhood(data),
+                new SwapInterRouteNeighborhood(data, filter), new ReallocationNeighborhood(data, filter),
+                new TwoOptNeighborhood(data), new ShiftMinutesNeighborhood(data, 5)};
+            neighborhoodsData = data;
         }
-        return this.solution;
-    }
-
-    private void actualizeSolution(Solution solution, int i, Route route) {
-        solution.getRoute(i).setRoute(route);
-        solution.calculateEvaluationFunction(data);
+        return neighborhoods;
     }
 
-    private Solution swapIntraBestImprovement() {
-        boolean canContinue = true;
-        while (canContinue) {
-            Solution solution = new Solution((Solution) this.solution.clone());
-            for (int i = 0; i < solution.getNumberOfRoutes(); i++) {
-                Route route = new Route(solution.getRoute(i));
-                long evaluationFunctionBeforeMovement = solution.getEvaluationFunction();
-                for (int j = 1; j < route.getIntegerSequenceOfAttendedRequests().size() - 1; j++) {
-                    for (int k = j + 1; k < route.getIntegerSequenceOfAttendedRequests().size(); k++) {
-                        route.swapRequests(j, k, data);
-                        actualizeSolution(solution, i, route);
-                        long evaluationFunctionAfterMovement = solution.getEvaluationFunction();
-                        if (evaluationFunctionAfterMovement > evaluationFunctionBeforeMovement) {
-                            route.swapRequests(j, k, data);
-                            actualizeSolution(solution, i, route);
-                        } else {
-                            evaluationFunctionBeforeMovement = evaluationFunctionAfterMovement;
-                        }
-                    }
-                }
-            }
-            if (solution.getEvaluationFunction() < this.solution.getEvaluationFunction()) {
-                return solution;
-            } else {
-                return this.solution;
+    /**
+     * Returns the neighborhoods of the VND searches. With the don't look bits
+     * on, they skip the routes and pairs of routes already searched without
+     * improvement at their current versions. The bits are kept from one VND to
+     * the next, so the routes a perturbation did not touch are not searched
+     * again.
+     */
+    private Neighborhood[] getVndNeighborhoods() {
+        Neighborhood[] neighborhoods = getNeighborhoods();
+        if (!useDontLookBits) {
+            return neighborhoods;
+        }
+        if (dontLookBitsNeighborhoods == null || dontLookBitsSource != neighborhoods) {
+            dontLookBitsNeighborhoods = new DontLookBitsNeighborhood[neighborhoods.length];
+            for (int i = 0; i < neighborhoods.length; i++) {
+                dontLookBitsNeighborhoods[i] = new DontLookBitsNeighborhood(neighborhoods[i]);
             }
+            dontLookBitsSource = neighborhoods;
         }
-        return (Solution) this.solution.clone();
+        for (DontLookBitsNeighborhood neighborhood : dontLookBitsNeighborhoods) {
+            neighborhood.retainRoutesOf(solution);
+        }
+        return dontLookBitsNeighborhoods;
     }
 
-    private Solution addMinutesInSolutionScheduleFirstImprovement() {
-        Solution solution = new Solution(this.solution);
-
-        for (int i = 0; i < solution.getNumberOfRoutes(); i++) {
-            for (int j = 1; j <= 5; j++) {
-                Route route = new Route(solution.getRoute(i));
-                long evaluationFunctionBeforeMovement = solution.getEvaluationFunction();
-
-                route.addMinutesInRoute(j, data);
-                actualizeSolution(solution, i, route);
-                long evaluationFunctionAfterMovement = solution.getEvaluationFunction();
-
-                if (evaluationFunctionAfterMovement < evaluationFunctionBeforeMovement) {
-                    return solution;
-                } else {
-                    route.removeMinutesInRoute(j, data);
-                }
-            }
-        }
-        return this.solution;
+    /**
+     * Turns the don't look bits of the VND searches on or off. They are off by
+     * default, so every VND search visits all the moves. With them the VND
+     * runs faster but may miss some improving moves, since the evaluation of
+     * a solution is not a sum of route terms.
+     */
+    public void setDontLookBits(boolean useDontLookBits) {
+        this.useDontLookBits = useDontLookBits;
+        this.dontLookBitsNeighborhoods = null;
     }
 
-    private Solution addMinutesInSolutionScheduleBestImprovement() {
-        Solution solution = new Solution(this.solution);
+    public boolean isUsingDontLookBits() {
+        return useDontLookBits;
+    }
 
-        for (int i = 0; i < solution.getNumberOfRoutes(); i++) {
-            for (int j = 1; j <= 5; j++) {
-                Route route = new Route(solution.getRoute(i));
-                long evaluationFunctionBeforeMovement = solution.getEvaluationFunction();
+    /**
+     * Sets how many candidates of each request the granular filter keeps. The
+     * inter-route swap and the reallocation only move a request to the routes
+     * that have one of its candidates. Zero, the default, turns the filter
+     * off.
+     */
+    public synchronized void setNumberOfCandidates(int numberOfCandidates) {
+        this.numberOfCandidates = numberOfCandidates;
+        this.granularFilter = null;
+        this.neighborhoods = null;
+    }
 
-                route.addMinutesInRoute(j, data);
-                actualizeSolution(solution, i, route);
-                long evaluationFunctionAfterMovement = solution.getEvaluationFunction();
+    public int getNumberOfCandidates() {
+        return numberOfCandidates;
+    }
 
-                if (evaluationFunctionAfterMovement > evaluationFunctionBeforeMovement) {
-                    route.removeMinutesInRoute(j, data);
-                    actualizeSolution(solution, i, route);
-                }
-            }
+    /**
+     * Returns the granular filter of the instance, or null when it is off. The
+     * candidates only depend on the instance, so the filter is kept while the
+     * instance is the same. The solvers of an experiment ask for it from the
+     * threads of the runner, so it is built only once, under the lock.
+     */
+    public synchronized GranularFilter getGranularFilter() {
+        if (numberOfCandidates <= 0) {
+            return null;
         }
-        if (solution.getEvaluationFunction() < this.solution.getEvaluationFunction()) {
-            return solution;
-        } else {
-            return this.solution;
+        if (granularFilter == null || granularFilterData != data.getInstanceData()) {
+            granularFilter = new GranularFilter(data, numberOfCandidates);
+            granularFilterData = data.getInstanceData();
         }
+        return granularFilter;
     }
 
-    private Solution removeMinutesInSolutionScheduleBestImprovement() {
-        Solution solution = new Solution(this.solution);
-
-        for (int i = 0; i < solution.getNumberOfRoutes(); i++) {
-            for (int j = 1; j <= 5; j++) {
-                Route route = new Route(solution.getRoute(i));
-                long evaluationFunctionBeforeMovement = solution.getEvaluationFunction();
+    /**
+     * Returns the share of the pairs of request and route that the granular
+     * filter kept the neighborhoods from visiting.
+     */
+    public synchronized double getGranularPruningRatio() {
+        return granularFilter == null ? 0 : granularFilter.getPruningRatio();
+    }
 
-                route.removeMinutesInRoute(j, data);
-                actualizeSolution(solution, i, route);
-                long evaluationFunctionAfterMovement = solution.getEvaluationFunction();
+    private void printGranularPruningRatio() {
+        GranularFilter filter = getGranularFilter();
+        if (filter != null) {
+            System.out.println("Granular filter: " + filter.getPrunedPairs() + " of " + filter.getCheckedPairs()
+                    + " request and route pairs pruned, ratio = " + filter.getPruningRatio());
+        }
+    }
 
-                if (evaluationFunctionAfterMovement < evaluationFunctionBeforeMovement) {
-                    return solution;
-                } else {
-                    route.addMinutesInRoute(j, data);
-                }
-            }
+    private Solution firstImprovement(Neighborhood neighborhood) {
+        Solution solution = this.solution.copy();
+        if (LocalSearch.firstImprovement(solution, neighborhood)) {
+            solution.removeEmptyRoutes();
+            return solution;
         }
         return this.solution;
     }
 
-    private Solution removeMinutesInSolutionScheduleFirstImprovement() {
-        Solution solution = new Solution(this.solution);
-
-        for (int i = 0; i < solution.getNumberOfRoutes(); i++) {
-            for (int j = 1; j <= 5; j++) {
-                Route route = new Route(solution.getRoute(i));
-                long evaluationFunctionBeforeMovement = solution.getEvaluationFunction();
+    /**
+     * Sets the pool used to visit the moves of the best improvement searches
+     * in parallel. Without a pool they run in the calling thread, and both
+     * ways give the same solutions.
+     */
+    public void setSearchPool(ForkJoinPool searchPool) {
+        this.searchPool = searchPool;
+    }
 
-                route.removeMinutesInRoute(j, data);
-                actualizeSolution(solution, i, route);
-                long evaluationFunctionAfterMovement = solution.getEvaluationFunction();
+    public ForkJoinPool getSearchPool() {
+        return searchPool;
+    }
 
-                if (evaluationFunctionAfterMovement > evaluationFunctionBeforeMovement) {
-                    route.addMinutesInRoute(j, data);
-                    actualizeSolution(solution, i, route);
-                }
-            }
-        }
-        if (solution.getEvaluationFunction() < this.solution.getEvaluationFunction()) {
+    private Solution bestImprovement(Neighborhood neighborhood) {
+        Solution solution = this.solution.copy();
+        boolean improved = searchPool == null ? LocalSearch.bestImprovement(solution, neighborhood)
+                : LocalSearch.bestImprovement(solution, neighborhood, searchPool);
+        if (improved) {
+            solution.removeEmptyRoutes();
             return solution;
-        } else {
-            return this.solution;
         }
+        return this.solution;
     }
 
-    private Solution swapInterRouteFirstImprovement() {
-        Solution solution = new Solution(this.solution);
-
-        for (int i = 0; i < solution.getNumberOfRoutes(); i++) {
-            long evaluationFunctionBeforeMovement = solution.getEvaluationFunction();
-            LinkedHashSet<Integer> firstRoute = new LinkedHashSet<>();
-            firstRoute.addAll(returnUsedIds(solution, i));
-
-            for (int j = i + 1; j < solution.getNumberOfRoutes(); j++) {
-                LinkedHashSet<Integer> secondRoute = new LinkedHashSet<>();
-                secondRoute.addAll(returnUsedIds(solution, j));
-
-                for (int firstId : firstRoute) {
-                    for (int secondId : secondRoute) {
-                        solution.getRoute(i).replaceRequest(firstId, secondId, data);
-                        solution.getRoute(j).replaceRequest(secondId, firstId, data);
-                        solution.calculateEvaluationFunction(data);
-                        long evaluationFunctionAfterMovement = solution.getEvaluationFunction();
-                        if (evaluationFunctionAfterMovement < evaluationFunctionBeforeMovement) {
-                            return solution;
-                        } else {
-                            solution.getRoute(i).replaceRequest(secondId, firstId, data);
-                            solution.getRoute(j).replaceRequest(firstId, secondId, data);
-                            evaluateSolution(solution);
-                        }
-                    }
-                }
-            }
-        }
-
-        return this.solution;
+    private void actualizeSolution(Solution solution, int i, Route route) {
+        solution.setRoute(i, route);
+        solution.calculateEvaluationFunction(data);
     }
 
     private void evaluateSolution(Solution solution) {
@@ -780,67 +779,7 @@ public class VRPDRTSD implements Metaheuristic {
     }
 
     private static List<Integer> returnUsedIds(Solution solution, int routePosition) {
-        Set<Integer> setOfIds = solution.getRoute(routePosition).getIntegerRouteRepresetation()
-                .stream()
-                .filter(u -> u.intValue() > 0)
-                .collect(Collectors.toCollection(LinkedHashSet::new));
-
-        List<Integer> idsUsed = new ArrayList<>();
-        for (int id : setOfIds) {
-            idsUsed.add(id);
-        }
-        return idsUsed;
-    }
-
-    private Solution swapInterRouteBestImprovement() {
-        boolean canContinue = true;
-        while (canContinue) {
-            Solution solution = new Solution(this.solution);
-
-            for (int i = 0; i < solution.getNumberOfRoutes(); i++) {
-                long evaluationFunctionBeforeMovement = solution.getEvaluationFunction();
-                List<Integer> firstRoute = new ArrayList<>();
-                firstRoute.addAll(returnUsedIds(solution, i));
-
-                for (int j = i + 1; j < solution.getNumberOfRoutes(); j++) {
-                    List<Integer> secondRoute = new ArrayList<>();
-                    secondRoute.addAll(returnUsedIds(solution, j));
-
-                    for (int k = 0; k < firstRoute.size(); k++) {
-                        for (int l = 0; l < secondRoute.size(); l++) {
-
-                            swapRequestsInDifferentRoutes(solution, i, firstRoute, k, secondRoute, l, j);
-                            long evaluationFunctionAfterMovement = solution.getEvaluationFunction();
-
-                            if (evaluationFunctionAfterMovement > evaluationFunctionBeforeMovement) {
-                                swapRequestsInDifferentRoutes(solution, i, secondRoute, l, firstRoute, k, j);
-                            } else {
-                                evaluationFunctionBeforeMovement = evaluationFunctionAfterMovement;
-                                int removedIdFromFirstRoute = firstRoute.get(k);
-                                int removedIdFromSecondRoute = secondRoute.get(l);
-                                firstRoute.set(k, removedIdFromSecondRoute);
-                                secondRoute.set(l, removedIdFromFirstRoute);
-                            }
-                        }
-                    }
-                }
-            }
-
-            if (solution.getEvaluationFunction() < this.solution.getEvaluationFunction()) {
-                evaluateSolution(solution);
-                return (Solution) solution.clone();
-            } else {
-                //canContinue = false;
-                return (Solution) this.solution.clone();
-            }
-        }
-        return (Solution) this.solution.clone();
-    }
-
-    private void swapRequestsInDifferentRoutes(Solution solution1, int i, List<Integer> firstRoute, int k, List<Integer> secondRoute, int l, int j) {
-        solution1.getRoute(i).replaceRequest(firstRoute.get(k), secondRoute.get(l), data);
-        solution1.getRoute(j).replaceRequest(secondRoute.get(l), firstRoute.get(k), data);
-        evaluateSolution(solution1);
+        return solution.getRoute(routePosition).getUsedIds();
     }
 
     private void insertIdInNewSequence(List<Integer> newIdSequence, List<Integer> idSequenceToInsertRequest,
@@ -901,140 +840,6 @@ public class VRPDRTSD implements Metaheuristic {
         return this.solution;
     }
 
-    private Solution requestReallocationFirstImprovement() {
-        boolean canContinue = true;
-        while (canContinue) {
-            Solution solution = new Solution(this.solution);
-            Solution bestSolution = new Solution(solution);
-            for (int i = 0; i < solution.getNumberOfRoutes(); i++) {
-                Route firstRouteOriginal = new Route(solution.getRoute(i));
-                long evaluationFunctionBeforeMovement = bestSolution.getEvaluationFunction();
-                List<Integer> firstRouteIdSequence = new ArrayList<>();
-                firstRouteIdSequence.addAll(returnUsedIds(solution, i));
-
-                for (int j = 0; j < solution.getNumberOfRoutes(); j++) {
-                    if (i != j) {
-
-                        Route secondRouteOriginal = new Route((Route) solution.getRoute(j).clone());
-
-                        if (!firstRouteIdSequence.isEmpty()) {
-                            for (int k = 0; k < firstRouteIdSequence.size(); k++) {
-                                Route secondRoute = new Route((Route) secondRouteOriginal.clone());
-                                int requestId = firstRouteIdSequence.get(k);
-                                Route firstRoute = new Route((Route) firstRouteOriginal.clone());
-                                firstRoute.removeRequest(requestId, data);
-
-                                List<Integer> idSequenceToInsertRequest = new ArrayList<>();
-                                idSequenceToInsertRequest.addAll(secondRouteOriginal.getIntegerSequenceOfAttendedRequests());
-
-                                for (int l = 1; l < idSequenceToInsertRequest.size(); l++) {
-                                    for (int m = l + 1; m < idSequenceToInsertRequest.size() + 1; m++) {
-                                        List<Integer> newIdSequence = new ArrayList<>();
-
-                                        insertIdInNewSequence(newIdSequence, idSequenceToInsertRequest, l, requestId, m);
-                                        secondRoute.rebuild(newIdSequence, data);
-
-                                        actualizeSolution(solution, i, firstRoute);
-                                        actualizeSolution(solution, j, secondRoute);
-                                        secondRoute.setRoute((Route) secondRouteOriginal.clone());
-
-                                        long evaluationFunctionAfterMovement = solution.getEvaluationFunction();
-
-                                        if (evaluationFunctionAfterMovement < bestSolution.getEvaluationFunction()) {
-                                            bestSolution.setSolution((Solution) solution.clone());
-                                            evaluateSolution(bestSolution);
-                                            bestSolution.removeEmptyRoutes();
-                                            return (Solution) bestSolution.clone();
-                                        }
-                                        actualizeSolution(solution, i, firstRouteOriginal);
-                                        actualizeSolution(solution, j, secondRoute);
-                                    }
-                                }
-                                firstRoute.setRoute(firstRouteOriginal);
-                            }
-                        }
-                    }
-                }
-            }
-
-            if (bestSolution.getEvaluationFunction() < this.solution.getEvaluationFunction()) {
-                evaluateSolution(bestSolution);
-                bestSolution.removeEmptyRoutes();
-//                System.out.println(bestSolution);
-                this.solution = (Solution) bestSolution.clone();
-            } else {
-                canContinue = false;
-            }
-        }
-        return (Solution) this.solution.clone();
-    }
-
-    private Solution requestReallocationBestImprovement() {
-        boolean canContinue = true;
-        while (canContinue) {
-            Solution solution = new Solution(this.solution);
-            Solution bestSolution = new Solution(solution);
-            for (int i = 0; i < solution.getNumberOfRoutes(); i++) {
-                Route firstRouteOriginal = new Route(solution.getRoute(i));
-                long evaluationFunctionBeforeMovement = bestSolution.getEvaluationFunction();
-                List<Integer> firstRouteIdSequence = new ArrayList<>();
-                firstRouteIdSequence.addAll(returnUsedIds(solution, i));
-
-                for (int j = 0; j < solution.getNumberOfRoutes(); j++) {
-                    if (i != j) {
-
-                        Route secondRouteOriginal = new Route((Route) solution.getRoute(j).clone());
-
-                        if (!firstRouteIdSequence.isEmpty()) {
-                            for (int k = 0; k < firstRouteIdSequence.size(); k++) {
-                                Route secondRoute = new Route((Route) secondRouteOriginal.clone());
-                                int requestId = firstRouteIdSequence.get(k);
-                                Route firstRoute = new Route((Route) firstRouteOriginal.clone());
-                                firstRoute.removeRequest(requestId, data);
-
-                                List<Integer> idSequenceToInsertRequest = new ArrayList<>();
-                                idSequenceToInsertRequest.addAll(secondRouteOriginal.getIntegerSequenceOfAttendedRequests());
-
-                                for (int l = 1; l < idSequenceToInsertRequest.size(); l++) {
-                                    for (int m = l + 1; m < idSequenceToInsertRequest.size() + 1; m++) {
-                                        List<Integer> newIdSequence = new ArrayList<>();
-
-                                        insertIdInNewSequence(newIdSequence, idSequenceToInsertRequest, l, requestId, m);
-                                        secondRoute.rebuild(newIdSequence, data);
-
-                                        actualizeSolution(solution, i, firstRoute);
-                                        actualizeSolution(solution, j, secondRoute);
-                                        secondRoute.setRoute((Route) secondRouteOriginal.clone());
-
-                                        long evaluationFunctionAfterMovement = solution.getEvaluationFunction();
-
-                                        if (evaluationFunctionAfterMovement < bestSolution.getEvaluationFunction()) {
-                                            bestSolution.setSolution((Solution) solution.clone());
-//                                            System.out.println(solution);
-                                        }
-                                        actualizeSolution(solution, i, firstRouteOriginal);
-                                        actualizeSolution(solution, j, secondRoute);
-                                    }
-                                }
-                                firstRoute.setRoute(firstRouteOriginal);
-                            }
-                        }
-                    }
-                }
-            }
-
-            if (bestSolution.getEvaluationFunction() < this.solution.getEvaluationFunction()) {
-                evaluateSolution(bestSolution);
-                bestSolution.removeEmptyRoutes();
-//                System.out.println(bestSolution);
-                this.solution = (Solution) bestSolution.clone();
-            } else {
-                canContinue = false;
-            }
-        }
-        return (Solution) this.solution.clone();
-    }
-
     private Solution requestReallocationTest() {
         boolean canContinue = true;
         while (canContinue) {
@@ -1101,88 +906,6 @@ public class VRPDRTSD implements Metaheuristic {
         return (Solution) this.solution.clone();
     }
 
-    private Solution optFirstImprovement() {
-
-        Solution solution = new Solution((Solution) this.solution.clone());
-        for (int i = 0; i < solution.getNumberOfRoutes(); i++) {
-            Route route = new Route(solution.getRoute(i));
-            Route initialRoute = new Route(solution.getRoute(i));
-            long evaluationFunctionBeforeMovement = solution.getEvaluationFunction();
-            for (int j = 1; j < route.getIntegerSequenceOfAttendedRequests().size() - 1; j++) {
-                for (int k = j + 1; k < route.getIntegerSequenceOfAttendedRequests().size(); k++) {
-                    List<Integer> reversedSequence = new ArrayList<>();
-                    List<Integer> idSequence = new ArrayList<>();
-                    idSequence.addAll(route.getIntegerSequenceOfAttendedRequests().subList(0, j));
-                    reversedSequence.addAll(route.getIntegerSequenceOfAttendedRequests().subList(j, k));
-                    Collections.reverse(reversedSequence);
-                    idSequence.addAll(reversedSequence);
-                    idSequence.addAll(route.getIntegerSequenceOfAttendedRequests().subList(k, route.getIntegerSequenceOfAttendedRequests().size()));
-
-                    route.rebuild(idSequence, data);
-                    actualizeSolution(solution, i, route);
-                    //System.out.println(solution);
-                    long evaluationFunctionAfterMovement = solution.getEvaluationFunction();
-                    if (evaluationFunctionAfterMovement >= evaluationFunctionBeforeMovement) {
-                        route.setRoute(initialRoute);
-                        actualizeSolution(solution, i, initialRoute);
-                    } else {
-                        return (Solution) solution.clone();
-//                            route.setRoute(initialRoute);
-//                            actualizeSolution(solution, i, initialRoute);
-//                            evaluationFunctionBeforeMovement = evaluationFunctionAfterMovement;
-                    }
-                }
-            }
-        }
-        if (solution.getEvaluationFunction() < this.solution.getEvaluationFunction()) {
-            return solution;
-        } else {
-            return this.solution;
-        }
-    }
-
-    private Solution optBestImprovement() {
-        boolean canContinue = true;
-        while (canContinue) {
-            Solution solution = new Solution((Solution) this.solution.clone());
-            for (int i = 0; i < solution.getNumberOfRoutes(); i++) {
-                Route route = new Route(solution.getRoute(i));
-                Route initialRoute = new Route(solution.getRoute(i));
-                long evaluationFunctionBeforeMovement = solution.getEvaluationFunction();
-                for (int j = 1; j < route.getIntegerSequenceOfAttendedRequests().size() - 1; j++) {
-                    for (int k = j + 1; k < route.getIntegerSequenceOfAttendedRequests().size(); k++) {
-                        List<Integer> reversedSequence = new ArrayList<>();
-                        List<Integer> idSequence = new ArrayList<>();
-                        idSequence.addAll(route.getIntegerSequenceOfAttendedRequests().subList(0, j));
-                        reversedSequence.addAll(route.getIntegerSequenceOfAttendedRequests().subList(j, k));
-                        Collections.reverse(reversedSequence);
-                        idSequence.addAll(reversedSequence);
-                        idSequence.addAll(route.getIntegerSequenceOfAttendedRequests().subList(k, route.getIntegerSequenceOfAttendedRequests().size()));
-
-                        route.rebuild(idSequence, data);
-                        actualizeSolution(solution, i, route);
-                        //System.out.println(solution);
-                        long evaluationFunctionAfterMovement = solution.getEvaluationFunction();
-                        if (evaluationFunctionAfterMovement > evaluationFunctionBeforeMovement) {
-                            route.setRoute(initialRoute);
-                            actualizeSolution(solution, i, initialRoute);
-                        } else {
-                            route.setRoute(initialRoute);
-                            actualizeSolution(solution, i, initialRoute);
-                            evaluationFunctionBeforeMovement = evaluationFunctionAfterMovement;
-                        }
-                    }
-                }
-            }
-            if (solution.getEvaluationFunction() < this.solution.getEvaluationFunction()) {
-                return solution;
-            } else {
-                return this.solution;
-            }
-        }
-        return (Solution) this.solution.clone();
-    }
-
     @Override
     public void perturbation(int typeOfPerturbation, int intensity) {
         switch (typeOfPerturbation) {
@@ -1222,9 +945,9 @@ public class VRPDRTSD implements Metaheuristic {
     }
 
     private List<Integer> generateTwoDiffentRouteRequests(Solution solution, int routeIndex) {
-        Random rnd = new Random();
+        Random rnd = random;
         List<Integer> indexes = new ArrayList<>();
-        int routeSize = solution.getRoute(routeIndex).getIntegerSequenceOfAttendedRequests().size();
+        int routeSize = solution.getRoute(routeIndex).getIdSequenceSize();
         int firstRequest, secondRequest;
         firstRequest = rnd.nextInt(routeSize - 2) + 1;
         do {
@@ -1237,10 +960,10 @@ public class VRPDRTSD implements Metaheuristic {
     }
 
     private List<Integer> generateTwoDiffentRouteRequests(Solution solution, int firstRouteIndex, int secondRouteIndex) {
-        Random rnd = new Random();
+        Random rnd = random;
         List<Integer> indexes = new ArrayList<>();
-        int firstRouteSize = solution.getRoute(firstRouteIndex).getIntegerSequenceOfAttendedRequests().size();
-        int secondRouteSize = solution.getRoute(secondRouteIndex).getIntegerSequenceOfAttendedRequests().size();
+        int firstRouteSize = solution.getRoute(firstRouteIndex).getIdSequenceSize();
+        int secondRouteSize = solution.getRoute(secondRouteIndex).getIdSequenceSize();
         int firstRequest, secondRequest;
         firstRequest = rnd.nextInt(firstRouteSize - 2) + 1;
         secondRequest = rnd.nextInt(secondRouteSize - 2) + 1;
@@ -1268,15 +991,15 @@ public class VRPDRTSD implements Metaheuristic {
         int firstRequestId = firstIdSequence.get(requestIndexes.get(0));
         int secondRequestId = secondIdSequence.get(requestIndexes.get(1));
 
-        solution.getRoute(firstRoute).replaceRequest(firstRequestId, secondRequestId, data);
-        solution.getRoute(secondRoute).replaceRequest(secondRequestId, firstRequestId, data);
+        solution.getRouteForUpdate(firstRoute).replaceRequest(firstRequestId, secondRequestId, data);
+        solution.getRouteForUpdate(secondRoute).replaceRequest(secondRequestId, firstRequestId, data);
         evaluateSolution(solution);
 
         return solution;
     }
 
     private List<Integer> generateTwoDiffentRouteIndexes(Solution solution) {
-        Random rnd = new Random();
+        Random rnd = random;
         List<Integer> indexes = new ArrayList<>();
         int totalRoutes = solution.getNumberOfRoutes();
         int firstRoute = 0, secondRoute = 0;
@@ -1293,7 +1016,7 @@ public class VRPDRTSD implements Metaheuristic {
     }
 
     private Integer generateRouteIndex(Solution solution) {
-        return new Random().nextInt(solution.getNumberOfRoutes());
+        return random.nextInt(solution.getNumberOfRoutes());
     }
 
     private Solution reallocateRequestPerturbation(int intensity) {
@@ -1329,8 +1052,8 @@ public class VRPDRTSD implements Metaheuristic {
 
                 insertRequestInRoute(newIdSequence, idSequenceToInsertRequest, firstIndex, requestId, secondIndex);
 
-                Route firstRoute = solution.getRoute(firstRouteIndex);
-                Route secondRoute = solution.getRoute(secondRouteIndex);
+                Route firstRoute = solution.getRouteForUpdate(firstRouteIndex);
+                Route secondRoute = solution.getRouteForUpdate(secondRouteIndex);
 
                 firstRoute.removeRequest(requestId, data);
                 secondRoute.rebuild(newIdSequence, data);
@@ -1360,7 +1083,7 @@ public class VRPDRTSD implements Metaheuristic {
     }
 
     private List<Integer> generateTwoDiffentRequestsToOneRoute(List<Integer> idSequence) {
-        Random rnd = new Random();
+        Random rnd = random;
         List<Integer> indexes = new ArrayList<>();
         int routeSize = idSequence.size();
         int firstRequest, secondRequest;
@@ -1384,7 +1107,7 @@ public class VRPDRTSD implements Metaheuristic {
 
     public Solution addMinutesInSolutionSchedulePerturbation(int intensity) {
         Solution solution = new Solution(this.solution);
-        Random rnd = new Random();
+        Random rnd = random;
         if (solution.getNumberOfRoutes() <= 0) {
             int k = 0;
         }
@@ -1400,7 +1123,7 @@ public class VRPDRTSD implements Metaheuristic {
 
     public Solution removeMinutesInSolutionSchedulePerturbation(int intensity) {
         Solution solution = new Solution(this.solution);
-        Random rnd = new Random();
+        Random rnd = random;
         if (solution.getNumberOfRoutes() <= 0) {
             int k = 0;
         }
@@ -1430,57 +1153,151 @@ public class VRPDRTSD implements Metaheuristic {
         int numberOfIterations = 100;
         int currentIteration = 0;
         Solution initialSolution = new Solution();
-        while (currentIteration < numberOfIterations) {
+        stoppingCriteria.start();
+        anytimeBestSolution.start();
+        while (currentIteration < numberOfIterations && runMustGoOn()) {
             buildRandomSolution();
             initialSolution.setSolution(this.getSolution());
             vnd();
             keepBestSolutionFound(initialSolution);
+            endIteration();
             currentIteration++;
         }
         System.out.println("final solution");
         System.out.println(initialSolution);
         initialSolution.printAllInformations();
+        printGranularPruningRatio();
     }
 
-    public void multiStartForExperiment() {
-        int numberOfExecutions = 30;
+    public List<Solution> multiStartForExperiment() {
+        return runExperiment("MultiStart", 30, (execution, seed) -> newSolver(seed).multiStartExecution(execution));
+    }
+
+    /**
+     * Runs the executions of the experiment with the experiment runner. The
+     * granular filter is built here, before the executions start, and its
+     * pruning ratio over all of them is printed at the end. Returns the best
+     * solutions of the executions, in their order.
+     */
+    private List<Solution> runExperiment(String algorithmName, int numberOfExecutions,
+            ExperimentRunner.Execution execution) {
+        GranularFilter filter = getGranularFilter();
+        if (filter != null) {
+            filter.resetStatistics();
+        }
+        List<Solution> bestSolutions = experimentRunner.run(algorithmName, instanceName, numberOfExecutions, execution);
+        printGranularPruningRatio();
+        return bestSolutions;
+    }
+
+    private Solution multiStartExecution(int execution) {
         int numberOfIterations = 100;
         String algorithmName = "MultiStart";
         Solution bestSolutionFound = new Solution();
-        DataOutput outputForBestSolutions = new DataOutput(algorithmName, instanceName);
-        int excludedNeighborhood = 6;
-        for (int execution = 0; execution < numberOfExecutions; execution++) {
+        DataOutput output = new DataOutput(algorithmName, instanceName, execution);
+        int currentIteration = 0;
+        Solution initialSolution = new Solution();
+        Solution bestSolution = new Solution();
+        buildRandomSolution();
+        bestSolution.setSolution(this.getSolution());
+        startRun();
+        //System.out.println("initial solution " + bestSolution);
+        while (currentIteration < numberOfIterations && runMustGoOn()) {
+            initialSolution.setSolution(this.getSolution());
+//            vnd();
+            localSearch(2);
+            //vndForLocalSearchInIls(excludedNeighborhood);
+            keepBestSolutionFound(initialSolution);
+            if (bestSolution.getEvaluationFunction() > solution.getEvaluationFunction()) {
+                bestSolution.setSolution(solution);
+                bestSolutionFound.setSolution(solution);
+            }
 
-            DataOutput output = new DataOutput(algorithmName, instanceName, execution);
-            int currentIteration = 0;
-            Solution initialSolution = new Solution();
-            Solution bestSolution = new Solution();
+            output.saveBestSolutionInTxtFile(bestSolutionFound, currentIteration);//alterei aqui
+            endIteration();
+            currentIteration++;
             buildRandomSolution();
-            bestSolution.setSolution(this.getSolution());
-            //System.out.println("initial solution " + bestSolution);
-            while (currentIteration < numberOfIterations) {
-                initialSolution.setSolution(this.getSolution());
-//                vnd();
-                localSearch(2);
-                //vndForLocalSearchInIls(excludedNeighborhood);
-                keepBestSolutionFound(initialSolution);
-                if (bestSolution.getEvaluationFunction() > solution.getEvaluationFunction()) {
-                    bestSolution.setSolution(solution);
-                    bestSolutionFound.setSolution(solution);
-                }
-
-                output.saveBestSolutionInTxtFile(bestSolutionFound, currentIteration);//alterei aqui
-                currentIteration++;
-                buildRandomSolution();
+        }
+        return bestSolutionFound;
+    }
+
+    /**
+     * Runs the starts of the multi-start, each one a random solution and a VND
+     * on it, on a number of threads. Every thread has its own solver on the
+     * shared instance, so it has its own search context, and takes the next
+     * start as soon as it ends one. The random solution of a start comes from
+     * its own seed, drawn from the seed of the run, so the best solution does
+     * not depend on the number of threads. The threads publish their
+     * improvements to the anytime best solution and count their starts on the
+     * stopping criteria, which stop every thread once they are satisfied.
+     */
+    public Solution parallelMultiStart(int numberOfStarts, int numberOfThreads, long seed) {
+        int[] seeds = new Random(seed).ints(numberOfStarts).toArray();
+        AtomicInteger nextStart = new AtomicInteger();
+        stoppingCriteria.start();
+        anytimeBestSolution.start();
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            List<Future<StartResult>> results = new ArrayList<>();
+            for (int i = 0; i < numberOfThreads; i++) {
+                VRPDRTSD worker = newSolver(seed);
+                results.add(executor.submit(() -> worker.runStarts(seeds, nextStart, this)));
             }
-//            outputForBestSolutions.saveBestSolutionFoundInTxtFile(initialSolution);
-            outputForBestSolutions.saveBestSolutionFoundInTxtFile(bestSolutionFound);
-            //System.out.println("final solution");
-//            System.out.println(initialSolution);
-            System.out.println(bestSolutionFound);
-            //bestSolutionFound.printAllInformations();
+            StartResult bestResult = null;
+            for (Future<StartResult> result : results) {
+                bestResult = StartResult.best(bestResult, result.get());
+            }
+            if (bestResult != null) {
+                this.solution = bestResult.solution;
+            }
+            return this.solution;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            executor.shutdownNow();
         }
+    }
 
+    /**
+     * Returns a solver on the same instance, with its own search context and
+     * random numbers from the seed, and the settings of this one. The granular
+     * filter only reads the instance, so it is shared.
+     */
+    public VRPDRTSD newSolver(long seed) {
+        if (instanceData == null) {
+            throw new IllegalStateException("The instance was not read");
+        }
+        VRPDRTSD solver = new VRPDRTSD(instanceData);
+        solver.localSearchType = localSearchType;
+        solver.useDontLookBits = useDontLookBits;
+        solver.numberOfCandidates = numberOfCandidates;
+        solver.granularFilter = getGranularFilter();
+        solver.granularFilterData = instanceData;
+        solver.stoppingCriteria = stoppingCriteria.copy();
+        solver.setSeed(seed);
+        return solver;
+    }
+
+    /**
+     * Runs starts until they end or the run stops. The construction changes
+     * the requests of the search context, so each start has a new one, and a
+     * start gives the same solution whichever thread runs it.
+     */
+    private StartResult runStarts(int[] seeds, AtomicInteger nextStart, VRPDRTSD run) {
+        StartResult bestResult = null;
+        int start;
+        while (run.runMustGoOn() && (start = nextStart.getAndIncrement()) < seeds.length) {
+            refreshInstanceData();
+            buildRandomSolutionWithSeed(seeds[start]);
+            vnd();
+            bestResult = StartResult.best(bestResult, new StartResult(start, new Solution(solution)));
+            run.anytimeBestSolution.update(solution);
+            run.stoppingCriteria.countIteration(run.anytimeBestSolution.getEvaluationFunction());
+        }
+        return bestResult;
     }
 
     @Override
@@ -1494,18 +1311,19 @@ public class VRPDRTSD implements Metaheuristic {
         int initialTemperature = 70000; // worst objective function in 10 random neighborhoods
         double currentTemperature = initialTemperature;
         double alpha = 0.70;
-        Random rnd = new Random();
+        Random rnd = random;
+        startRun();
 
-        while (currentTemperature > 0.01) {
-            while (currentIteration < numberOfIterations) {
+        while (currentTemperature > 0.01 && runMustGoOn()) {
+            while (currentIteration < numberOfIterations && runMustGoOn()) {
                 currentIteration++;
                 Solution solutionBefore = new Solution(solution);
                 generateRandomNeighborhood(rnd, numberOfMovements);
                 long delta = solution.getEvaluationFunction() - solutionBefore.getEvaluationFunction();
                 //vnd();
                 localSearch(2);
-                System.out.println(solution);
                 keepBestSolutionFound(bestSolutionFound);
+                endIteration();
 
                 if (delta < 0) {
                     solutionBefore.setSolution(solution);
@@ -1527,62 +1345,126 @@ public class VRPDRTSD implements Metaheuristic {
         bestSolutionFound.printAllInformations();
     }
 
-    public void simulatedAnnealingForExperiment() {
-        int numberOfExecutions = 3;
+    public List<Solution> simulatedAnnealingForExperiment() {
+        return runExperiment("SimulatedAnnealing", 3, (execution, seed) -> newSolver(seed).simulatedAnnealingExecution(execution));
+    }
+
+    private Solution simulatedAnnealingExecution(int execution) {
         int numberOfIterations = 100;
         int numberOfMovements = 4;
         String algorithmName = "SimulatedAnnealing";
-        DataOutput outputForBestSolutions = new DataOutput(algorithmName, instanceName);
-        for (int execution = 0; execution < numberOfExecutions; execution++) {
-            refreshInstanceData();
-            buildGreedySolution();
-            Solution bestSolution = new Solution(solution);
-            Solution bestSolutionFound = new Solution(solution);
-            int currentIteration = 0;
-            int initialTemperature = 50000; // worst objective function in 10 random neighborhoods
-            double currentTemperature = initialTemperature;
-            double alpha = 0.70;
-            Random rnd = new Random();
-            DataOutput output = new DataOutput(algorithmName, instanceName, execution);
+        buildGreedySolution();
+        Solution bestSolution = new Solution(solution);
+        Solution bestSolutionFound = new Solution(solution);
+        int currentIteration = 0;
+        int initialTemperature = 50000; // worst objective function in 10 random neighborhoods
+        double currentTemperature = initialTemperature;
+        double alpha = 0.70;
+        Random rnd = random;
+        DataOutput output = new DataOutput(algorithmName, instanceName, execution);
+        startRun();
 
-            while (currentTemperature > 0.01) {
-                while (currentIteration < numberOfIterations) {
-                    currentIteration++;
-                    Solution solutionBefore = new Solution(solution);
-                    generateRandomNeighborhood(rnd, numberOfMovements);
-                    long delta = solution.getEvaluationFunction() - solutionBefore.getEvaluationFunction();
-                    //localSearch(6);
-                    localSearch(2);
-                    //vnd();
-                    System.out.println(currentTemperature + "\t" + solution);
-                    keepBestSolutionFound(bestSolutionFound);
-
-                    if (delta < 0) {
-                        solutionBefore.setSolution(solution);
-                        if (solutionBefore.getEvaluationFunction() < bestSolution.getEvaluationFunction()) {
-                            bestSolution.setSolution(solution);
-                        }
+        while (currentTemperature > 0.01 && runMustGoOn()) {
+            while (currentIteration < numberOfIterations && runMustGoOn()) {
+                currentIteration++;
+                Solution solutionBefore = new Solution(solution);
+                generateRandomNeighborhood(rnd, numberOfMovements);
+                long delta = solution.getEvaluationFunction() - solutionBefore.getEvaluationFunction();
+                //localSearch(6);
+                localSearch(2);
+                //vnd();
+                keepBestSolutionFound(bestSolutionFound);
+                endIteration();
 
-                    } else {
-                        double x = rnd.nextDouble();
-                        if (x < Math.pow(Math.E, (-delta / currentTemperature))) {
-                            solutionBefore.setSolution(solution);
-                        }
+                if (delta < 0) {
+                    solutionBefore.setSolution(solution);
+                    if (solutionBefore.getEvaluationFunction() < bestSolution.getEvaluationFunction()) {
+                        bestSolution.setSolution(solution);
                     }
-                }
-                currentTemperature = alpha * currentTemperature;
-                currentIteration = 0;
-                output.saveBestSolutionInTxtFile(bestSolution, currentIteration);
 
+                } else {
+                    double x = rnd.nextDouble();
+                    if (x < Math.pow(Math.E, (-delta / currentTemperature))) {
+                        solutionBefore.setSolution(solution);
+                    }
+                }
             }
-            outputForBestSolutions.saveBestSolutionFoundInTxtFile(bestSolution);
-            System.out.println("Best Solution Found");
-            System.out.println(bestSolutionFound);
+            currentTemperature = alpha * currentTemperature;
+            currentIteration = 0;
+            output.saveBestSolutionInTxtFile(bestSolution, currentIteration);
+
         }
+        return bestSolution;
+    }
+
+    public StoppingCriteria getStoppingCriteria() {
+        return stoppingCriteria;
+    }
+
+    /**
+     * Sets the time budget, target and stagnation limit that stop the runs of
+     * the metaheuristics before their iterations end. In the experiments they
+     * apply to each execution.
+     */
+    public void setStoppingCriteria(StoppingCriteria stoppingCriteria) {
+        this.stoppingCriteria = stoppingCriteria;
+    }
+
+    /**
+     * Returns the best solution of the current run of a metaheuristic, which
+     * can be read by other threads while the run goes on.
+     */
+    public AnytimeBestSolution getAnytimeBestSolution() {
+        return anytimeBestSolution;
+    }
+
+    /**
+     * Sets the seed of the random numbers of the constructions, perturbations
+     * and metaheuristics, so a run can be repeated.
+     */
+    public void setSeed(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public ExperimentRunner getExperimentRunner() {
+        return experimentRunner;
+    }
+
+    /**
+     * Sets the runner of the executions of the experiments, which may run
+     * them at the same time, each one on its own solver.
+     */
+    public void setExperimentRunner(ExperimentRunner experimentRunner) {
+        this.experimentRunner = experimentRunner;
+    }
+
+    private void startRun() {
+        stoppingCriteria.start();
+        anytimeBestSolution.start();
+        anytimeBestSolution.update(solution);
+    }
+
+    /**
+     * Offers the current solution to the anytime best solution and counts the
+     * iteration for the stagnation limit.
+     */
+    private void endIteration() {
+        anytimeBestSolution.update(solution);
+        stoppingCriteria.countIteration(anytimeBestSolution.getEvaluationFunction());
+    }
+
+    private boolean runMustGoOn() {
+        return !stoppingCriteria.isSatisfied();
     }
 
+    /**
+     * Starts a new search context on the instance, which is only read again if
+     * it was never read.
+     */
     private void refreshInstanceData() {
-        if (this.excelDataFilesPath != null) {
+        if (this.instanceData != null) {
+            this.data = new ProblemData(this.instanceData);
+        } else if (this.excelDataFilesPath != null) {
             this.readExcelInstance();
         } else {
             this.readInstance();
@@ -1612,10 +1494,9 @@ public class VRPDRTSD implements Metaheuristic {
         int currentNeighborhood = neighborhoods.get(currentIndex);
         int lastNeighborhood = neighborhoods.get(neighborhoods.size() - 1);
         while (currentNeighborhood <= lastNeighborhood) {
-            localSearch(currentNeighborhood);
+            localSearch(currentNeighborhood, getVndNeighborhoods());
             if (solution.getEvaluationFunction() < initialSolution.getEvaluationFunction()) {
                 initialSolution.setSolution(solution);
-                System.out.println(initialSolution);
                 currentIndex = 0;
                 currentNeighborhood = neighborhoods.get(0);
             } else {
@@ -1633,7 +1514,7 @@ public class VRPDRTSD implements Metaheuristic {
         int currentNeighborhood = neighborhoods.get(currentIndex);
         int lastNeighborhood = neighborhoods.get(neighborhoods.size() - 1);
         while (currentNeighborhood <= lastNeighborhood) {
-            localSearch(currentNeighborhood);
+            localSearch(currentNeighborhood, getVndNeighborhoods());
             if (solution.getEvaluationFunction() < initialSolution.getEvaluationFunction()) {
                 initialSolution.setSolution(solution);
                 currentIndex = 0;
@@ -1656,7 +1537,7 @@ public class VRPDRTSD implements Metaheuristic {
         int currentNeighborhood = neighborhoods.get(currentIndex);
         int lastNeighborhood = neighborhoods.get(neighborhoods.size() - 1);
         while (currentNeighborhood <= lastNeighborhood) {
-            localSearch(currentNeighborhood);
+            localSearch(currentNeighborhood, getVndNeighborhoods());
             if (solution.getEvaluationFunction() < initialSolution.getEvaluationFunction()) {
                 //System.out.println("melhor dentro do vnd");
                 initialSolution.setSolution(solution);
@@ -1679,7 +1560,7 @@ public class VRPDRTSD implements Metaheuristic {
         int currentNeighborhood = neighborhoods.get(currentIndex);
         int lastNeighborhood = neighborhoods.get(neighborhoods.size() - 1);
         while (currentNeighborhood <= lastNeighborhood) {
-            localSearch(currentNeighborhood);
+            localSearch(currentNeighborhood, getVndNeighborhoods());
             if (solution.getEvaluationFunction() < initialSolution.getEvaluationFunction()) {
                 initialSolution.setSolution(solution);
                 return initialSolution;
@@ -1738,12 +1619,14 @@ public class VRPDRTSD implements Metaheuristic {
         int lastNeighborhood = neighborhoods.get(neighborhoods.size() - 1);
         buildGreedySolution();
         Solution bestSolution = new Solution(solution);
-        while (currentIteration < numberOfIterations) {
+        startRun();
+        while (currentIteration < numberOfIterations && runMustGoOn()) {
             currentNeighborhood = 1;
             //System.out.println(solution);
-            while (currentNeighborhood <= lastNeighborhood) {
+            while (currentNeighborhood <= lastNeighborhood && runMustGoOn()) {
                 perturbation(2, 1);
                 vndForLocalSearchInVns(excludedNeighborhood);
+                endIteration();
 //                System.out.println(solution);
                 if (bestSolution.getEvaluationFunction() > solution.getEvaluationFunction()) {
                     bestSolution.setSolution(solution);
@@ -1762,11 +1645,13 @@ public class VRPDRTSD implements Metaheuristic {
         //bestSolution.printAllInformations();
     }
 
-    public void vnsForExperiment() {
-        int numberOfExecutions = 30;
+    public List<Solution> vnsForExperiment() {
+        return runExperiment("VNS", 30, (execution, seed) -> newSolver(seed).vnsExecution(execution));
+    }
+
+    private Solution vnsExecution(int execution) {
         int numberOfIterations = 100;
         String algorithmName = "VNS";
-        DataOutput outputForBestSolutions = new DataOutput(algorithmName, instanceName);
 
         int numberOfNeighborhoods = 6;
         int excludedNeighborhood = 5;
@@ -1774,38 +1659,36 @@ public class VRPDRTSD implements Metaheuristic {
         List<Integer> neighborhoods = generateNeighborhoodList(numberOfNeighborhoods, localSearchType, excludedNeighborhood);
         int lastNeighborhood = neighborhoods.get(neighborhoods.size() - 1);
 
-        for (int execution = 0; execution < numberOfExecutions; execution++) {
-            refreshInstanceData();
-            int currentIteration = 0;
-            DataOutput output = new DataOutput(algorithmName, instanceName, execution);
-            buildGreedySolution();
-            Solution bestSolution = new Solution(solution);
-            Solution bestSolutionFound = new Solution();
-            while (currentIteration < numberOfIterations) {
-                currentNeighborhood = 1;
-
-                while (currentNeighborhood <= lastNeighborhood) {
-                    perturbation(5, 1);
-                    //solution.setSolution(vndForLocalSearchInVnsFirstImprovement(excludedNeighborhood));
-                    vndForLocalSearchInVns(excludedNeighborhood);
-                    //System.out.println(solution);
-                    if (bestSolution.getEvaluationFunction() > solution.getEvaluationFunction()) {
-                        bestSolution.setSolution(solution);
-                        bestSolutionFound.setSolution(solution);
-                        //System.out.println(bestSolution);
-                        currentNeighborhood = 1;
-                    } else {
-                        currentNeighborhood = currentNeighborhood + 2;
-                        solution.setSolution(bestSolution);
-                    }
+        int currentIteration = 0;
+        DataOutput output = new DataOutput(algorithmName, instanceName, execution);
+        buildGreedySolution();
+        Solution bestSolution = new Solution(solution);
+        Solution bestSolutionFound = new Solution();
+        startRun();
+        while (currentIteration < numberOfIterations && runMustGoOn()) {
+            currentNeighborhood = 1;
 
+            while (currentNeighborhood <= lastNeighborhood && runMustGoOn()) {
+                perturbation(5, 1);
+                //solution.setSolution(vndForLocalSearchInVnsFirstImprovement(excludedNeighborhood));
+                vndForLocalSearchInVns(excludedNeighborhood);
+                endIteration();
+                //System.out.println(solution);
+                if (bestSolution.getEvaluationFunction() > solution.getEvaluationFunction()) {
+                    bestSolution.setSolution(solution);
+                    bestSolutionFound.setSolution(solution);
+                    //System.out.println(bestSolution);
+                    currentNeighborhood = 1;
+                } else {
+                    currentNeighborhood = currentNeighborhood + 2;
+                    solution.setSolution(bestSolution);
                 }
-                output.saveBestSolutionInTxtFile(bestSolutionFound, currentIteration);
-                currentIteration++;
+
             }
-            System.out.println(bestSolution);
-            outputForBestSolutions.saveBestSolutionFoundInTxtFile(bestSolution);
+            output.saveBestSolutionInTxtFile(bestSolutionFound, currentIteration);
+            currentIteration++;
         }
+        return bestSolution;
     }
 
     public void vnsTest() {
@@ -1867,9 +1750,11 @@ public class VRPDRTSD implements Metaheuristic {
         buildGreedySolution();
         vndForLocalSearchInVns(excludedNeighborhood);
         Solution bestSolution = new Solution(solution);
-        while (currentIteration < numberOfIterations) {
+        startRun();
+        while (currentIteration < numberOfIterations && runMustGoOn()) {
             perturbation(5, 1);
             vndForLocalSearchInIls(excludedNeighborhood);
+            endIteration();
             if (bestSolution.getEvaluationFunction() > solution.getEvaluationFunction()) {
                 bestSolution.setSolution(solution);
                 numberOfIterationsWithoutImprovement = 0;
@@ -1888,51 +1773,76 @@ public class VRPDRTSD implements Metaheuristic {
         this.solution.setSolution(bestSolution);
     }
 
-    public void ilsForExperiment() {
-        int numberOfExecutions = 30;
+    public List<Solution> ilsForExperiment() {
+        return runExperiment("ILS", 30, (execution, seed) -> newSolver(seed).ilsExecution(execution));
+    }
+
+    private Solution ilsExecution(int execution) {
         String algorithmName = "ILS";
         int numberOfIterations = 200;
-
         int excludedNeighborhood = 6;
+        int currentIteration = 0;
+        int intensity = 1;
+        int MAX_INTENSITY = 3;
+        int MAX_ITERATIONS_WITHOUT_IMPROVEMENT = 20;
+        int numberOfIterationsWithoutImprovement = 0;
+        buildGreedySolution();
+        vndForLocalSearchInIls(excludedNeighborhood);
+        Solution bestSolution = new Solution(solution);
+        startRun();
 
-        DataOutput outputForBestSolutions = new DataOutput(algorithmName, instanceName);
-
-        for (int execution = 0; execution < numberOfExecutions; execution++) {
-            int currentIteration = 0;
-            int intensity = 1;
-            int MAX_INTENSITY = 3;
-            int MAX_ITERATIONS_WITHOUT_IMPROVEMENT = 20;
-            int numberOfIterationsWithoutImprovement = 0;
-            refreshInstanceData();
-            buildGreedySolution();
+        DataOutput output = new DataOutput(algorithmName, instanceName, execution);
+        while (currentIteration < numberOfIterations && runMustGoOn()) {
+            perturbation(5, 1);
             vndForLocalSearchInIls(excludedNeighborhood);
-            Solution bestSolution = new Solution(solution);
-
-            DataOutput output = new DataOutput(algorithmName, instanceName, execution);
-            while (currentIteration < numberOfIterations) {
-                perturbation(5, 1);
-                vndForLocalSearchInIls(excludedNeighborhood);
-                if (bestSolution.getEvaluationFunction() > solution.getEvaluationFunction()) {
-                    bestSolution.setSolution(solution);
-                    numberOfIterationsWithoutImprovement = 0;
-                } else {
-                    solution.setSolution(bestSolution);
-                    numberOfIterationsWithoutImprovement++;
-                }
-                if (numberOfIterationsWithoutImprovement == MAX_ITERATIONS_WITHOUT_IMPROVEMENT && intensity <= MAX_INTENSITY) {
-                    intensity++;
-                }
-                output.saveBestSolutionInTxtFile(bestSolution, currentIteration);
-                currentIteration++;
+            endIteration();
+            if (bestSolution.getEvaluationFunction() > solution.getEvaluationFunction()) {
+                bestSolution.setSolution(solution);
+                numberOfIterationsWithoutImprovement = 0;
+            } else {
+                solution.setSolution(bestSolution);
+                numberOfIterationsWithoutImprovement++;
             }
-            System.out.println("exec = " + execution + "\t" + bestSolution);
-            outputForBestSolutions.saveBestSolutionFoundInTxtFile(bestSolution);
+            if (numberOfIterationsWithoutImprovement == MAX_ITERATIONS_WITHOUT_IMPROVEMENT && intensity <= MAX_INTENSITY) {
+                intensity++;
+            }
+            output.saveBestSolutionInTxtFile(bestSolution, currentIteration);
+            currentIteration++;
         }
-
+        return bestSolution;
     }
 
     @Override
     public void tabuSearch() {
 
     }
+
+    /**
+     * The best solution of the starts run by a thread. Ties are broken by the
+     * first start, so the best of the run is the same in any order.
+     */
+    private static final class StartResult {
+
+        private final int start;
+        private final Solution solution;
+
+        private StartResult(int start, Solution solution) {
+            this.start = start;
+            this.solution = solution;
+        }
+
+        private static StartResult best(StartResult first, StartResult second) {
+            if (first == null) {
+                return second;
+            }
+            if (second == null) {
+                return first;
+            }
+            long difference = first.solution.getEvaluationFunction() - second.solution.getEvaluationFunction();
+            if (difference < 0 || (difference == 0 && first.start < second.start)) {
+                return first;
+            }
+            return second;
+        }
+    }
 }
@@ -0,0 +1,170 @@
+package Algorithms;
+
+import InstanceReader.DataOutput;
+import ProblemRepresentation.*;
+import VRPDRTSD.VRPDRTSD;
+import java.io.*;
+import java.util.*;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class IslandGeneticAlgorithmTest {
+
+    private final InstanceData instanceData = InstanceDataFixture.createInstanceData(7, 8, 12, 12, 4);
+    private final String resultsDirectory = DataOutput.getResultsDirectory();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void restoreResultsDirectory() {
+        DataOutput.setResultsDirectory(resultsDirectory);
+    }
+
+    private GeneticAlgorithm createGeneticAlgorithm() {
+        return new GeneticAlgorithm(new VRPDRTSD(instanceData))
+                .setPopulationSize(12)
+                .setNumberOfGenerations(1000)
+                .setCrossOverProbability(0.7)
+                .setMutationProbabilty(0.02);
+    }
+
+    private IslandGeneticAlgorithm createIslands(IslandGeneticAlgorithm.Topology topology) {
+        IslandGeneticAlgorithm islandAlgorithm = new IslandGeneticAlgorithm(createGeneticAlgorithm())
+                .setNumberOfIslands(3)
+                .setNumberOfMigrants(2)
+                .setMigrationQueueCapacity(8)
+                .setTopology(topology)
+                .setSeed(1);
+        islandAlgorithm.createIslands();
+        islandAlgorithm.getIslands().forEach(GeneticAlgorithm::initializeDiversePopulation);
+        return islandAlgorithm;
+    }
+
+    @Test
+    public void ringTopologySendsTheMigrantsToTheNextIslandTest() {
+        IslandGeneticAlgorithm islandAlgorithm = createIslands(IslandGeneticAlgorithm.Topology.RING);
+        assertEquals(Arrays.asList(1), islandAlgorithm.getNeighbors(0));
+        assertEquals(Arrays.asList(0), islandAlgorithm.getNeighbors(2));
+
+        islandAlgorithm.migrate(0, islandAlgorithm.getIslands().get(0));
+        assertEquals(0, islandAlgorithm.getMigrationQueue(0).size());
+        assertEquals(2, islandAlgorithm.getMigrationQueue(1).size());
+        assertEquals(0, islandAlgorithm.getMigrationQueue(2).size());
+
+        islandAlgorithm.migrate(1, islandAlgorithm.getIslands().get(1));
+        assertEquals(0, islandAlgorithm.getMigrationQueue(1).size());
+        assertEquals(2, islandAlgorithm.getMigrationQueue(2).size());
+        assertEquals(4, islandAlgorithm.getIslands().get(1).getPopulation().size());
+    }
+
+    @Test
+    public void fullyConnectedTopologySendsTheMigrantsToEveryOtherIslandTest() {
+        IslandGeneticAlgorithm islandAlgorithm = createIslands(IslandGeneticAlgorithm.Topology.FULLY_CONNECTED);
+        assertEquals(Arrays.asList(0, 2), islandAlgorithm.getNeighbors(1));
+
+        islandAlgorithm.migrate(0, islandAlgorithm.getIslands().get(0));
+        assertEquals(0, islandAlgorithm.getMigrationQueue(0).size());
+        assertEquals(2, islandAlgorithm.getMigrationQueue(1).size());
+        assertEquals(2, islandAlgorithm.getMigrationQueue(2).size());
+
+        islandAlgorithm.migrate(2, islandAlgorithm.getIslands().get(2));
+        assertEquals(2, islandAlgorithm.getMigrationQueue(0).size());
+        assertEquals(4, islandAlgorithm.getMigrationQueue(1).size());
+        assertEquals(0, islandAlgorithm.getMigrationQueue(2).size());
+    }
+
+    @Test
+    public void bestIndividualsEmigrateAndReplaceTheWorstTest() {
+        GeneticAlgorithm algorithm = createGeneticAlgorithm().setPopulationSize(4).setSeed(1);
+        VRPDRTSD problem = algorithm.getProblem();
+        algorithm.initializePopulation();
+        List<EvolutionarySolution> population = algorithm.getPopulation();
+        for (int i = 0; i < population.size(); i++) {
+            problem.buildRandomSolutionWithSeed(i + 1);
+            population.set(i, new EvolutionarySolution(problem.getSolution()));
+        }
+        EvolutionarySolution best = Collections.min(population,
+                Comparator.comparing(EvolutionarySolution::getEvaluationFunction));
+        EvolutionarySolution worst = Collections.max(population,
+                Comparator.comparing(EvolutionarySolution::getEvaluationFunction));
+        int worstPosition = population.indexOf(worst);
+
+        List<List<List<Integer>>> emigrants = algorithm.emigrate(2);
+        assertEquals(2, emigrants.size());
+        assertEquals(best.getNumberOfRoutes(), emigrants.get(0).size());
+
+        problem.buildGreedySolution();
+        problem.vnd();
+        Solution improved = problem.getSolution();
+        List<List<Integer>> immigrant = new ArrayList<>();
+        for (Route route : improved.getRoutes()) {
+            List<Integer> idSequence = new ArrayList<>(route.getIntegerSequenceOfAttendedRequests());
+            idSequence.removeIf(id -> id == 0);
+            idSequence.add(0, 0);
+            idSequence.add(0);
+            immigrant.add(idSequence);
+        }
+        immigrant.add(Arrays.asList(0, 0));
+
+        algorithm.immigrate(immigrant);
+        assertEquals(4, population.size());
+        assertFalse(population.contains(worst));
+        assertEquals(improved.getEvaluationFunction(), population.get(worstPosition).getEvaluationFunction());
+        assertEquals(improved.getNumberOfRoutes(), population.get(worstPosition).getNumberOfRoutes());
+    }
+
+    @Test
+    public void islandsStartFromTheirOwnIndividualsTest() {
+        IslandGeneticAlgorithm islandAlgorithm = createIslands(IslandGeneticAlgorithm.Topology.RING);
+        Set<List<Integer>> individuals = new HashSet<>();
+        for (GeneticAlgorithm island : islandAlgorithm.getIslands()) {
+            for (EvolutionarySolution individual : island.getPopulation()) {
+                individual.buildIntegerRepresentation();
+                individuals.add(individual.getIntegerRepresentation());
+            }
+        }
+        assertTrue(individuals.size() > islandAlgorithm.getNumberOfIslands());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void migrationIntervalBelowOneIsRejectedTest() {
+        new IslandGeneticAlgorithm(createGeneticAlgorithm()).setMigrationInterval(0);
+    }
+
+    @Test
+    public void runEndsOnTheStoppingCriteriaTest() throws IOException {
+        DataOutput.setResultsDirectory(folder.newFolder("results").getPath());
+        GeneticAlgorithm algorithm = createGeneticAlgorithm()
+                .setStoppingCriteria(new StoppingCriteria().setStagnationLimit(3));
+        IslandGeneticAlgorithm islandAlgorithm = new IslandGeneticAlgorithm(algorithm)
+                .setNumberOfIslands(2)
+                .setMigrationInterval(2)
+                .setSeed(1);
+        PrintStream console = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed));
+        try {
+            islandAlgorithm.run();
+        } finally {
+            System.setOut(console);
+        }
+        assertEquals("", printed.toString());
+
+        for (GeneticAlgorithm island : islandAlgorithm.getIslands()) {
+            assertTrue(island.getCurrentGeneration() >= 3);
+            assertTrue(island.getCurrentGeneration() < algorithm.getNumberOfGenerations());
+            assertTrue(island.getBestIndividual().getEvaluationFunction()
+                    >= islandAlgorithm.getBestIndividual().getEvaluationFunction());
+        }
+        assertEquals(islandAlgorithm.getBestIndividual().getEvaluationFunction(),
+                islandAlgorithm.getAnytimeBestSolution().getEvaluationFunction());
+    }
+}
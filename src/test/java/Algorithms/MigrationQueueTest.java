@@ -0,0 +1,27 @@
+package Algorithms;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class MigrationQueueTest {
+
+    @Test
+    public void migrantsAreDroppedWhenTheQueueIsFullTest() {
+        MigrationQueue<Integer> queue = new MigrationQueue<>(2);
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertFalse(queue.offer(3));
+        assertEquals(1, queue.getDroppedMigrants());
+
+        assertEquals(1, (int) queue.poll());
+        assertTrue(queue.offer(4));
+        assertEquals(2, (int) queue.poll());
+        assertEquals(4, (int) queue.poll());
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+}
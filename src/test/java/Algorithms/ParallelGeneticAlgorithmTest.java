@@ -0,0 +1,59 @@
+package Algorithms;
+
+import ProblemRepresentation.*;
+import VRPDRTSD.VRPDRTSD;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class ParallelGeneticAlgorithmTest {
+
+    private final InstanceData instanceData = InstanceDataFixture.createInstanceData(7, 8, 12, 12, 4);
+
+    private GeneticAlgorithm createGeneticAlgorithm(ForkJoinPool offspringPool) {
+        return new GeneticAlgorithm(new VRPDRTSD(instanceData))
+                .setPopulationSize(10)
+                .setNumberOfGenerations(10)
+                .setCrossOverProbability(0.7)
+                .setMutationProbabilty(0.5)
+                .setOffspringPool(offspringPool)
+                .setSeed(1);
+    }
+
+    @Test
+    public void generationDoesNotDependOnTheNumberOfThreadsTest() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            GeneticAlgorithm sequential = createGeneticAlgorithm(null);
+            GeneticAlgorithm parallel = createGeneticAlgorithm(pool);
+            sequential.initializePopulation();
+            parallel.initializePopulation();
+            assertSamePopulation(sequential.getPopulation(), parallel.getPopulation());
+
+            for (int generation = 0; generation < 3; generation++) {
+                sequential.evolveGeneration();
+                parallel.evolveGeneration();
+                assertSamePopulation(sequential.getPopulation(), parallel.getPopulation());
+                assertEquals(sequential.getBestIndividual().getEvaluationFunction(),
+                        parallel.getBestIndividual().getEvaluationFunction());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void assertSamePopulation(List<EvolutionarySolution> expected, List<EvolutionarySolution> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            expected.get(i).buildIntegerRepresentation();
+            actual.get(i).buildIntegerRepresentation();
+            assertEquals(expected.get(i).getEvaluationFunction(), actual.get(i).getEvaluationFunction());
+            assertEquals(expected.get(i).getIntegerRepresentation(), actual.get(i).getIntegerRepresentation());
+        }
+    }
+}
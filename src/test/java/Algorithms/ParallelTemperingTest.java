@@ -0,0 +1,116 @@
+package Algorithms;
+
+import InstanceReader.DataOutput;
+import ProblemRepresentation.*;
+import VRPDRTSD.VRPDRTSD;
+import java.io.IOException;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class ParallelTemperingTest {
+
+    private final String resultsDirectory = DataOutput.getResultsDirectory();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void restoreResultsDirectory() {
+        DataOutput.setResultsDirectory(resultsDirectory);
+    }
+
+    @Test
+    public void temperaturesAreAGeometricLadderTest() {
+        ParallelTempering parallelTempering = new ParallelTempering(null)
+                .setNumberOfReplicas(4)
+                .setMinimumTemperature(10)
+                .setMaximumTemperature(10000);
+        double[] temperatures = parallelTempering.getTemperatures();
+        assertEquals(4, temperatures.length);
+        assertEquals(10, temperatures[0], 1e-9);
+        assertEquals(100, temperatures[1], 1e-9);
+        assertEquals(1000, temperatures[2], 1e-9);
+        assertEquals(10000, temperatures[3], 1e-9);
+    }
+
+    @Test
+    public void oneReplicaRunsAtTheMinimumTemperatureTest() {
+        ParallelTempering parallelTempering = new ParallelTempering(null)
+                .setNumberOfReplicas(1)
+                .setMinimumTemperature(10)
+                .setMaximumTemperature(10000);
+        assertArrayEquals(new double[]{10}, parallelTempering.getTemperatures(), 1e-9);
+        assertEquals(0, parallelTempering.getSwapAcceptanceRates().length);
+    }
+
+    @Test
+    public void swapIsAlwaysAcceptedWhenTheColderReplicaIsWorseTest() {
+        Random noRandomNumbers = new Random() {
+            @Override
+            public double nextDouble() {
+                fail("The swap must be accepted without drawing a random number");
+                return 1;
+            }
+        };
+        assertTrue(ParallelTempering.acceptsSwap(10, 1000, 500, 400, noRandomNumbers));
+        assertTrue(ParallelTempering.acceptsSwap(10, 1000, 500, 0, noRandomNumbers));
+        assertTrue(ParallelTempering.acceptsSwap(10, 1000, 500, 500, noRandomNumbers));
+    }
+
+    @Test
+    public void swapToAWorseColderSolutionFollowsTheMetropolisRuleTest() {
+        double probability = Math.exp((1.0 / 1000 - 1.0 / 10) * 10);
+        assertTrue(ParallelTempering.acceptsSwap(10, 1000, 400, 410, fixedRandom(probability / 2)));
+        assertFalse(ParallelTempering.acceptsSwap(10, 1000, 400, 410, fixedRandom(probability)));
+        assertFalse(ParallelTempering.acceptsSwap(10, 1000, 400, 100000, fixedRandom(0.000001)));
+    }
+
+    @Test
+    public void runWithAFixedSeedIsReproducedTest() throws IOException {
+        DataOutput.setResultsDirectory(folder.newFolder("results").getPath());
+        InstanceData instanceData = InstanceDataFixture.createInstanceData(7, 8, 12, 12, 4);
+        ParallelTempering first = createParallelTempering(instanceData).setNumberOfThreads(1);
+        ParallelTempering second = createParallelTempering(instanceData).setNumberOfThreads(3);
+        Solution firstSolution = first.run();
+        Solution secondSolution = second.run();
+
+        firstSolution.buildIntegerRepresentation();
+        secondSolution.buildIntegerRepresentation();
+        assertEquals(firstSolution.getEvaluationFunction(), secondSolution.getEvaluationFunction());
+        assertEquals(firstSolution.getIntegerRepresentation(), secondSolution.getIntegerRepresentation());
+        assertArrayEquals(first.getSwapAcceptanceRates(), second.getSwapAcceptanceRates(), 0);
+        assertEquals(firstSolution.getEvaluationFunction(), first.getAnytimeBestSolution().getEvaluationFunction());
+    }
+
+    @Test
+    public void runsOnOneThreadByDefaultTest() {
+        assertEquals(1, new ParallelTempering(null).getNumberOfThreads());
+    }
+
+    private ParallelTempering createParallelTempering(InstanceData instanceData) {
+        return new ParallelTempering(new VRPDRTSD(instanceData))
+                .setNumberOfReplicas(3)
+                .setMinimumTemperature(10)
+                .setMaximumTemperature(1000)
+                .setNumberOfExchanges(6)
+                .setStepsBetweenExchanges(3)
+                .setSeed(1);
+    }
+
+    private Random fixedRandom(double value) {
+        return new Random() {
+            @Override
+            public double nextDouble() {
+                return value;
+            }
+        };
+    }
+}
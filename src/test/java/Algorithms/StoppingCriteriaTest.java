@@ -0,0 +1,48 @@
+package Algorithms;
+
+import java.time.Duration;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class StoppingCriteriaTest {
+
+    @Test
+    public void criteriaAreOffUntilSetTest() {
+        StoppingCriteria criteria = new StoppingCriteria();
+        criteria.start();
+        for (int i = 0; i < 1000; i++) {
+            criteria.countIteration(100);
+        }
+        assertFalse(criteria.isSatisfied());
+    }
+
+    @Test
+    public void stagnationAndTargetTest() {
+        StoppingCriteria criteria = new StoppingCriteria().setStagnationLimit(2).setTargetEvaluationFunction(50);
+        criteria.start();
+        criteria.countIteration(100);
+        criteria.countIteration(100);
+        assertFalse(criteria.isSatisfied());
+        criteria.countIteration(100);
+        assertTrue(criteria.isSatisfied());
+
+        criteria.start();
+        criteria.countIteration(90);
+        assertFalse(criteria.isSatisfied());
+        criteria.countIteration(50);
+        assertTrue(criteria.isSatisfied());
+    }
+
+    @Test
+    public void timeBudgetTest() {
+        StoppingCriteria criteria = new StoppingCriteria().setTimeBudget(Duration.ZERO);
+        criteria.start();
+        assertTrue(criteria.isSatisfied());
+        criteria.setTimeBudget(Duration.ofHours(1));
+        assertFalse(criteria.isSatisfied());
+    }
+}
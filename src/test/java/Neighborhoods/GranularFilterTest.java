@@ -0,0 +1,116 @@
+package Neighborhoods;
+
+import ProblemRepresentation.*;
+import VRPDRTSD.VRPDRTSD;
+import java.util.*;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class GranularFilterTest {
+
+    private final InstanceData instanceData = InstanceDataFixture.createInstanceData(7, 8, 12, 12, 4);
+
+    @Test
+    public void candidatesAreTheNearestRequestsTest() {
+        ProblemData data = new ProblemData(instanceData);
+        GranularFilter filter = new GranularFilter(data, 3);
+        for (Request request : data.getRequests()) {
+            int id = request.getId();
+            int[] candidates = filter.getCandidates(id);
+            assertEquals(3, candidates.length);
+
+            long[] costs = new long[candidates.length];
+            for (int i = 0; i < candidates.length; i++) {
+                assertTrue(candidates[i] != id);
+                assertTrue(filter.isCandidate(id, candidates[i]));
+                costs[i] = GranularFilter.compatibilityCost(request, data.getRequest(candidates[i]), data.getTravelTimes());
+                if (i > 0) {
+                    assertTrue(costs[i - 1] <= costs[i]);
+                }
+            }
+            for (Request other : data.getRequests()) {
+                int otherId = other.getId();
+                boolean isCandidate = Arrays.stream(candidates).anyMatch(candidate -> candidate == otherId);
+                assertEquals(isCandidate, filter.isCandidate(id, otherId));
+                if (otherId != id && !isCandidate) {
+                    long cost = GranularFilter.compatibilityCost(request, other, data.getTravelTimes());
+                    assertTrue(cost > costs[2] || (cost == costs[2] && otherId > candidates[2]));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void compatibilityCostTest() {
+        ProblemData data = new ProblemData(instanceData);
+        Request request = data.getRequest(1);
+        Request other = data.getRequest(2);
+        TravelTimeMatrix travelTimes = data.getTravelTimes();
+        long windowGap = Math.max(0, Math.max(request.getDeliveryTimeWindowLowerInMinutes(),
+                other.getDeliveryTimeWindowLowerInMinutes()) - Math.min(request.getDeliveryTimeWindowUpperInMinutes(),
+                other.getDeliveryTimeWindowUpperInMinutes()));
+
+        assertEquals(windowGap + travelTimes.getMinutes(request.getOrigin(), other.getOrigin())
+                + travelTimes.getMinutes(request.getDestination(), other.getDestination()),
+                GranularFilter.compatibilityCost(request, other, travelTimes));
+    }
+
+    @Test
+    public void pruningRatioTest() {
+        GranularFilter filter = new GranularFilter(new ProblemData(instanceData), 2);
+        int[] candidates = filter.getCandidates(1);
+        List<Integer> otherIds = new ArrayList<>();
+        for (int id = 2; id <= 12; id++) {
+            if (!filter.isCandidate(1, id)) {
+                otherIds.add(id);
+            }
+        }
+
+        assertTrue(filter.routeHasCandidate(1, Arrays.asList(0, otherIds.get(0), candidates[1], otherIds.get(0),
+                candidates[1], 0)));
+        assertFalse(filter.routeHasCandidate(1, Arrays.asList(0, otherIds.get(0), otherIds.get(0), 0)));
+        assertFalse(filter.routeHasCandidate(1, Arrays.asList(0, otherIds.get(1), otherIds.get(2), otherIds.get(1),
+                otherIds.get(2), 0)));
+        assertTrue(filter.routeHasCandidate(1, Arrays.asList(0, candidates[0], candidates[0], 0)));
+        assertEquals(4, filter.getCheckedPairs());
+        assertEquals(2, filter.getPrunedPairs());
+        assertEquals(0.5, filter.getPruningRatio(), 1e-9);
+
+        filter.resetStatistics();
+        assertEquals(0, filter.getCheckedPairs());
+        assertEquals(0, filter.getPruningRatio(), 1e-9);
+    }
+
+    @Test
+    public void filterWithEveryRequestAsCandidateKeepsTheVndResultTest() {
+        VRPDRTSD plain = new VRPDRTSD(instanceData);
+        plain.buildGreedySolution();
+        plain.vnd();
+
+        VRPDRTSD granular = new VRPDRTSD(instanceData);
+        granular.setNumberOfCandidates(11);
+        granular.buildGreedySolution();
+        granular.vnd();
+
+        assertTrue(granular.getGranularFilter().getCheckedPairs() > 0);
+        assertEquals(plain.getSolution().getEvaluationFunction(), granular.getSolution().getEvaluationFunction());
+    }
+
+    @Test
+    public void solversShareTheFilterOfTheInstanceTest() {
+        VRPDRTSD problem = new VRPDRTSD(instanceData);
+        problem.setNumberOfCandidates(2);
+        VRPDRTSD solver = problem.newSolver(1);
+        assertSame(problem.getGranularFilter(), solver.getGranularFilter());
+
+        solver.buildGreedySolution();
+        solver.vnd();
+        GranularFilter filter = problem.getGranularFilter();
+        assertTrue(filter.getPrunedPairs() > 0);
+        assertEquals((double) filter.getPrunedPairs() / filter.getCheckedPairs(), problem.getGranularPruningRatio(), 1e-9);
+    }
+}
@@ -0,0 +1,86 @@
+package Neighborhoods;
+
+import ProblemRepresentation.*;
+import VRPDRTSD.VRPDRTSD;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class LocalSearchTest {
+
+    private final VRPDRTSD problem = new VRPDRTSD(InstanceDataFixture.createInstanceData(7, 8, 12, 12, 4));
+
+    private Neighborhood[] createNeighborhoods(ProblemData data) {
+        return new Neighborhood[]{new SwapIntraRouteNeighborhood(data), new SwapInterRouteNeighborhood(data),
+            new ReallocationNeighborhood(data), new TwoOptNeighborhood(data), new ShiftMinutesNeighborhood(data, 5)};
+    }
+
+    @Test
+    public void parallelSearchFindsTheSequentialBestMoveTest() {
+        problem.buildGreedySolution();
+        Solution initialSolution = problem.getSolution();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        int improvingNeighborhoods = 0;
+        try {
+            for (Neighborhood neighborhood : createNeighborhoods(problem.getData())) {
+                Move sequentialMove = LocalSearch.findBestMove(initialSolution, neighborhood);
+                Move parallelMove = LocalSearch.findBestMove(initialSolution, neighborhood, pool);
+                assertEquals(sequentialMove == null, parallelMove == null);
+                if (sequentialMove != null) {
+                    improvingNeighborhoods++;
+                    assertEquals(sequentialMove.getFirstRoute(), parallelMove.getFirstRoute());
+                    assertEquals(sequentialMove.getSecondRoute(), parallelMove.getSecondRoute());
+                    assertSameSolution(applied(initialSolution, sequentialMove), applied(initialSolution, parallelMove));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(improvingNeighborhoods > 1);
+    }
+
+    @Test
+    public void parallelBestImprovementReachesTheSequentialOptimumTest() {
+        problem.buildGreedySolution();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (Neighborhood neighborhood : createNeighborhoods(problem.getData())) {
+                Solution sequentialSolution = problem.getSolution().copy();
+                Solution parallelSolution = problem.getSolution().copy();
+                boolean sequentialImproved = LocalSearch.bestImprovement(sequentialSolution, neighborhood);
+                boolean parallelImproved = LocalSearch.bestImprovement(parallelSolution, neighborhood, pool);
+                assertEquals(sequentialImproved, parallelImproved);
+                assertSameSolution(sequentialSolution, parallelSolution);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void scheduleShiftSearchTypesDoNotWorsenTheSolutionTest() {
+        for (int localSearchType = 9; localSearchType <= 10; localSearchType++) {
+            problem.buildGreedySolution();
+            long greedyEvaluation = problem.getSolution().getEvaluationFunction();
+            problem.localSearch(localSearchType);
+            assertTrue(problem.getSolution().getEvaluationFunction() <= greedyEvaluation);
+        }
+    }
+
+    private Solution applied(Solution solution, Move move) {
+        Solution copy = solution.copy();
+        move.apply(copy);
+        return copy;
+    }
+
+    private void assertSameSolution(Solution expected, Solution actual) {
+        expected.buildIntegerRepresentation();
+        actual.buildIntegerRepresentation();
+        assertEquals(expected.getEvaluationFunction(), actual.getEvaluationFunction());
+        assertEquals(expected.getIntegerRepresentation(), actual.getIntegerRepresentation());
+    }
+}
@@ -0,0 +1,78 @@
+package Neighborhoods;
+
+import ProblemRepresentation.*;
+import VRPDRTSD.VRPDRTSD;
+import java.util.*;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class MoveTest {
+
+    private final VRPDRTSD problem = new VRPDRTSD(InstanceDataFixture.createInstanceData(7, 8, 12, 12, 4));
+
+    @Test
+    public void swapIntraRouteMovesAreUndoneTest() {
+        assertMovesAreUndone(new SwapIntraRouteNeighborhood(problem.getData()));
+    }
+
+    @Test
+    public void swapInterRouteMovesAreUndoneTest() {
+        assertMovesAreUndone(new SwapInterRouteNeighborhood(problem.getData()));
+    }
+
+    @Test
+    public void reallocationMovesAreUndoneTest() {
+        assertMovesAreUndone(new ReallocationNeighborhood(problem.getData()));
+    }
+
+    @Test
+    public void twoOptMovesAreUndoneTest() {
+        assertMovesAreUndone(new TwoOptNeighborhood(problem.getData()));
+    }
+
+    @Test
+    public void shiftMinutesMovesAreUndoneTest() {
+        assertMovesAreUndone(new ShiftMinutesNeighborhood(problem.getData(), 5));
+    }
+
+    /**
+     * Evaluates, applies and undoes every move of the neighborhood on the
+     * greedy solution. The evaluated value must be the one the applied move
+     * gives, and the undo must give back the same routes and attributes.
+     */
+    private void assertMovesAreUndone(Neighborhood neighborhood) {
+        problem.buildGreedySolution();
+        Solution solution = problem.getSolution();
+        String before = describe(solution);
+
+        List<Move> moves = new ArrayList<>();
+        neighborhood.visitMoves(solution, move -> moves.add(move.copy()));
+        assertTrue(moves.size() > 0);
+
+        for (Move move : moves) {
+            long evaluation = move.evaluate(solution);
+            move.apply(solution);
+            assertEquals(evaluation, solution.getEvaluationFunction());
+            move.undo(solution);
+            assertEquals(before, describe(solution));
+        }
+    }
+
+    private String describe(Solution solution) {
+        StringBuilder description = new StringBuilder();
+        description.append(solution.getEvaluationFunction()).append(' ')
+                .append(solution.getTotalDistanceTraveled()).append(' ')
+                .append(solution.getTotalTravelTime()).append(' ')
+                .append(solution.getTotalTimeWindowAnticipation()).append(' ')
+                .append(solution.getTotalTimeWindowDelay()).append(' ')
+                .append(solution.getNumberOfVehicles());
+        for (Route route : solution.getRoutes()) {
+            description.append('\n').append(route);
+        }
+        return description.toString();
+    }
+}
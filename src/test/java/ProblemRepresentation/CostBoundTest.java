@@ -0,0 +1,27 @@
+package ProblemRepresentation;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class CostBoundTest {
+
+    @Test
+    public void excludesTest() {
+        CostBound bound = new CostBound(1000, 100, 50, 10, 0, 2, false);
+        assertFalse(bound.excludes(10, 10, 0, false));
+        assertTrue(bound.excludes(10, 10, 15, false));
+        assertTrue(bound.excludes(10, 10, 0, true));
+        assertTrue(bound.excludes(900, 10, 0, false));
+    }
+
+    @Test
+    public void upperBoundIsExclusiveTest() {
+        CostBound bound = new CostBound(201, 100, 50, 10, 0, 2, false);
+        assertFalse(bound.excludes(10, 10, 0, false));
+        assertTrue(bound.excludes(20, 10, 0, false));
+    }
+}
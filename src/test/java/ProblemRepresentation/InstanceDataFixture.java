@@ -0,0 +1,43 @@
+package ProblemRepresentation;
+
+import java.time.*;
+import java.util.*;
+
+/**
+ *
+ * @author renansantos - The InstanceDataFixture Class builds small instances
+ * for the tests that do not read the database: random travel times between
+ * the nodes and requests with ten minute delivery windows in the morning,
+ * drawn from a seed, so every test gets the same instance.
+ */
+public class InstanceDataFixture {
+
+    public static InstanceData createInstanceData(long seed, int numberOfNodes, int numberOfRequests,
+            int numberOfVehicles, int vehicleCapacity) {
+        Random rnd = new Random(seed);
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < numberOfNodes; i++) {
+            nodes.add(new Node(i, 0.0, 0.0, "node " + i));
+        }
+        Duration[][] duration = new Duration[numberOfNodes][numberOfNodes];
+        long[][] distance = new long[numberOfNodes][numberOfNodes];
+        for (int i = 0; i < numberOfNodes; i++) {
+            for (int j = 0; j < numberOfNodes; j++) {
+                int seconds = i == j ? 0 : 120 + rnd.nextInt(900);
+                duration[i][j] = Duration.ofSeconds(seconds);
+                distance[i][j] = seconds * 9L;
+            }
+        }
+        LocalDateTime day = LocalDateTime.of(2017, 1, 1, 0, 0, 0);
+        List<Request> requests = new ArrayList<>();
+        for (int id = 1; id <= numberOfRequests; id++) {
+            int origin = 1 + rnd.nextInt(numberOfNodes - 1);
+            int destination = 1 + (origin + rnd.nextInt(numberOfNodes - 2)) % (numberOfNodes - 1);
+            LocalDateTime lower = day.plusMinutes(400 + rnd.nextInt(240));
+            requests.add(new Request(id, nodes.get(origin), nodes.get(destination), day, day, lower,
+                    lower.plusMinutes(10)));
+        }
+        return new InstanceData("instance", "nodes", "adjacencies", numberOfNodes, nodes, requests,
+                new TravelTimeMatrix(duration), distance, numberOfVehicles, vehicleCapacity);
+    }
+}
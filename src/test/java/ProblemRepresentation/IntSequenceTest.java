@@ -0,0 +1,49 @@
+package ProblemRepresentation;
+
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class IntSequenceTest {
+
+    @Test
+    public void insertRemoveAndSwapTest() {
+        IntSequence sequence = new IntSequence();
+        for (int i = 0; i < 40; i++) {
+            sequence.add(i % 4);
+        }
+        assertEquals(40, sequence.size());
+        assertEquals(10, sequence.removeAll(0));
+        assertEquals(30, sequence.size());
+        assertEquals(Arrays.asList(1, 2, 3), sequence.toList().subList(0, 3));
+
+        sequence.insert(0, 0);
+        sequence.add(0);
+        sequence.swap(1, 2);
+        assertEquals(Arrays.asList(0, 2, 1, 3), sequence.toList().subList(0, 4));
+        assertEquals(0, sequence.get(sequence.size() - 1));
+        assertEquals(3, sequence.max());
+        assertEquals(3, sequence.indexOf(3, 0, sequence.size()));
+        assertEquals(-1, sequence.indexOf(3, 0, 3));
+    }
+
+    @Test
+    public void copyDoesNotShareValuesTest() {
+        IntSequence sequence = new IntSequence();
+        sequence.add(5);
+        sequence.add(7);
+        IntSequence copy = new IntSequence(sequence);
+        copy.set(0, 9);
+        sequence.resize(4, -1);
+
+        assertEquals(Arrays.asList(5, 7, -1, -1), sequence.toList());
+        assertEquals(Arrays.asList(9, 7), copy.toList());
+
+        copy.copyFrom(sequence);
+        assertEquals(sequence.toList(), copy.toList());
+    }
+}
@@ -0,0 +1,28 @@
+package ProblemRepresentation;
+
+import java.time.LocalDateTime;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class RequestTest {
+
+    @Test
+    public void timesInMinutesTest() {
+        LocalDateTime day = LocalDateTime.of(2017, 1, 1, 0, 0);
+        Request request = new Request(1, new Node(0, 0.0, 0.0, ""), new Node(1, 0.0, 0.0, ""), day, day,
+                LocalDateTime.of(2017, 1, 1, 6, 30), LocalDateTime.of(2017, 1, 1, 6, 50));
+
+        assertEquals(390, request.getDeliveryTimeWindowLowerInMinutes());
+        assertEquals(410, request.getDeliveryTimeWindowUpperInMinutes());
+        assertEquals(day, request.getPickUpTime());
+        assertEquals(LocalDateTime.of(2017, 1, 1, 6, 30), request.getDeliveryTimeWindowLower());
+
+        assertEquals(10, request.getAnticipationInMinutes(380));
+        assertEquals(30, request.getDelayInMinutes(380));
+        assertEquals(-5, request.getDelayInMinutes(415));
+    }
+}
@@ -0,0 +1,80 @@
+package ProblemRepresentation;
+
+import java.util.*;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class RouteCacheTest {
+
+    private IntSequence createSequence(int... ids) {
+        IntSequence sequence = new IntSequence();
+        for (int id : ids) {
+            sequence.add(id);
+        }
+        return sequence;
+    }
+
+    private RouteCache.Entry createEntry(IntSequence visitIds) {
+        return new RouteCache.Entry(4, visitIds, new IntSequence(), new ArrayList<>(), new ArrayList<>(),
+                0, 0, 0, 0, 0, false);
+    }
+
+    @Test
+    public void hashIgnoresDepotAndUpdatesWithSwapTest() {
+        IntSequence route = createSequence(0, 1, 2, 1, 2, 0);
+        assertEquals(RouteCache.hashOf(createSequence(1, 2, 1, 2), 4), RouteCache.hashOf(route, 4));
+        assertTrue(RouteCache.hashOf(route, 4) != RouteCache.hashOf(route, 11));
+
+        long hash = RouteCache.updateHash(RouteCache.hashOf(route, 4), 1, 2, 1);
+        hash = RouteCache.updateHash(hash, 2, 1, 2);
+        assertEquals(RouteCache.hashOf(createSequence(0, 1, 1, 2, 2, 0), 4), hash);
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsRemovedTest() {
+        RouteCache cache = new RouteCache(2);
+        IntSequence first = createSequence(0, 1, 1, 0);
+        IntSequence second = createSequence(0, 2, 2, 0);
+        IntSequence third = createSequence(0, 3, 3, 0);
+        cache.put(RouteCache.hashOf(first, 4), createEntry(first));
+        cache.put(RouteCache.hashOf(second, 4), createEntry(second));
+
+        assertNotNull(cache.get(RouteCache.hashOf(first, 4), createSequence(1, 1), 4));
+        cache.put(RouteCache.hashOf(third, 4), createEntry(third));
+
+        assertNull(cache.get(RouteCache.hashOf(second, 4), second, 4));
+        assertNotNull(cache.get(RouteCache.hashOf(first, 4), first, 4));
+        assertNull(cache.get(RouteCache.hashOf(third, 4), third, 11));
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void swapsKeepTheHashOfTheRebuiltRouteTest() {
+        ProblemData data = new ProblemData(InstanceDataFixture.createInstanceData(1, 8, 12, 3, 4));
+        Route route = new Route();
+        route.rebuild(Arrays.asList(0, 1, 2, 1, 3, 2, 3, 0), data);
+        int capacity = route.getVehicleCapacity(data);
+
+        for (int i = 1; i < route.getIdSequenceSize() - 1; i++) {
+            for (int j = i + 1; j < route.getIdSequenceSize() - 1; j++) {
+                Route swapped = new Route(route);
+                swapped.swapRequests(i, j, data);
+                swapped.swapRequests(1, j, data);
+                assertNotNull(data.getRouteCache().get(RouteCache.hashOf(swapped.getVisitIds(), capacity),
+                        swapped.getVisitIds(), capacity));
+            }
+        }
+
+        Route replaced = new Route(route);
+        replaced.replaceRequest(2, 5, data);
+        assertEquals(Arrays.asList(0, 1, 5, 1, 3, 5, 3, 0), replaced.getIntegerSequenceOfAttendedRequests());
+        assertNotNull(data.getRouteCache().get(RouteCache.hashOf(replaced.getVisitIds(), capacity),
+                replaced.getVisitIds(), capacity));
+    }
+}
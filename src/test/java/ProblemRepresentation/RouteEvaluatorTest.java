@@ -0,0 +1,146 @@
+package ProblemRepresentation;
+
+import java.util.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+@RunWith(Parameterized.class)
+public class RouteEvaluatorTest {
+
+    private final ProblemData data;
+    private final List<Route> routes = new ArrayList<>();
+    private final RouteEvaluator evaluator;
+
+    public RouteEvaluatorTest(long seed, int vehicleCapacity) {
+        this.data = new ProblemData(InstanceDataFixture.createInstanceData(seed, 8, 12, 3, vehicleCapacity));
+        this.evaluator = new RouteEvaluator(data);
+        Random rnd = new Random(seed);
+        List<Integer> requestIds = new ArrayList<>();
+        for (int id = 1; id <= 9; id++) {
+            requestIds.add(id);
+        }
+        Collections.shuffle(requestIds, rnd);
+        for (int first = 0; first < requestIds.size(); first += 3) {
+            List<Integer> idSequence = new ArrayList<>();
+            for (int id : requestIds.subList(first, first + 3)) {
+                idSequence.add(id);
+                idSequence.add(id);
+            }
+            Collections.shuffle(idSequence, rnd);
+            idSequence.add(0, 0);
+            idSequence.add(0);
+            Route route = new Route();
+            route.rebuild(idSequence, data);
+            routes.add(route);
+        }
+    }
+
+    @Parameters
+    public static Collection<Object[]> instances() {
+        return Arrays.asList(new Object[][]{{1, 4}, {2, 4}, {3, 2}, {4, 2}, {5, 3}});
+    }
+
+    @Test
+    public void swapPriceMatchesTheRebuiltRouteTest() {
+        for (Route route : routes) {
+            for (int i = 0; i < route.getIdSequenceSize(); i++) {
+                for (int j = i + 1; j < route.getIdSequenceSize(); j++) {
+                    Route rebuilt = new Route(route);
+                    rebuilt.swapRequests(i, j, data);
+                    evaluator.evaluateSwap(route, i, j);
+                    assertSameAttributes(rebuilt);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void reversalPriceMatchesTheRebuiltRouteTest() {
+        for (Route route : routes) {
+            for (int i = 1; i < route.getIdSequenceSize() - 1; i++) {
+                for (int j = i + 2; j < route.getIdSequenceSize(); j++) {
+                    Route rebuilt = new Route(route);
+                    rebuilt.reverseRequests(i, j, data);
+                    evaluator.evaluateReversal(route, i, j);
+                    assertSameAttributes(rebuilt);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void removalPriceMatchesTheRebuiltRouteTest() {
+        for (Route route : routes) {
+            for (int requestId : route.getUsedIds()) {
+                Route rebuilt = new Route(route);
+                rebuilt.removeRequest(requestId, data);
+                evaluator.evaluateRemoval(route, requestId);
+                assertSameAttributes(rebuilt);
+            }
+        }
+    }
+
+    @Test
+    public void insertionPriceMatchesTheRebuiltRouteTest() {
+        int requestId = 10;
+        for (Route route : routes) {
+            evaluator.prepareInsertions(route);
+            for (int pickupPosition = 1; pickupPosition < route.getIdSequenceSize(); pickupPosition++) {
+                int lastDeliveryPosition = evaluator.getLastFeasibleDeliveryPosition(pickupPosition);
+                for (int deliveryPosition = pickupPosition + 1; deliveryPosition <= route.getIdSequenceSize();
+                        deliveryPosition++) {
+                    Route rebuilt = new Route(route);
+                    rebuilt.insertRequest(requestId, pickupPosition, deliveryPosition, data);
+                    if (!route.isPenalized()) {
+                        assertEquals(deliveryPosition > lastDeliveryPosition, rebuilt.isPenalized());
+                    }
+                    evaluator.evaluateInsertion(route, requestId, pickupPosition, deliveryPosition);
+                    assertSameAttributes(rebuilt);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void replacementPriceMatchesTheRebuiltRouteTest() {
+        for (Route route : routes) {
+            for (int oldId : route.getUsedIds()) {
+                for (int newId = 10; newId <= 12; newId++) {
+                    Route rebuilt = new Route(route);
+                    rebuilt.replaceRequest(oldId, newId, data);
+                    evaluator.evaluateReplacement(route, oldId, newId);
+                    assertSameAttributes(rebuilt);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void timeShiftPriceMatchesTheShiftedRouteTest() {
+        for (Route route : routes) {
+            for (int minutes = -15; minutes <= 15; minutes++) {
+                Route shifted = new Route(route);
+                shifted.addMinutesInRoute(minutes, data);
+                evaluator.evaluateTimeShift(route, minutes);
+                assertSameAttributes(shifted);
+            }
+        }
+    }
+
+    private void assertSameAttributes(Route route) {
+        assertFalse(evaluator.isRejectedEarly());
+        assertEquals(route.getEvaluationFunction(), evaluator.getEvaluationFunction());
+        assertEquals(route.getTotalRouteDistance(), evaluator.getTotalRouteDistance());
+        assertEquals(route.getRouteTravelTime(), evaluator.getRouteTravelTime());
+        assertEquals(route.getTotalTimeWindowAnticipation(), evaluator.getTotalTimeWindowAnticipation());
+        assertEquals(route.getTotalTimeWindowDelay(), evaluator.getTotalTimeWindowDelay());
+        assertEquals(route.isPenalized(), evaluator.isPenalized());
+    }
+}
@@ -0,0 +1,80 @@
+package ProblemRepresentation;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class RouteSchedulerTest {
+
+    @Test
+    public void noShiftNeededTest() {
+        RouteScheduler scheduler = new RouteScheduler();
+        scheduler.addDelivery(100, 90, 110);
+        scheduler.addDelivery(130, 120, 140);
+
+        assertEquals(0, scheduler.findBestShift(30));
+        assertEquals(0, scheduler.getTotalTimeWindowAnticipation());
+        assertEquals(0, scheduler.getTotalTimeWindowDelay());
+        assertIsTheBestShift(scheduler, 0, 30);
+    }
+
+    @Test
+    public void feasibleShiftTest() {
+        RouteScheduler scheduler = new RouteScheduler();
+        scheduler.addDelivery(100, 120, 130);
+        scheduler.addDelivery(110, 100, 140);
+
+        assertEquals(20, scheduler.findBestShift(30));
+        assertEquals(0, scheduler.getTotalTimeWindowAnticipation());
+        assertEquals(0, scheduler.getTotalTimeWindowDelay());
+        assertIsTheBestShift(scheduler, 20, 30);
+    }
+
+    @Test
+    public void infeasibleWindowsTest() {
+        RouteScheduler scheduler = new RouteScheduler();
+        scheduler.addDelivery(100, 120, 125);
+        scheduler.addDelivery(100, 90, 105);
+
+        assertEquals(6, scheduler.findBestShift(10));
+        assertEquals(14, scheduler.getTotalTimeWindowAnticipation());
+        assertEquals(1, scheduler.getTotalTimeWindowDelay());
+        assertIsTheBestShift(scheduler, 6, 10);
+    }
+
+    @Test
+    public void lateDeliveryIsNotMovedBackTest() {
+        RouteScheduler scheduler = new RouteScheduler();
+        scheduler.addDelivery(100, 50, 60);
+
+        assertEquals(0, scheduler.findBestShift(10));
+        assertEquals(0, scheduler.getTotalTimeWindowAnticipation());
+        assertEquals(40, scheduler.getTotalTimeWindowDelay());
+        assertIsTheBestShift(scheduler, 0, 10);
+    }
+
+    /**
+     * Evaluates every shift up to a few hours and checks that none is better
+     * than the one found by the sweep.
+     */
+    private void assertIsTheBestShift(RouteScheduler scheduler, int bestShift, long routeTravelTime) {
+        scheduler.evaluateShift(bestShift);
+        long bestEvaluation = evaluate(scheduler, routeTravelTime);
+        for (int shift = 0; shift <= 300; shift++) {
+            scheduler.evaluateShift(shift);
+            long evaluation = evaluate(scheduler, routeTravelTime);
+            assertTrue(evaluation >= bestEvaluation);
+            if (shift < bestShift) {
+                assertTrue(evaluation > bestEvaluation);
+            }
+        }
+    }
+
+    private long evaluate(RouteScheduler scheduler, long routeTravelTime) {
+        long delay = scheduler.getTotalTimeWindowDelay();
+        return scheduler.getTotalTimeWindowAnticipation() + (delay > 0 ? routeTravelTime * delay : routeTravelTime);
+    }
+}
@@ -7,6 +7,7 @@ package ProblemRepresentation;
 
 import VRPDRTSD.VRPDRTSD;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.junit.Test;
@@ -199,4 +200,24 @@ public class RouteTest {
         System.out.println(route.getNodesVisitationInIntegerRepresentation());
         
     }
+
+    @Test
+    public void loadProfileTest() {
+        Route route = new Route();
+        route.setIntegerRouteRepresetation(Arrays.asList(0, 1, 2, 1, 3, 3, 2, 0));
+        route.setVehicleCapacity(2);
+
+        int[] expectedLoads = {0, 1, 2, 1, 2, 1, 0, 0};
+        for (int i = 0; i < expectedLoads.length; i++) {
+            assertEquals(expectedLoads[i], route.getLoad(i));
+        }
+        assertEquals(2, route.getMaximumLoad());
+        route.capacityAnalysis(null);
+        assertFalse(route.isPenalized());
+
+        route.setIntegerRouteRepresetation(Arrays.asList(0, 1, 2, 3, 1, 2, 3, 0));
+        assertEquals(3, route.getMaximumLoad());
+        route.capacityAnalysis(null);
+        assertTrue(route.isPenalized());
+    }
 }
@@ -0,0 +1,48 @@
+package ProblemRepresentation;
+
+import java.util.*;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class SearchContextTest {
+
+    @Test
+    public void contextsOfTheSameInstanceDoNotShareStateTest() {
+        InstanceData instanceData = InstanceDataFixture.createInstanceData(7, 3, 2, 2, 4);
+        ProblemData first = new ProblemData(instanceData);
+        ProblemData second = new ProblemData(instanceData);
+
+        assertSame(first.getTravelTimes(), second.getTravelTimes());
+        assertTrue(first.getRequest(1) != second.getRequest(1));
+        assertTrue(first.getRouteCache() != second.getRouteCache());
+
+        first.getRequest(1).setFeasible(true);
+        first.getRequests().sort(Comparator.comparing(Request::getId).reversed());
+        first.getAvaibleVehicles().remove(0);
+        assertFalse(second.getRequest(1).isFeasible());
+        assertEquals(1, (int) second.getRequests().get(0).getId());
+        assertEquals(2, second.getAvaibleVehicles().size());
+        assertEquals(2, first.getRequest(2).getId().intValue());
+    }
+
+    @Test
+    public void loadIndexesAreKeptByEachContextTest() {
+        InstanceData instanceData = InstanceDataFixture.createInstanceData(7, 3, 2, 2, 4);
+        ProblemData first = new ProblemData(instanceData);
+        ProblemData second = new ProblemData(instanceData);
+        Node node = instanceData.getNodes().get(1);
+        Map<Node, List<Request>> requestsThatBoardsInNode = new HashMap<>();
+        Map<Node, List<Request>> requestsThatLeavesInNode = new HashMap<>();
+        requestsThatBoardsInNode.put(node, first.getRequests());
+        requestsThatLeavesInNode.put(node, new ArrayList<>());
+
+        first.setLoadIndexes(requestsThatBoardsInNode, requestsThatLeavesInNode);
+        assertEquals(2, first.getLoadIndex(node));
+        assertEquals(0, first.getLoadIndex(instanceData.getNodes().get(2)));
+        assertEquals(0, second.getLoadIndex(node));
+    }
+}
@@ -0,0 +1,62 @@
+package ProblemRepresentation;
+
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class SolutionTest {
+
+    private Route createRoute(Integer... ids) {
+        Route route = new Route();
+        route.setIntegerRouteRepresetation(Arrays.asList(ids));
+        return route;
+    }
+
+    @Test
+    public void copySharesOnlyUnchangedRoutesTest() {
+        Solution solution = new Solution();
+        solution.addRoute(createRoute(0, 1, 1, 0));
+        solution.addRoute(createRoute(0, 2, 3, 2, 3, 0));
+
+        Solution copy = solution.copy();
+        assertSame(solution.getRoute(0), copy.getRoute(0));
+        assertSame(solution.getRoute(1), copy.getRoute(1));
+
+        copy.getRouteForUpdate(1).addValueInIntegerRepresentation(4);
+        assertSame(solution.getRoute(0), copy.getRoute(0));
+        assertNotSame(solution.getRoute(1), copy.getRoute(1));
+        assertEquals(Arrays.asList(0, 2, 3, 2, 3, 0), solution.getRoute(1).getIntegerSequenceOfAttendedRequests());
+        assertEquals(Arrays.asList(0, 2, 3, 2, 3, 0, 4), copy.getRoute(1).getIntegerSequenceOfAttendedRequests());
+
+        Solution other = new Solution();
+        other.setSolution(solution);
+        other.setRoute(0, createRoute(0, 5, 5, 0));
+        assertEquals(Arrays.asList(0, 1, 1, 0), solution.getRoute(0).getIntegerSequenceOfAttendedRequests());
+        assertEquals(Arrays.asList(0, 5, 5, 0), other.getRoute(0).getIntegerSequenceOfAttendedRequests());
+
+        solution.getRouteForUpdate(0).addValueInIntegerRepresentation(6);
+        assertEquals(Arrays.asList(0, 1, 1, 0), copy.getRoute(0).getIntegerSequenceOfAttendedRequests());
+    }
+
+    @Test
+    public void copyConstructorSharesTheRoutesUntilTheyChangeTest() {
+        Solution solution = new Solution();
+        solution.addRoute(createRoute(0, 1, 1, 0));
+        solution.addRoute(createRoute(0, 2, 3, 2, 3, 0));
+
+        Solution copy = new Solution(solution);
+        assertSame(solution.getRoute(1), copy.getRoute(1));
+
+        copy.getRouteForUpdate(1).addValueInIntegerRepresentation(4);
+        assertNotSame(solution.getRoute(1), copy.getRoute(1));
+        assertEquals(Arrays.asList(0, 2, 3, 2, 3, 0), solution.getRoute(1).getIntegerSequenceOfAttendedRequests());
+
+        solution.getRouteForUpdate(0).addValueInIntegerRepresentation(5);
+        assertEquals(Arrays.asList(0, 1, 1, 0), copy.getRoute(0).getIntegerSequenceOfAttendedRequests());
+        assertEquals(Arrays.asList(0, 1, 1, 0, 5), solution.getRoute(0).getIntegerSequenceOfAttendedRequests());
+    }
+}
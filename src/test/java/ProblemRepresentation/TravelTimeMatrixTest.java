@@ -0,0 +1,30 @@
+package ProblemRepresentation;
+
+import java.time.Duration;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class TravelTimeMatrixTest {
+
+    @Test
+    public void testSecondsAndMinutesAreStoredRowMajor() {
+        Duration[][] duration = new Duration[2][2];
+        duration[0][0] = Duration.ofSeconds(0);
+        duration[0][1] = Duration.ofSeconds(125);
+        duration[1][0] = Duration.ofSeconds(59);
+        duration[1][1] = Duration.ofSeconds(0);
+
+        TravelTimeMatrix matrix = new TravelTimeMatrix(duration);
+
+        assertEquals(125, matrix.getSeconds(0, 1));
+        assertEquals(2, matrix.getMinutes(0, 1));
+        assertEquals(59, matrix.getSeconds(1, 0));
+        assertEquals(0, matrix.getMinutes(1, 0));
+        assertEquals(duration[0][1], matrix.toDurationArray()[0][1]);
+        assertSame(matrix.toDurationArray(), matrix.toDurationArray());
+    }
+}
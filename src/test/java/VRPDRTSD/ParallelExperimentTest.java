@@ -0,0 +1,95 @@
+package VRPDRTSD;
+
+import Algorithms.StoppingCriteria;
+import InstanceReader.DataOutput;
+import ProblemRepresentation.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class ParallelExperimentTest {
+
+    private final InstanceData instanceData = InstanceDataFixture.createInstanceData(7, 8, 12, 12, 4);
+    private final String resultsDirectory = DataOutput.getResultsDirectory();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void restoreResultsDirectory() {
+        DataOutput.setResultsDirectory(resultsDirectory);
+    }
+
+    private VRPDRTSD createProblem(int numberOfThreads, File resultsDirectory) {
+        DataOutput.setResultsDirectory(resultsDirectory.getPath());
+        VRPDRTSD problem = new VRPDRTSD(instanceData);
+        problem.getExperimentRunner().setSeed(1).setNumberOfThreads(numberOfThreads);
+        problem.setStoppingCriteria(new StoppingCriteria().setStagnationLimit(20));
+        return problem;
+    }
+
+    @Test
+    public void multiStartExperimentDoesNotDependOnTheNumberOfThreadsTest() throws IOException {
+        File sequentialDirectory = folder.newFolder("sequential");
+        File parallelDirectory = folder.newFolder("parallel");
+        List<Solution> sequential = createProblem(1, sequentialDirectory).multiStartForExperiment();
+        List<Solution> parallel = createProblem(4, parallelDirectory).multiStartForExperiment();
+        assertSameSolutions(sequential, parallel);
+        assertSameFiles(sequentialDirectory, parallelDirectory);
+    }
+
+    @Test
+    public void simulatedAnnealingExperimentDoesNotDependOnTheNumberOfThreadsTest() throws IOException {
+        File sequentialDirectory = folder.newFolder("sequential");
+        File parallelDirectory = folder.newFolder("parallel");
+        List<Solution> sequential = createProblem(1, sequentialDirectory).simulatedAnnealingForExperiment();
+        List<Solution> parallel = createProblem(3, parallelDirectory).simulatedAnnealingForExperiment();
+        assertSameSolutions(sequential, parallel);
+        assertSameFiles(sequentialDirectory, parallelDirectory);
+    }
+
+    private void assertSameSolutions(List<Solution> expected, List<Solution> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            expected.get(i).buildIntegerRepresentation();
+            actual.get(i).buildIntegerRepresentation();
+            assertEquals(expected.get(i).getEvaluationFunction(), actual.get(i).getEvaluationFunction());
+            assertEquals(expected.get(i).getIntegerRepresentation(), actual.get(i).getIntegerRepresentation());
+        }
+    }
+
+    private void assertSameFiles(File expected, File actual) throws IOException {
+        Map<Path, List<String>> expectedFiles = readFiles(expected.toPath());
+        Map<Path, List<String>> actualFiles = readFiles(actual.toPath());
+        assertFalse(expectedFiles.isEmpty());
+        assertEquals(expectedFiles.keySet(), actualFiles.keySet());
+        for (Path file : expectedFiles.keySet()) {
+            assertEquals(file.toString(), expectedFiles.get(file), actualFiles.get(file));
+        }
+    }
+
+    private Map<Path, List<String>> readFiles(Path directory) throws IOException {
+        Map<Path, List<String>> files = new TreeMap<>();
+        Files.walk(directory).filter(Files::isRegularFile)
+                .forEach(file -> files.put(directory.relativize(file), readLines(file)));
+        return files;
+    }
+
+    private List<String> readLines(Path file) {
+        try {
+            return Files.readAllLines(file);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package VRPDRTSD;
+
+import ProblemRepresentation.*;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class ParallelMultiStartTest {
+
+    @Test
+    public void bestSolutionDoesNotDependOnTheNumberOfThreadsTest() {
+        InstanceData instanceData = InstanceDataFixture.createInstanceData(7, 8, 12, 12, 4);
+        Solution sequential = new VRPDRTSD(instanceData).parallelMultiStart(6, 1, 42);
+        VRPDRTSD problem = new VRPDRTSD(instanceData);
+        Solution parallel = problem.parallelMultiStart(6, 3, 42);
+
+        assertEquals(sequential.getEvaluationFunction(), parallel.getEvaluationFunction());
+        assertEquals(sequential.getIntegerRepresentation(), parallel.getIntegerRepresentation());
+        assertEquals(parallel.getEvaluationFunction(), problem.getAnytimeBestSolution().getEvaluationFunction());
+    }
+}
@@ -0,0 +1,57 @@
+package VRPDRTSD;
+
+import ProblemRepresentation.*;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author renansantos
+ */
+public class VNDTest {
+
+    @Test
+    public void vndWithoutDontLookBitsSearchesThePlainNeighborhoodsTest() {
+        InstanceData instanceData = InstanceDataFixture.createInstanceData(7, 8, 12, 12, 4);
+        VRPDRTSD problem = new VRPDRTSD(instanceData);
+        assertFalse(problem.isUsingDontLookBits());
+        problem.buildGreedySolution();
+        problem.vnd();
+        problem.getSolution().buildIntegerRepresentation();
+
+        VRPDRTSD plain = new VRPDRTSD(instanceData);
+        plain.buildGreedySolution();
+        Solution bestSolution = new Solution(plain.getSolution());
+        int currentNeighborhood = 2;
+        while (currentNeighborhood <= 6) {
+            plain.localSearch(currentNeighborhood);
+            if (plain.getSolution().getEvaluationFunction() < bestSolution.getEvaluationFunction()) {
+                bestSolution.setSolution(plain.getSolution());
+                currentNeighborhood = 2;
+            } else {
+                currentNeighborhood = currentNeighborhood + 2;
+            }
+        }
+        bestSolution.buildIntegerRepresentation();
+
+        assertEquals(bestSolution.getEvaluationFunction(), problem.getSolution().getEvaluationFunction());
+        assertEquals(bestSolution.getIntegerRepresentation(), problem.getSolution().getIntegerRepresentation());
+    }
+
+    @Test
+    public void vndResultOnTheSyntheticInstanceTest() {
+        VRPDRTSD problem = new VRPDRTSD(InstanceDataFixture.createInstanceData(7, 8, 12, 12, 4));
+        problem.buildGreedySolution();
+        assertEquals(406, problem.getSolution().getEvaluationFunction());
+
+        problem.vnd();
+        problem.getSolution().buildIntegerRepresentation();
+
+        assertEquals(254, problem.getSolution().getEvaluationFunction());
+        assertEquals(Arrays.asList(0, -408, 8, -412, 2, -423, 4, -430, 3, -434, 4, -434, 8, -438, 3, -442, 6,
+                -442, 6, -448, 2, -448, 0, -454, 0, -407, 9, -411, 9, -427, 0, -437, 0, -554, 11, -560, 12, -560,
+                1, -573, 7, -580, 12, -580, 1, -587, 7, -591, 11, -595, 5, -602, 5, -612, 0, -618, 0, -567, 10,
+                -573, 10, -576, 0, -579), problem.getSolution().getIntegerRepresentation());
+    }
+}